@@ -0,0 +1,71 @@
+package com.erp.admin.controller;
+
+import com.erp.admin.service.TenantPlacementService;
+import com.erp.common.dto.ApiResponse;
+import com.erp.common.dto.tenant.RegisterDatabaseServerRequest;
+import com.erp.common.jwt.UserPrincipal;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/database-servers")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class DatabaseServerController {
+
+    private final TenantPlacementService tenantPlacementService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getServers() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Database servers retrieved successfully",
+                    tenantPlacementService.listServers()));
+        } catch (Exception e) {
+            log.error("Failed to get database servers: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "DATABASE_SERVER_RETRIEVAL_FAILED"));
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<Void>> registerServer(@Valid @RequestBody RegisterDatabaseServerRequest request,
+                                                            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Registering database server: {} by super admin: {}", request.getServerName(), currentUser.getUsername());
+
+        try {
+            tenantPlacementService.registerServer(request, currentUser);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Database server registered successfully", null));
+        } catch (Exception e) {
+            log.error("Failed to register database server: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "DATABASE_SERVER_REGISTRATION_FAILED"));
+        }
+    }
+
+    @PatchMapping("/{serverId}/accepting")
+    public ResponseEntity<ApiResponse<Void>> setAcceptingTenants(@PathVariable Long serverId,
+                                                                 @RequestParam boolean accepting,
+                                                                 @AuthenticationPrincipal UserPrincipal currentUser) {
+        try {
+            tenantPlacementService.setAcceptingTenants(serverId, accepting, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Database server updated successfully", null));
+        } catch (Exception e) {
+            log.error("Failed to update database server {}: {}", serverId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "DATABASE_SERVER_UPDATE_FAILED"));
+        }
+    }
+
+}
@@ -1,20 +1,33 @@
 package com.erp.admin.controller;
 
+import com.erp.admin.service.TenantBackupService;
 import com.erp.admin.service.TenantManagementService;
+import com.erp.admin.service.TenantOnboardingService;
 import com.erp.common.dto.ApiResponse;
 import com.erp.common.dto.tenant.*;
+import com.erp.common.entity.Tenant;
+import com.erp.common.entity.TenantMigrationRun;
+import com.erp.common.entity.TenantMigrationStatus;
+import com.erp.common.entity.TenantOnboardingJob;
 import com.erp.common.jwt.UserPrincipal;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/tenants")
@@ -23,7 +36,11 @@ import java.util.List;
 @PreAuthorize("hasRole('SUPER_ADMIN')")
 public class TenantController {
 
+    private static final DateTimeFormatter BACKUP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
     private final TenantManagementService tenantManagementService;
+    private final TenantOnboardingService tenantOnboardingService;
+    private final TenantBackupService tenantBackupService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<TenantResponse>> createTenant(@Valid @RequestBody CreateTenantRequest request, @AuthenticationPrincipal UserPrincipal currentUser) {
@@ -41,6 +58,48 @@ public class TenantController {
         }
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<TenantOnboardingJob>> createTenantsInBulk(@Valid @RequestBody BulkCreateTenantRequest request,
+                                                                               @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Bulk onboarding of {} tenants by super admin: {}", request.getTenants().size(), currentUser.getUsername());
+
+        try {
+            TenantOnboardingJob job = tenantOnboardingService.startJob(request.getTenants(), currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Tenant onboarding started", job));
+        } catch (Exception e) {
+            log.error("Failed to start tenant onboarding: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_ONBOARDING_FAILED"));
+        }
+    }
+
+    @GetMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<TenantOnboardingJob>>> getOnboardingJobs(
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Onboarding jobs retrieved successfully",
+                    tenantOnboardingService.getRecentJobs(limit)));
+        } catch (Exception e) {
+            log.error("Failed to get onboarding jobs: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "ONBOARDING_JOB_RETRIEVAL_FAILED"));
+        }
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOnboardingJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Onboarding job retrieved successfully",
+                    tenantOnboardingService.getJob(jobId)));
+        } catch (Exception e) {
+            log.error("Failed to get onboarding job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "ONBOARDING_JOB_RETRIEVAL_FAILED"));
+        }
+    }
+
     @PostMapping("/search")
     public ResponseEntity<ApiResponse<Page<TenantResponse>>> searchTenants(
             @RequestBody TenantSearchRequest searchRequest) {
@@ -135,6 +194,131 @@ public class TenantController {
         }
     }
 
+    @PostMapping("/{tenantId}/hibernate")
+    public ResponseEntity<ApiResponse<String>> hibernateTenant(@PathVariable Long tenantId, @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Hibernating tenant ID: {} by super admin: {}", tenantId, currentUser.getUsername());
+
+        try {
+            tenantManagementService.hibernateTenant(tenantId);
+            return ResponseEntity.ok(ApiResponse.success("Tenant hibernated successfully", "Tenant hibernated"));
+        } catch (Exception e) {
+            log.error("Failed to hibernate tenant: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_HIBERNATION_FAILED"));
+        }
+    }
+
+    @PostMapping("/{tenantId}/wake")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> wakeTenant(@PathVariable Long tenantId, @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Waking tenant ID: {} by super admin: {}", tenantId, currentUser.getUsername());
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Tenant wake started", tenantManagementService.wakeTenant(tenantId)));
+        } catch (Exception e) {
+            log.error("Failed to wake tenant: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_WAKE_FAILED"));
+        }
+    }
+
+    @PostMapping("/{tenantId}/clone")
+    public ResponseEntity<ApiResponse<TenantResponse>> cloneTenant(@PathVariable Long tenantId, @Valid @RequestBody CloneTenantRequest request,
+                                                                   @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Cloning tenant ID: {} into {} by super admin: {}", tenantId, request.getTenantCode(), currentUser.getUsername());
+
+        try {
+            TenantResponse response = tenantManagementService.cloneTenant(tenantId, request, currentUser);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Tenant cloned successfully", response));
+        } catch (Exception e) {
+            log.error("Failed to clone tenant: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_CLONE_FAILED"));
+        }
+    }
+
+    @GetMapping("/{tenantId}/backup")
+    public ResponseEntity<?> backupTenant(@PathVariable Long tenantId, @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Backing up tenant ID: {} by super admin: {}", tenantId, currentUser.getUsername());
+
+        try {
+            Tenant tenant = tenantBackupService.getTenant(tenantId);
+            String filename = tenant.getSchemaName() + "-" + LocalDateTime.now().format(BACKUP_TIMESTAMP) + ".zip";
+            StreamingResponseBody body = out -> tenantBackupService.writeBackup(tenant, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .body(body);
+        } catch (Exception e) {
+            log.error("Failed to back up tenant: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_BACKUP_FAILED"));
+        }
+    }
+
+    @PostMapping(value = "/{tenantId}/restore", consumes = "application/zip")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> restoreTenant(@PathVariable Long tenantId, InputStream archive,
+                                                                          @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Restoring tenant ID: {} from backup by super admin: {}", tenantId, currentUser.getUsername());
+
+        try {
+            Map<String, Object> result = tenantBackupService.restoreBackup(tenantId, archive);
+            return ResponseEntity.ok(ApiResponse.success("Tenant restored successfully", result));
+        } catch (Exception e) {
+            log.error("Failed to restore tenant: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_RESTORE_FAILED"));
+        }
+    }
+
+    @PostMapping("/migrations")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> migrateAllTenants(
+            @RequestParam(defaultValue = "false") boolean force,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("Fleet tenant migration (force={}) requested by super admin: {}", force, currentUser.getUsername());
+
+        try {
+            Map<String, Object> summary = tenantManagementService.runFleetMigration(force);
+            return ResponseEntity.ok(ApiResponse.success("Tenant migration run finished", summary));
+        } catch (Exception e) {
+            log.error("Failed to migrate tenants: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "TENANT_MIGRATION_FAILED"));
+        }
+    }
+
+    @GetMapping("/migrations")
+    public ResponseEntity<ApiResponse<List<TenantMigrationRun>>> getMigrationRuns(
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Migration runs retrieved successfully",
+                    tenantManagementService.getMigrationRuns(limit)));
+        } catch (Exception e) {
+            log.error("Failed to get migration runs: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "MIGRATION_RUN_RETRIEVAL_FAILED"));
+        }
+    }
+
+    @GetMapping("/migrations/{runId}")
+    public ResponseEntity<ApiResponse<List<TenantMigrationStatus>>> getMigrationRunStatus(@PathVariable String runId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Migration run status retrieved successfully",
+                    tenantManagementService.getMigrationRunStatus(runId)));
+        } catch (Exception e) {
+            log.error("Failed to get migration run {}: {}", runId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "MIGRATION_RUN_RETRIEVAL_FAILED"));
+        }
+    }
+
     @GetMapping("/list")
     public ResponseEntity<ApiResponse<List<TenantResponse>>> getAllActiveTenants() {
         try {
@@ -1,5 +1,7 @@
 package com.erp.admin.service;
 
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.service.TenantMigrationLedger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +19,8 @@ import java.sql.Statement;
 public class SchemaManagementService {
 
     private final DataSource dataSource;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantMigrationLedger migrationLedger;
 
     @Value("${spring.datasource.username}")
     private String dbUsername;
@@ -42,7 +46,14 @@ public class SchemaManagementService {
     }
 
     public void dropTenantSchema(String schemaName) {
-        try (Connection connection = dataSource.getConnection();
+        dropTenantSchema(schemaName, dataSourceConfig.getTenantServerUrl(schemaName));
+    }
+
+    /**
+     * Drop the schema on the server hosting it (null = primary server)
+     */
+    public void dropTenantSchema(String schemaName, String databaseUrl) {
+        try (Connection connection = dataSourceConfig.getServerAdminDataSource(databaseUrl).getConnection();
              Statement statement = connection.createStatement()) {
 
             String dropSchemaSQL = "DROP DATABASE IF EXISTS `" + schemaName + "`";
@@ -50,6 +61,8 @@ public class SchemaManagementService {
 
             log.info("Dropped schema: {}", schemaName);
 
+            migrationLedger.forget(schemaName);
+
         } catch (Exception e) {
             log.error("Failed to drop schema: {}", schemaName, e);
             throw new RuntimeException("Failed to drop tenant schema: " + schemaName, e);
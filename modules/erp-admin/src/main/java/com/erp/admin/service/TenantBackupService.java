@@ -0,0 +1,167 @@
+package com.erp.admin.service;
+
+import com.erp.common.annotation.ForceMasterSchema;
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.TenantSchemaAvailability;
+import com.erp.common.entity.Tenant;
+import com.erp.common.repository.TenantRepository;
+import com.erp.common.service.FlywayMigrationService;
+import com.erp.common.service.TenantMigrationLedger;
+import com.erp.common.service.TenantSchemaArchiver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams tenant schema backups (see TenantSchemaArchiver for the format) and restores them.
+ * A restore loads the archive into a staging schema and migrates it while the tenant keeps serving;
+ * the tenant is only blocked for the RENAME TABLE swap that puts the restored tables in place. The block
+ * is the RESTORING hibernation state in the tenants table, so every instance turns the tenant away.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ForceMasterSchema
+public class TenantBackupService {
+
+    private static final String STAGING_PREFIX = "erp_restore_";
+
+    private final TenantRepository tenantRepository;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantSchemaArchiver schemaArchiver;
+    private final FlywayMigrationService flywayMigrationService;
+    private final TenantMigrationLedger migrationLedger;
+
+    // Tables dumped at once per backup, each on its own server admin connection
+    @Value("${app.backup.parallelism:4}")
+    private int parallelism;
+
+    // Time for the other instances to see the RESTORING state and close their pools before the swap
+    @Value("${app.backup.swap-grace-ms:15000}")
+    private long swapGraceMs;
+
+    /**
+     * Look up a tenant whose schema can be backed up or restored
+     */
+    public Tenant getTenant(Long tenantId) {
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new RuntimeException("Tenant not found with ID: " + tenantId));
+        if (tenant.getHibernationState() == Tenant.HibernationState.RESTORING) {
+            throw new RuntimeException("Tenant is already being restored: " + tenant.getTenantCode());
+        }
+        if (tenant.getHibernationState() != Tenant.HibernationState.AWAKE) {
+            throw new RuntimeException("Tenant is hibernated, wake it first: " + tenant.getTenantCode());
+        }
+        return tenant;
+    }
+
+    public void writeBackup(Tenant tenant, OutputStream out) {
+        DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(tenant.getDatabaseUrl());
+        schemaArchiver.archive(serverDataSource, tenant.getSchemaName(), out, parallelism);
+    }
+
+    /**
+     * Replace the tenant's data with the uploaded backup
+     * @return summary of the restored archive
+     */
+    public Map<String, Object> restoreBackup(Long tenantId, InputStream archive) {
+        Tenant tenant = getTenant(tenantId);
+        String schemaName = tenant.getSchemaName();
+        DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(tenant.getDatabaseUrl());
+        String stagingName = stagingName();
+        long start = System.currentTimeMillis();
+        Path upload = null;
+
+        try {
+            upload = Files.createTempFile("erp-restore-", ".zip");
+            Files.copy(archive, upload, StandardCopyOption.REPLACE_EXISTING);
+            TenantSchemaArchiver.ArchiveManifest manifest = schemaArchiver.readManifest(upload);
+
+            log.info("Restoring tenant {} from a backup of {} taken at {}", tenant.getTenantCode(),
+                    manifest.schemaName(), manifest.createdAt());
+            schemaArchiver.restore(serverDataSource, stagingName, upload, (table, restored, total) ->
+                    log.debug("Restored table {} ({}/{}) into {}", table, restored, total, stagingName));
+
+            // Backups from older releases are brought up to date before they go live
+            flywayMigrationService.runTenantMigrations(serverDataSource, stagingName);
+
+            swap(tenant, serverDataSource, stagingName);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tenantCode", tenant.getTenantCode());
+            result.put("sourceSchema", manifest.schemaName());
+            result.put("backupCreatedAt", manifest.createdAt());
+            result.put("tables", manifest.tables().size());
+            result.put("rows", manifest.tables().stream().mapToLong(TenantSchemaArchiver.TableManifest::rows).sum());
+            result.put("durationMs", System.currentTimeMillis() - start);
+            return result;
+
+        } catch (Exception e) {
+            log.error("Failed to restore tenant {}", tenant.getTenantCode(), e);
+            TenantSchemaPoolService.dropSchemaQuietly(serverDataSource, stagingName);
+            throw new RuntimeException("Failed to restore tenant " + tenant.getTenantCode() + ": " + e.getMessage(), e);
+        } finally {
+            if (upload != null) {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (Exception e) {
+                    log.warn("Could not delete {}: {}", upload, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the live tables aside, move the restored ones in and drop the old ones; the tenant is
+     * blocked and its pools closed on every instance meanwhile, so no request holds locks the RENAME
+     * would wait on or writes to tables about to be dropped
+     */
+    private void swap(Tenant tenant, DataSource serverDataSource, String stagingName) throws InterruptedException {
+        String schemaName = tenant.getSchemaName();
+        String previousName = stagingName();
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+
+        if (tenantRepository.transitionHibernationState(tenant.getId(),
+                Tenant.HibernationState.AWAKE.name(), Tenant.HibernationState.RESTORING.name()) == 0) {
+            throw new IllegalStateException("Tenant is being hibernated or restored by another request");
+        }
+        availability.markRestoring(schemaName);
+        try {
+            dataSourceConfig.releaseTenantDataSource(schemaName);
+            Thread.sleep(swapGraceMs);
+
+            TenantSchemaPoolService.bind(serverDataSource, schemaName, previousName);
+            try {
+                TenantSchemaPoolService.bind(serverDataSource, stagingName, schemaName);
+            } catch (Exception e) {
+                TenantSchemaPoolService.dropSchemaQuietly(serverDataSource, schemaName);
+                TenantSchemaPoolService.bind(serverDataSource, previousName, schemaName);
+                throw e;
+            }
+            TenantSchemaPoolService.dropSchemaQuietly(serverDataSource, previousName);
+
+            migrationLedger.recordMigrated(schemaName, dataSourceConfig.normalizeServerUrl(tenant.getDatabaseUrl()));
+        } finally {
+            tenantRepository.transitionHibernationState(tenant.getId(),
+                    Tenant.HibernationState.RESTORING.name(), Tenant.HibernationState.AWAKE.name());
+            dataSourceConfig.addTenantDataSource(tenant.getTenantCode(), schemaName, tenant.getDatabaseUrl());
+            availability.markRestored(schemaName);
+        }
+    }
+
+    private static String stagingName() {
+        return STAGING_PREFIX + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.erp.admin.service;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.service.TenantMigrationLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Copies a tenant schema into a new schema on the same database server. Rows never leave the
+ * server: every table is copied with INSERT ... SELECT, split into primary key ranges that run in
+ * parallel on separate connections. PII columns can be replaced on the way by salted hashes shaped
+ * like the original values, so the copy stays usable for training without exposing real people.
+ * Chunks read committed data, so rows written to the source during the copy may or may not be in it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantCloneService {
+
+    private static final Set<String> INTEGER_TYPES = Set.of("tinyint", "smallint", "mediumint", "int", "bigint");
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantMigrationLedger migrationLedger;
+
+    // INSERT ... SELECT chunks run at once, each on its own server admin connection
+    @Value("${app.provisioning.clone.parallelism:4}")
+    private int parallelism;
+
+    // Primary key values per chunk
+    @Value("${app.provisioning.clone.chunk-size:20000}")
+    private long chunkSize;
+
+    @Value("${app.provisioning.clone.pii-columns:aadhar_number,phone,alternate_phone,emergency_contact_phone,office_phone,email}")
+    private Set<String> piiColumns;
+
+    private record TableInfo(String name, List<String> columns, String keyColumn) {
+    }
+
+    private record Chunk(TableInfo table, Long fromKey, Long toKey) {
+    }
+
+    /**
+     * Create the target schema on the source's server (null = primary) as a copy of the source
+     * @return rows copied
+     */
+    public long cloneSchema(String sourceSchema, String targetSchema, String databaseUrl, boolean anonymize) {
+        DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(databaseUrl);
+        long start = System.currentTimeMillis();
+        // Fresh per clone, so hashed values cannot be matched across sandboxes or against a precomputed table
+        String salt = anonymize ? newSalt() : null;
+
+        List<TableInfo> tables = new ArrayList<>();
+        List<String> views = new ArrayList<>();
+        List<Chunk> chunks = new ArrayList<>();
+
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            listObjects(connection, sourceSchema, tables, views);
+
+            statement.executeUpdate("CREATE DATABASE `" + targetSchema + "` " +
+                    "CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+            // Unqualified names in the copied DDL (including FK targets) resolve to the new schema
+            connection.setCatalog(targetSchema);
+            for (TableInfo table : tables) {
+                statement.executeUpdate(TenantTemplateService.showCreate(connection, "TABLE", sourceSchema, table.name()));
+                chunks.addAll(planChunks(connection, sourceSchema, table));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create schema " + targetSchema + " from " + sourceSchema, e);
+        }
+
+        long rows = copyChunks(serverDataSource, sourceSchema, targetSchema, chunks, salt);
+
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setCatalog(targetSchema);
+            for (String view : views) {
+                statement.executeUpdate(TenantTemplateService.retargetView(
+                        TenantTemplateService.showCreate(connection, "VIEW", sourceSchema, view), sourceSchema, targetSchema));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create views of schema " + targetSchema, e);
+        }
+
+        // The copy carries the source's Flyway history, so it is exactly as migrated as the source
+        migrationLedger.recordMigrated(targetSchema, dataSourceConfig.normalizeServerUrl(databaseUrl));
+        log.info("Cloned schema {} into {} ({} tables, {} chunks, {} rows{}) in {} ms", sourceSchema, targetSchema,
+                tables.size(), chunks.size(), rows, anonymize ? ", anonymized" : "", System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private long copyChunks(DataSource serverDataSource, String sourceSchema, String targetSchema,
+                            List<Chunk> chunks, String salt) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.size())),
+                task -> new Thread(task, "tenant-clone-" + targetSchema + "-" + threadNumber.incrementAndGet()));
+        AtomicLong rows = new AtomicLong();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    rows.addAndGet(copyChunk(serverDataSource, sourceSchema, targetSchema, chunk, salt));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return rows.get();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to copy data from " + sourceSchema + " to " + targetSchema, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long copyChunk(DataSource serverDataSource, String sourceSchema, String targetSchema,
+                           Chunk chunk, String salt) throws Exception {
+        TableInfo table = chunk.table();
+        String columns = table.columns().stream().map(column -> "`" + column + "`").collect(Collectors.joining(", "));
+        String values = table.columns().stream()
+                .map(column -> salt != null && piiColumns.contains(column) ? anonymized(column, salt) : "`" + column + "`")
+                .collect(Collectors.joining(", "));
+
+        String sql = "INSERT INTO `" + targetSchema + "`.`" + table.name() + "` (" + columns + ") " +
+                "SELECT " + values + " FROM `" + sourceSchema + "`.`" + table.name() + "`";
+        if (chunk.fromKey() != null) {
+            sql += " WHERE `" + table.keyColumn() + "` >= ? AND `" + table.keyColumn() + "` < ?";
+        }
+
+        try (Connection connection = serverDataSource.getConnection()) {
+            // Plain consistent reads of the source instead of the shared locks INSERT ... SELECT takes
+            // under REPEATABLE READ, so the live tenant's writes are not blocked; Hikari resets isolation
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            try (Statement session = connection.createStatement()) {
+                // Chunks of child tables may land before their parents
+                session.execute("SET FOREIGN_KEY_CHECKS = 0");
+                try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                    if (chunk.fromKey() != null) {
+                        insert.setLong(1, chunk.fromKey());
+                        insert.setLong(2, chunk.toKey());
+                    }
+                    int copied = insert.executeUpdate();
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                    return copied;
+                } finally {
+                    // Session settings outlive the borrow, Hikari does not reset them
+                    session.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+        }
+    }
+
+    /**
+     * Split a table into primary key ranges; tables without a single integer key are copied whole
+     */
+    private List<Chunk> planChunks(Connection connection, String sourceSchema, TableInfo table) throws Exception {
+        if (table.keyColumn() == null) {
+            return List.of(new Chunk(table, null, null));
+        }
+
+        long min;
+        long max;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(`" + table.keyColumn() + "`), MAX(`" + table.keyColumn()
+                     + "`) FROM `" + sourceSchema + "`.`" + table.name() + "`")) {
+            rs.next();
+            if (rs.getObject(1) == null) {
+                return List.of();
+            }
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+        }
+
+        // The last range is open-ended so rows added after planning are not cut off
+        List<Chunk> chunks = new ArrayList<>();
+        for (long from = min; from <= max; from += chunkSize) {
+            long to = from + chunkSize > max ? Long.MAX_VALUE : from + chunkSize;
+            chunks.add(new Chunk(table, from, to));
+        }
+        return chunks;
+    }
+
+    private void listObjects(Connection connection, String schemaName, List<TableInfo> tables, List<String> views)
+            throws Exception {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        Map<String, List<String>> integerKeys = new LinkedHashMap<>();
+        Map<String, Integer> keyColumnCounts = new LinkedHashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.table_name, c.column_name, c.column_key, c.data_type, c.extra FROM information_schema.columns c " +
+                        "JOIN information_schema.tables t ON t.table_schema = c.table_schema AND t.table_name = c.table_name " +
+                        "WHERE c.table_schema = ? AND t.table_type = 'BASE TABLE' ORDER BY c.table_name, c.ordinal_position")) {
+            statement.setString(1, schemaName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString(1);
+                    String column = rs.getString(2);
+                    // Generated columns are computed by the target table itself
+                    String extra = rs.getString(5).toUpperCase();
+                    if (!extra.contains("VIRTUAL GENERATED") && !extra.contains("STORED GENERATED")) {
+                        columns.computeIfAbsent(table, name -> new ArrayList<>()).add(column);
+                    }
+                    if ("PRI".equals(rs.getString(3))) {
+                        keyColumnCounts.merge(table, 1, Integer::sum);
+                        if (INTEGER_TYPES.contains(rs.getString(4).toLowerCase())) {
+                            integerKeys.computeIfAbsent(table, name -> new ArrayList<>()).add(column);
+                        }
+                    }
+                }
+            }
+        }
+
+        columns.forEach((table, tableColumns) -> {
+            List<String> keys = integerKeys.get(table);
+            boolean singleIntegerKey = keys != null && keys.size() == 1 && keyColumnCounts.get(table) == 1;
+            tables.add(new TableInfo(table, tableColumns, singleIntegerKey ? keys.get(0) : null));
+        });
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_type = 'VIEW' " +
+                        "ORDER BY table_name")) {
+            statement.setString(1, schemaName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    views.add(rs.getString(1));
+                }
+            }
+        }
+    }
+
+    private static String newSalt() {
+        byte[] salt = new byte[16];
+        new SecureRandom().nextBytes(salt);
+        return HexFormat.of().formatHex(salt);
+    }
+
+    /**
+     * SQL replacing a PII column with a salted hash shaped like the original. Emails keep 80 bits of
+     * the hash so unique email columns stay unique; NULLs stay NULL.
+     */
+    private static String anonymized(String column, String salt) {
+        String hash = "SHA2(CONCAT('" + salt + "', `" + column + "`), 256)";
+        String value;
+        if (column.contains("email")) {
+            value = "CONCAT(LEFT(" + hash + ", 20), '@example.invalid')";
+        } else if (column.contains("aadhar")) {
+            value = "LPAD(MOD(CONV(LEFT(" + hash + ", 13), 16, 10), 1000000000000), 12, '0')";
+        } else {
+            // Ten digit mobile number
+            value = "CONCAT('9', LPAD(MOD(CONV(LEFT(" + hash + ", 10), 16, 10), 1000000000), 9, '0'))";
+        }
+        return "CASE WHEN `" + column + "` IS NULL THEN NULL ELSE " + value + " END";
+    }
+
+}
@@ -1,175 +1,157 @@
 package com.erp.admin.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
+import java.io.InputStream;
 import java.time.LocalDate;
-
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds the reference data of a new tenant schema from a versioned dataset (seed/tenant-seed.json).
+ * Rows carry their own ids so child rows can reference parents without reading generated keys back,
+ * which lets every table go in as one batched statement and the whole dataset in one transaction.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TenantDataSeederService {
 
-    public void seedInitialData(DataSource tenantDataSource, String schemaName) {
-        try {
-            JdbcTemplate jdbcTemplate = new JdbcTemplate(tenantDataSource);
+    private final ObjectMapper objectMapper;
 
-            log.info("Seeding initial data for schema: {}", schemaName);
-            // Seed Academic Year
-            seedAcademicYear(jdbcTemplate);
-            // Seed Classes and Sections
-            seedClassesAndSections(jdbcTemplate);
-            // Seed Subjects
-            seedSubjects(jdbcTemplate);
-            // Seed Fee Categories
-            seedFeeCategories(jdbcTemplate);
-            // Seed Exam Types
-            seedExamTypes(jdbcTemplate);
+    @Value("${app.provisioning.seed-dataset:classpath:seed/tenant-seed.json}")
+    private Resource seedDataset;
 
-            log.info("Successfully seeded initial data for schema: {}", schemaName);
+    /**
+     * Version of the loaded dataset - templates and spare schemas seeded with another version are rebuilt
+     */
+    @Getter
+    private int datasetVersion;
+
+    private Map<String, Object> commonColumns;
+    private List<SeedTable> tables;
+
+    /**
+     * Seed dataset as stored in JSON; string values of the form {{token}} are resolved per seeding run
+     */
+    record SeedDataset(int version, Map<String, Object> commonColumns, List<SeedTable> tables) {
+    }
 
+    record SeedTable(String table, List<String> columns, List<List<Object>> rows) {
+    }
+
+    @PostConstruct
+    void loadDataset() {
+        try (InputStream in = seedDataset.getInputStream()) {
+            SeedDataset dataset = objectMapper.readValue(in, SeedDataset.class);
+            datasetVersion = dataset.version();
+            commonColumns = dataset.commonColumns() != null ? dataset.commonColumns() : Map.of();
+            tables = dataset.tables();
+
+            for (SeedTable table : tables) {
+                for (List<Object> row : table.rows()) {
+                    if (row.size() != table.columns().size()) {
+                        throw new IllegalStateException("Row " + row + " of " + table.table()
+                                + " does not match columns " + table.columns());
+                    }
+                }
+            }
+            log.info("Loaded tenant seed dataset version {} ({} tables)", datasetVersion, tables.size());
         } catch (Exception e) {
-            log.error("Failed to seed initial data for schema: {}", schemaName, e);
-            throw new RuntimeException("Failed to seed initial data", e);
+            throw new RuntimeException("Failed to load tenant seed dataset: " + seedDataset, e);
         }
     }
 
-    private void seedAcademicYear(JdbcTemplate jdbcTemplate) {
-        // Create current academic year
-        LocalDate currentDate = LocalDate.now();
-        int currentYear = currentDate.getYear();
+    public void seedInitialData(DataSource tenantDataSource, String schemaName) {
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(tenantDataSource);
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(new DataSourceTransactionManager(tenantDataSource));
+            Map<String, Object> tokens = resolveTokens();
+
+            log.info("Seeding initial data (dataset version {}) for schema: {}", datasetVersion, schemaName);
+            long start = System.currentTimeMillis();
 
-        String yearName = currentYear + "-" + (currentYear + 1);
-        LocalDate startDate = LocalDate.of(currentYear, 4, 1); // April 1st
-        LocalDate endDate = LocalDate.of(currentYear + 1, 3, 31); // March 31st next year
+            // All or nothing - a half seeded schema would otherwise be handed to the tenant
+            transactionTemplate.executeWithoutResult(status -> {
+                for (SeedTable table : tables) {
+                    seedTable(jdbcTemplate, table, tokens);
+                }
+            });
 
-        jdbcTemplate.update(
-                "INSERT INTO academic_years (year_name, start_date, end_date, is_current, description, created_at, is_active) " +
-                        "VALUES (?, ?, ?, ?, ?, NOW(), ?)",
-                yearName, startDate, endDate, true, "Current Academic Year", true
-        );
+            log.info("Successfully seeded initial data for schema: {} in {} ms",
+                    schemaName, System.currentTimeMillis() - start);
 
-        log.info("Seeded academic year: {}", yearName);
+        } catch (Exception e) {
+            log.error("Failed to seed initial data for schema: {}", schemaName, e);
+            throw new RuntimeException("Failed to seed initial data", e);
+        }
     }
 
-    private void seedClassesAndSections(JdbcTemplate jdbcTemplate) {
-        // Define standard classes
-        String[][] classes = {
-                {"Nursery", "NUR", "0"},
-                {"LKG", "LKG", "0"},
-                {"UKG", "UKG", "0"},
-                {"Class I", "CLS1", "1"},
-                {"Class II", "CLS2", "2"},
-                {"Class III", "CLS3", "3"},
-                {"Class IV", "CLS4", "4"},
-                {"Class V", "CLS5", "5"},
-                {"Class VI", "CLS6", "6"},
-                {"Class VII", "CLS7", "7"},
-                {"Class VIII", "CLS8", "8"},
-                {"Class IX", "CLS9", "9"},
-                {"Class X", "CLS10", "10"},
-                {"Class XI", "CLS11", "11"},
-                {"Class XII", "CLS12", "12"}
-        };
-
-        for (String[] classData : classes) {
-            // Insert class
-            jdbcTemplate.update(
-                    "INSERT INTO classes (class_name, class_code, grade_level, max_students, created_at, is_active) " +
-                            "VALUES (?, ?, ?, ?, NOW(), ?)",
-                    classData[0], classData[1], Integer.parseInt(classData[2]), 50, true
-            );
-
-            // Get the inserted class ID
-            Long classId = jdbcTemplate.queryForObject(
-                    "SELECT LAST_INSERT_ID()", Long.class
-            );
-
-            // Insert sections A, B for each class
-            String[] sections = {"A", "B"};
-            for (String section : sections) {
-                jdbcTemplate.update(
-                        "INSERT INTO sections (class_id, section_name, section_code, max_students, created_at, is_active) " +
-                                "VALUES (?, ?, ?, ?, NOW(), ?)",
-                        classId, section, section, 30, true
-                );
+    private void seedTable(JdbcTemplate jdbcTemplate, SeedTable table, Map<String, Object> tokens) {
+        List<String> columns = new ArrayList<>(table.columns());
+        List<Object> commonValues = new ArrayList<>();
+        commonColumns.forEach((column, value) -> {
+            if (!columns.contains(column)) {
+                columns.add(column);
+                commonValues.add(resolve(value, tokens));
             }
-        }
+        });
 
-        log.info("Seeded {} classes with sections", classes.length);
-    }
+        String sql = "INSERT INTO " + table.table() + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
 
-    private void seedSubjects(JdbcTemplate jdbcTemplate) {
-        String[][] subjects = {
-                {"English", "ENG", "CORE", "2"},
-                {"Hindi", "HIN", "CORE", "2"},
-                {"Mathematics", "MATH", "CORE", "3"},
-                {"Science", "SCI", "CORE", "3"},
-                {"Social Studies", "SST", "CORE", "2"},
-                {"Computer Science", "CS", "ELECTIVE", "2"},
-                {"Physical Education", "PE", "ELECTIVE", "1"},
-                {"Art & Craft", "ART", "EXTRA_CURRICULAR", "1"},
-                {"Music", "MUS", "EXTRA_CURRICULAR", "1"},
-                {"Environmental Studies", "EVS", "CORE", "2"}
-        };
-
-        for (String[] subjectData : subjects) {
-            jdbcTemplate.update(
-                    "INSERT INTO subjects (subject_name, subject_code, subject_type, credit_hours, created_at, is_active) " +
-                            "VALUES (?, ?, ?, ?, NOW(), ?)",
-                    subjectData[0], subjectData[1], subjectData[2],
-                    Integer.parseInt(subjectData[3]), true
-            );
+        List<Object[]> batchArgs = new ArrayList<>(table.rows().size());
+        for (List<Object> row : table.rows()) {
+            List<Object> values = new ArrayList<>(columns.size());
+            for (Object value : row) {
+                values.add(resolve(value, tokens));
+            }
+            values.addAll(commonValues);
+            batchArgs.add(values.toArray());
         }
 
-        log.info("Seeded {} subjects", subjects.length);
+        // rewriteBatchedStatements turns the batch into multi-row INSERTs on the wire
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+        log.info("Seeded {} rows into {}", batchArgs.size(), table.table());
     }
 
-    private void seedFeeCategories(JdbcTemplate jdbcTemplate) {
-        String[][] feeCategories = {
-                {"Tuition Fee", "TUITION", "TUITION", "1"},
-                {"Admission Fee", "ADMISSION", "MISCELLANEOUS", "1"},
-                {"Library Fee", "LIBRARY", "LIBRARY", "1"},
-                {"Laboratory Fee", "LAB", "LABORATORY", "1"},
-                {"Sports Fee", "SPORTS", "MISCELLANEOUS", "0"},
-                {"Transport Fee", "TRANSPORT", "TRANSPORT", "0"},
-                {"Examination Fee", "EXAM", "EXAM", "1"},
-                {"Annual Charges", "ANNUAL", "MISCELLANEOUS", "1"},
-                {"Development Fee", "DEVELOPMENT", "MISCELLANEOUS", "0"}
-        };
-
-        for (String[] feeData : feeCategories) {
-            jdbcTemplate.update(
-                    "INSERT INTO fee_categories (category_name, category_code, fee_type, is_mandatory, created_at, is_active) " +
-                            "VALUES (?, ?, ?, ?, NOW(), ?)",
-                    feeData[0], feeData[1], feeData[2],
-                    feeData[3].equals("1"), true
-            );
-        }
+    private Map<String, Object> resolveTokens() {
+        // Current academic year runs from April 1st to March 31st of the next year
+        int currentYear = LocalDate.now().getYear();
 
-        log.info("Seeded {} fee categories", feeCategories.length);
+        Map<String, Object> tokens = new HashMap<>();
+        tokens.put("now", LocalDateTime.now());
+        tokens.put("academicYear.name", currentYear + "-" + (currentYear + 1));
+        tokens.put("academicYear.start", LocalDate.of(currentYear, 4, 1));
+        tokens.put("academicYear.end", LocalDate.of(currentYear + 1, 3, 31));
+        return tokens;
     }
 
-    private void seedExamTypes(JdbcTemplate jdbcTemplate) {
-        String[][] examTypes = {
-                {"Unit Test 1", "UT1", "15.0"},
-                {"Unit Test 2", "UT2", "15.0"},
-                {"Mid Term Exam", "MID", "30.0"},
-                {"Final Exam", "FINAL", "40.0"}
-        };
-
-        for (String[] examData : examTypes) {
-            jdbcTemplate.update(
-                    "INSERT INTO exam_types (type_name, type_code, weightage, created_at, is_active) " +
-                            "VALUES (?, ?, ?, NOW(), ?)",
-                    examData[0], examData[1], Double.parseDouble(examData[2]), true
-            );
+    private Object resolve(Object value, Map<String, Object> tokens) {
+        if (value instanceof String text && text.startsWith("{{") && text.endsWith("}}")) {
+            String token = text.substring(2, text.length() - 2).trim();
+            if (!tokens.containsKey(token)) {
+                throw new IllegalStateException("Unknown seed token: " + text);
+            }
+            return tokens.get(token);
         }
-
-        log.info("Seeded {} exam types", examTypes.length);
+        return value;
     }
 
 }
@@ -2,6 +2,7 @@ package com.erp.admin.service;
 
 import com.erp.common.annotation.ForceMasterSchema;
 import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.dto.tenant.CloneTenantRequest;
 import com.erp.common.dto.tenant.CreateTenantRequest;
 import com.erp.common.dto.tenant.TenantResponse;
 import com.erp.common.dto.tenant.TenantSearchRequest;
@@ -10,8 +11,14 @@ import com.erp.common.entity.Tenant;
 import com.erp.common.entity.User;
 import com.erp.common.jwt.UserPrincipal;
 import com.erp.common.repository.TenantRepository;
+import com.erp.common.entity.TenantMigrationRun;
+import com.erp.common.entity.TenantMigrationStatus;
 import com.erp.common.service.DatabaseInitializationService;
+import com.erp.common.service.TenantDirectory;
+import com.erp.common.service.TenantHibernationService;
+import com.erp.common.service.TenantMigrationOrchestrator;
 import com.erp.security.repository.UserRepository;
+import com.erp.security.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,11 +26,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -41,75 +51,65 @@ public class TenantManagementService {
     private final MultiTenantDataSourceConfig dataSourceConfig;
     private final TenantDataSeederService tenantDataSeederService;
     private final DatabaseInitializationService databaseInitializationService;
-
-    @Transactional
+    private final TenantPlacementService tenantPlacementService;
+    private final TenantMigrationOrchestrator tenantMigrationOrchestrator;
+    private final TenantTemplateService tenantTemplateService;
+    private final TenantSchemaPoolService tenantSchemaPoolService;
+    private final TenantHibernationService tenantHibernationService;
+    private final TenantCloneService tenantCloneService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TenantDirectory tenantDirectory;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Provision a new tenant. The tenant row is inserted inactive and the admin created with the
+     * activation, each in a short master transaction, so nothing is held open while the schema is built.
+     */
     public TenantResponse createTenant(CreateTenantRequest request, UserPrincipal currentUser) {
 
-        // Validate tenant code uniqueness
-        if (tenantRepository.existsByTenantCodeAndIsActiveTrue(request.getTenantCode()) == 1) {
-            throw new RuntimeException("Tenant code already exists: " + request.getTenantCode());
-        }
-        // Validate admin username uniqueness
-        if (userRepository.existsByUsernameAndIsActiveTrue(request.getAdminUsername()) == 1) {
-            throw new RuntimeException("Admin username already exists: " + request.getAdminUsername());
-        }
-        // Validate admin email uniqueness
-        if (userRepository.existsByEmailAndIsActiveTrue(request.getAdminEmail()) == 1) {
-            throw new RuntimeException("Admin email already exists: " + request.getAdminEmail());
-        }
+        validateNewTenant(request);
 
         String schemaName = null;
+        String databaseUrl = null;
         Long tenantId = null;
 
         try {
             // Generate schema name
             schemaName = generateSchemaName(request.getTenantCode());
 
-            // Step 1: Insert tenant using native query
-            LocalDateTime now = LocalDateTime.now();
-            int inserted = tenantRepository.insertTenant(
-                    request.getTenantName(),
-                    request.getTenantCode(),
-                    schemaName,
-                    null, // databaseUrl
-                    request.getContactEmail(),
-                    request.getContactPhone(),
-                    Tenant.TenantStatus.ACTIVE.name(),
-                    now, // subscriptionStartDate
-                    now.plusMonths(request.getSubscriptionMonths()), // subscriptionEndDate
-                    true, // isActive
-                    now, // createdAt
-                    currentUser.getId(), // createdBy
-                    now, // updatedAt
-                    currentUser.getId() // updatedBy
-            );
+            // Pick the least loaded database server (null = primary)
+            databaseUrl = tenantPlacementService.chooseServer();
 
-            if (inserted == 0) {
-                throw new RuntimeException("Failed to insert tenant");
-            }
-
-            // Get the inserted tenant ID
-            tenantId = tenantRepository.getLastInsertId();
+            // Step 1: Insert tenant using native query
+            Tenant savedTenant = insertProvisioningTenant(request, schemaName, databaseUrl, currentUser);
+            tenantId = savedTenant.getId();
             log.info("Step 1: Created tenant record: {} with ID: {}", request.getTenantCode(), tenantId);
 
-            // Fetch the created tenant for response
-            Tenant savedTenant = tenantRepository.findById(tenantId)
-                    .orElseThrow(() -> new RuntimeException("Failed to fetch created tenant"));
-
-            // Step 2: Create database schema and run migrations
-            databaseInitializationService.initializeNewTenantSchema(savedTenant.getTenantCode());
-            log.info("Step 2: Created and migrated database schema: {}", schemaName);
+            // Step 2: Create database schema - a claimed spare, a clone of the seeded template, or migrated from scratch
+            boolean fromSpare = tenantSchemaPoolService.claimInto(schemaName, databaseUrl);
+            boolean fromTemplate = !fromSpare && tenantTemplateService.isTemplateMode();
+            if (fromSpare) {
+                log.info("Step 2: Bound pre-provisioned spare schema to {}", schemaName);
+            } else if (fromTemplate) {
+                tenantTemplateService.provisionFromTemplate(schemaName, databaseUrl);
+                log.info("Step 2: Cloned database schema {} from template", schemaName);
+            } else {
+                databaseInitializationService.initializeNewTenantSchema(savedTenant.getTenantCode(), databaseUrl);
+                log.info("Step 2: Created and migrated database schema: {}", schemaName);
+            }
 
             // Step 3: Add datasource for the new tenant
-            dataSourceConfig.addTenantDataSource(request.getTenantCode(), schemaName);
+            dataSourceConfig.addTenantDataSource(request.getTenantCode(), schemaName, databaseUrl);
             log.info("Step 3: Added datasource to pool for tenant: {}", request.getTenantCode());
 
             // Step 4: Get the tenant datasource
             DataSource tenantDataSource = dataSourceConfig.getTenantDataSource(schemaName);
             log.info("Step 4: Retrieved tenant datasource for schema: {}", schemaName);
 
-            // Step 5: Verify tables exist before seeding
-            if (verifyTablesExist(tenantDataSource)) {
+            // Step 5: Verify tables exist before seeding - spares and template clones already carry the seed data
+            if (fromSpare || fromTemplate) {
+                log.info("Step 5: Schema {} was provisioned with seed data", schemaName);
+            } else if (verifyTablesExist(tenantDataSource)) {
                 // Step 6: Seed initial data
                 tenantDataSeederService.seedInitialData(tenantDataSource, schemaName);
                 log.info("Step 5: Seeded initial data for schema: {}", schemaName);
@@ -117,47 +117,21 @@ public class TenantManagementService {
                 log.warn("Tables not created properly for schema: {}, skipping data seeding", schemaName);
             }
 
-            // Step 7: Create tenant admin user
-            String tempPassword = generateTemporaryPassword();
-            Long adminUserId = createTenantAdmin(request, savedTenant, currentUser, tempPassword);
-
-            User tenantAdmin = userRepository.findById(adminUserId)
-                    .orElseThrow(() -> new RuntimeException("Failed to fetch created admin user"));
-
-            log.info("Step 6: Created tenant admin: {} with temporary password", tenantAdmin.getUsername());
-
-            // Log the temporary password (in production, send via email)
-            log.info("==============================================");
-            log.info("TEMPORARY PASSWORD for {}: {}", tenantAdmin.getUsername(), tempPassword);
-            log.info("==============================================");
-
-            // Step 8: Create response
-            TenantResponse response = convertToResponse(savedTenant);
-            response.setTenantAdmin(convertToTenantAdminInfo(tenantAdmin));
-
-            log.info("Successfully created tenant: {} with admin: {}", savedTenant.getTenantCode(), tenantAdmin.getUsername());
+            // Step 7: Create tenant admin user and put the tenant live
+            TenantResponse response = activateTenant(savedTenant, request, currentUser);
+            log.info("Step 6: Created tenant admin: {} with temporary password", response.getTenantAdmin().getUsername());
 
+            log.info("Successfully created tenant: {} with admin: {}", savedTenant.getTenantCode(),
+                    response.getTenantAdmin().getUsername());
             return response;
 
         } catch (Exception e) {
             log.error("Failed to create tenant: {}", request.getTenantCode(), e);
 
-            // Cleanup on failure
-            if (schemaName != null) {
-                try {
-                    log.info("Attempting cleanup for failed tenant creation...");
-
-                    // Remove datasource first
-                    dataSourceConfig.removeTenantDataSource(request.getTenantCode());
-                    log.info("Removed datasource for tenant: {}", request.getTenantCode());
-
-                    // Then drop schema
-                    schemaManagementService.dropTenantSchema(schemaName);
-                    log.info("Dropped schema: {}", schemaName);
-
-                } catch (Exception cleanupError) {
-                    log.error("Failed to cleanup after tenant creation failure", cleanupError);
-                }
+            // Cleanup on failure - only what this call created, the code may belong to a concurrent create
+            if (tenantId != null) {
+                log.info("Attempting cleanup for failed tenant creation...");
+                cleanUpFailedTenant(tenantId, request.getTenantCode(), schemaName, databaseUrl);
             }
 
             throw new RuntimeException("Failed to create tenant: " + e.getMessage(), e);
@@ -196,10 +170,199 @@ public class TenantManagementService {
         }
     }
 
+    /**
+     * Migrate tenant schemas that are behind in parallel, resuming the last run if it did not finish
+     * @param force also run Flyway on schemas the migration ledger reports as up to date
+     */
+    public Map<String, Object> runFleetMigration(boolean force) {
+        return tenantMigrationOrchestrator.migrateFleet(force);
+    }
+
+    public List<TenantMigrationRun> getMigrationRuns(int limit) {
+        return tenantMigrationOrchestrator.getRecentRuns(limit);
+    }
+
+    public List<TenantMigrationStatus> getMigrationRunStatus(String runId) {
+        return tenantMigrationOrchestrator.getRunStatus(runId);
+    }
+
+    /**
+     * Close the tenant's pool and, with archiving on, dump and drop its schema until the next request
+     */
+    public void hibernateTenant(Long tenantId) {
+        tenantHibernationService.hibernate(tenantId);
+    }
+
+    /**
+     * Start waking a hibernated tenant ahead of its users
+     * @return wake progress
+     */
+    public Map<String, Object> wakeTenant(Long tenantId) {
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new RuntimeException("Tenant not found with ID: " + tenantId));
+        if (tenant.getHibernationState() == Tenant.HibernationState.AWAKE) {
+            throw new RuntimeException("Tenant is not hibernated: " + tenant.getTenantCode());
+        }
+        return tenantHibernationService.wake(tenant.getTenantCode());
+    }
+
+    /**
+     * Create a new (sandbox) tenant holding a copy of an existing tenant's data, optionally anonymized.
+     * The copy is made on the source's database server, since rows are copied server side, and
+     * outside any master transaction, as createTenant.
+     */
+    public TenantResponse cloneTenant(Long sourceTenantId, CloneTenantRequest request, UserPrincipal currentUser) {
+        Tenant source = tenantRepository.findById(sourceTenantId)
+                .orElseThrow(() -> new RuntimeException("Tenant not found with ID: " + sourceTenantId));
+        if (source.getHibernationState() != Tenant.HibernationState.AWAKE) {
+            throw new RuntimeException("Tenant is hibernated, wake it first: " + source.getTenantCode());
+        }
+        validateNewTenant(request);
+
+        String schemaName = generateSchemaName(request.getTenantCode());
+        String databaseUrl = source.getDatabaseUrl();
+        Long tenantId = null;
+
+        try {
+            Tenant savedTenant = insertProvisioningTenant(request, schemaName, databaseUrl, currentUser);
+            tenantId = savedTenant.getId();
+
+            long rows = tenantCloneService.cloneSchema(source.getSchemaName(), schemaName, databaseUrl,
+                    request.isAnonymize());
+            log.info("Copied {} rows of tenant {} into {}", rows, source.getTenantCode(), schemaName);
+
+            dataSourceConfig.addTenantDataSource(request.getTenantCode(), schemaName, databaseUrl);
+
+            TenantResponse response = activateTenant(savedTenant, request, currentUser);
+
+            log.info("Cloned tenant {} into {}", source.getTenantCode(), savedTenant.getTenantCode());
+            return response;
+
+        } catch (Exception e) {
+            log.error("Failed to clone tenant {} into {}", source.getTenantCode(), request.getTenantCode(), e);
+
+            if (tenantId != null) {
+                cleanUpFailedTenant(tenantId, request.getTenantCode(), schemaName, databaseUrl);
+            }
+
+            throw new RuntimeException("Failed to clone tenant: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Insert the tenant row, inactive, in its own short transaction; the unique tenant code and
+     * schema name claim them for this call
+     */
+    private Tenant insertProvisioningTenant(CreateTenantRequest request, String schemaName, String databaseUrl,
+                                            UserPrincipal currentUser) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Long tenantId = insertTenantRecord(request, schemaName, databaseUrl, currentUser);
+            return tenantRepository.findById(tenantId)
+                    .orElseThrow(() -> new RuntimeException("Failed to fetch created tenant"));
+        });
+    }
+
+    /**
+     * Create the tenant admin and put the tenant live in one short transaction
+     */
+    private TenantResponse activateTenant(Tenant tenant, CreateTenantRequest request, UserPrincipal currentUser) {
+        // Hashing is slow, keep it out of the transaction
+        String tempPassword = generateTemporaryPassword();
+        String passwordHash = passwordEncoder.encode(tempPassword);
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Long adminUserId = createTenantAdmin(request, tenant, currentUser, passwordHash);
+            User tenantAdmin = userRepository.findById(adminUserId)
+                    .orElseThrow(() -> new RuntimeException("Failed to fetch created admin user"));
+
+            if (tenantRepository.activateProvisionedTenant(tenant.getId()) == 0) {
+                throw new RuntimeException("Failed to activate tenant: " + tenant.getTenantCode());
+            }
+            tenant.setIsActive(true);
+
+            // Log the temporary password (in production, send via email)
+            log.info("==============================================");
+            log.info("TEMPORARY PASSWORD for {}: {}", tenantAdmin.getUsername(), tempPassword);
+            log.info("==============================================");
+
+            TenantResponse response = convertToResponse(tenant);
+            response.setTenantAdmin(convertToTenantAdminInfo(tenantAdmin));
+            tenantDirectory.refreshAfterCommit();
+            return response;
+        });
+    }
+
+    /**
+     * Compensate a failed create or clone: close the pool, drop the schema and delete the tenant row
+     */
+    private void cleanUpFailedTenant(Long tenantId, String tenantCode, String schemaName, String databaseUrl) {
+        try {
+            // Remove datasource first
+            dataSourceConfig.removeTenantDataSource(tenantCode);
+            log.info("Removed datasource for tenant: {}", tenantCode);
+
+            // Then drop schema on the server it was placed on
+            schemaManagementService.dropTenantSchema(schemaName, databaseUrl);
+            log.info("Dropped schema: {}", schemaName);
+
+            tenantRepository.deleteProvisioningTenant(tenantId);
+            log.info("Deleted tenant record: {}", tenantId);
+
+        } catch (Exception cleanupError) {
+            log.error("Failed to cleanup after tenant creation failure", cleanupError);
+        }
+    }
+
     public DatabaseInitializationService.DatabaseInitializationStatus getDatabaseStatus() {
         return databaseInitializationService.getInitializationStatus();
     }
 
+    private void validateNewTenant(CreateTenantRequest request) {
+        // Validate tenant code uniqueness
+        if (tenantRepository.existsByTenantCodeAndIsActiveTrue(request.getTenantCode()) == 1) {
+            throw new RuntimeException("Tenant code already exists: " + request.getTenantCode());
+        }
+        // Validate admin username uniqueness
+        if (userRepository.existsByUsernameAndIsActiveTrue(request.getAdminUsername()) == 1) {
+            throw new RuntimeException("Admin username already exists: " + request.getAdminUsername());
+        }
+        // Validate admin email uniqueness
+        if (userRepository.existsByEmailAndIsActiveTrue(request.getAdminEmail()) == 1) {
+            throw new RuntimeException("Admin email already exists: " + request.getAdminEmail());
+        }
+    }
+
+    /**
+     * @return the new tenant's ID
+     */
+    private Long insertTenantRecord(CreateTenantRequest request, String schemaName, String databaseUrl,
+                                    UserPrincipal currentUser) {
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = tenantRepository.insertTenant(
+                request.getTenantName(),
+                request.getTenantCode(),
+                schemaName,
+                databaseUrl,
+                request.getContactEmail(),
+                request.getContactPhone(),
+                Tenant.TenantStatus.ACTIVE.name(),
+                now, // subscriptionStartDate
+                now.plusMonths(request.getSubscriptionMonths()), // subscriptionEndDate
+                false, // isActive - set once provisioned
+                now, // createdAt
+                currentUser.getId(), // createdBy
+                now, // updatedAt
+                currentUser.getId() // updatedBy
+        );
+
+        if (inserted == 0) {
+            throw new RuntimeException("Failed to insert tenant");
+        }
+
+        // Get the inserted tenant ID
+        return tenantRepository.getLastInsertId();
+    }
+
     private boolean verifyTablesExist(DataSource dataSource) {
         try (var connection = dataSource.getConnection();
              var statement = connection.createStatement()) {
@@ -252,6 +415,7 @@ public class TenantManagementService {
         Tenant updatedTenant = tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new RuntimeException("Failed to fetch updated tenant"));
 
+        tenantDirectory.refreshAfterCommit();
         return convertToResponse(updatedTenant);
     }
 
@@ -278,6 +442,8 @@ public class TenantManagementService {
                 LocalDateTime.now(),
                 currentUser.getId()
         );
+        tokenRevocationService.revokeTenant(tenantId);
+        tenantDirectory.refreshAfterCommit();
     }
 
     @Transactional
@@ -307,6 +473,9 @@ public class TenantManagementService {
                     currentUser.getId()
             );
 
+            tokenRevocationService.revokeTenant(tenantId);
+            tenantDirectory.refreshAfterCommit();
+
             // Remove datasource
             dataSourceConfig.removeTenantDataSource(tenant.getTenantCode());
 
@@ -369,13 +538,13 @@ public class TenantManagementService {
         return "tenant_" + tenantCode.toLowerCase();
     }
 
-    private Long createTenantAdmin(CreateTenantRequest request, Tenant tenant, UserPrincipal currentUser, String tempPassword) {
+    private Long createTenantAdmin(CreateTenantRequest request, Tenant tenant, UserPrincipal currentUser, String passwordHash) {
         LocalDateTime now = LocalDateTime.now();
 
         int inserted = userRepository.insertUser(
                 request.getAdminUsername(),
                 request.getAdminEmail(),
-                passwordEncoder.encode(tempPassword),
+                passwordHash,
                 request.getAdminFirstName(),
                 request.getAdminLastName(),
                 request.getAdminPhone(),
@@ -0,0 +1,248 @@
+package com.erp.admin.service;
+
+import com.erp.common.annotation.ForceMasterSchema;
+import com.erp.common.dto.tenant.CreateTenantRequest;
+import com.erp.common.dto.tenant.TenantResponse;
+import com.erp.common.entity.TenantOnboardingItem;
+import com.erp.common.entity.TenantOnboardingJob;
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.common.repository.TenantOnboardingItemRepository;
+import com.erp.common.repository.TenantOnboardingJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Provisions a batch of tenants concurrently. Every tenant goes through the regular createTenant
+ * in its own transaction, so a failure rolls back (and drops the schema of) that tenant only.
+ * Progress is kept in tenant_onboarding_jobs / tenant_onboarding_items so any instance can report it.
+ * Work is queued in memory, so the instance running a job stamps it periodically; once the stamp of
+ * a running job goes stale, any instance fails its unfinished tenants and closes it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ForceMasterSchema
+public class TenantOnboardingService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final String INTERRUPTED = "Onboarding was interrupted by an instance restart";
+
+    private final TenantOnboardingJobRepository jobRepository;
+    private final TenantOnboardingItemRepository itemRepository;
+    private final TenantManagementService tenantManagementService;
+
+    // Tenants provisioned at once across all jobs on this instance; each one runs schema DDL and Flyway
+    @Value("${app.onboarding.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.onboarding.max-batch-size:100}")
+    private int maxBatchSize;
+
+    // Tenants waiting for a thread on this instance; further jobs are refused until it drains
+    @Value("${app.onboarding.queue-capacity:200}")
+    private int queueCapacity;
+
+    // A running job whose instance has not stamped it for this long is treated as abandoned
+    @Value("${app.onboarding.stale-after-minutes:10}")
+    private int staleAfterMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    // Tenants queued or provisioning on this instance, per job
+    private final Map<String, AtomicInteger> localJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, parallelism);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> new Thread(task, "tenant-onboarding-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Tenant onboarding still running at shutdown, interrupting");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Validate the batch, record the job and start provisioning in the background
+     * @return the job, to be polled through {@link #getJob}
+     */
+    public TenantOnboardingJob startJob(List<CreateTenantRequest> requests, UserPrincipal currentUser) {
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " tenants can be onboarded in one request");
+        }
+        // Duplicates inside the batch would race each other past the uniqueness checks of createTenant
+        requireDistinct(requests, CreateTenantRequest::getTenantCode, "tenant code");
+        requireDistinct(requests, CreateTenantRequest::getAdminUsername, "admin username");
+        requireDistinct(requests, CreateTenantRequest::getAdminEmail, "admin email");
+        if (executor.getQueue().remainingCapacity() < requests.size()) {
+            throw new RuntimeException("Too many tenants are waiting to be onboarded, retry later");
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        jobRepository.insertJob(jobId, requests.size(), currentUser.getId(), LocalDateTime.now());
+        for (CreateTenantRequest request : requests) {
+            itemRepository.insertItem(jobId, request.getTenantCode(), request.getTenantName());
+        }
+
+        log.info("Onboarding job {} started for {} tenants (parallelism {})", jobId, requests.size(), parallelism);
+        AtomicInteger remaining = localJobs.computeIfAbsent(jobId, id -> new AtomicInteger());
+        for (CreateTenantRequest request : requests) {
+            remaining.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        provision(jobId, request, currentUser);
+                    } finally {
+                        finishLocal(jobId, remaining);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Another job took the queue space since the check above
+                finishLocal(jobId, remaining);
+                recordOutcome(jobId, request.getTenantCode(), false, null, 0, "Onboarding queue is full");
+            }
+        }
+
+        return jobRepository.findByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Failed to fetch onboarding job: " + jobId));
+    }
+
+    public Map<String, Object> getJob(String jobId) {
+        TenantOnboardingJob job = jobRepository.findByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Onboarding job not found: " + jobId));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("job", job);
+        result.put("tenants", itemRepository.findByJobId(jobId));
+        return result;
+    }
+
+    public List<TenantOnboardingJob> getRecentJobs(int limit) {
+        return jobRepository.findRecentJobs(limit);
+    }
+
+    private void provision(String jobId, CreateTenantRequest request, UserPrincipal currentUser) {
+        String tenantCode = request.getTenantCode();
+        long start = System.currentTimeMillis();
+        boolean succeeded = false;
+        Long tenantId = null;
+        String errorMessage = null;
+
+        try {
+            if (itemRepository.markProvisioning(jobId, tenantCode, LocalDateTime.now()) == 0) {
+                log.warn("Onboarding job {}: tenant {} was given up as abandoned, skipping", jobId, tenantCode);
+                return;
+            }
+            TenantResponse response = tenantManagementService.createTenant(request, currentUser);
+            tenantId = response.getId();
+            succeeded = true;
+        } catch (Exception e) {
+            log.error("Onboarding job {}: tenant {} failed", jobId, tenantCode, e);
+            errorMessage = truncate(e.getMessage());
+        }
+
+        recordOutcome(jobId, tenantCode, succeeded, tenantId, System.currentTimeMillis() - start, errorMessage);
+    }
+
+    private void recordOutcome(String jobId, String tenantCode, boolean succeeded, Long tenantId, long durationMs,
+                               String errorMessage) {
+        try {
+            // 0 rows when the job was given up as abandoned meanwhile; it has already been counted
+            int finished = itemRepository.markFinished(jobId, tenantCode,
+                    (succeeded ? TenantOnboardingItem.ItemStatus.SUCCEEDED : TenantOnboardingItem.ItemStatus.FAILED).name(),
+                    tenantId, durationMs, errorMessage, LocalDateTime.now());
+            if (finished > 0) {
+                jobRepository.recordOutcome(jobId, succeeded, LocalDateTime.now());
+            }
+        } catch (Exception e) {
+            log.error("Onboarding job {}: failed to record outcome of tenant {}", jobId, tenantCode, e);
+        }
+    }
+
+    private void finishLocal(String jobId, AtomicInteger remaining) {
+        if (remaining.decrementAndGet() == 0) {
+            localJobs.remove(jobId, remaining);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.onboarding.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        if (localJobs.isEmpty()) {
+            return;
+        }
+        try {
+            jobRepository.heartbeat(localJobs.keySet(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Could not stamp running onboarding jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fail the unfinished tenants of jobs whose instance went away, so they do not stay RUNNING forever.
+     * Also runs shortly after startup, for the jobs this instance was running before a restart.
+     */
+    @Scheduled(fixedDelayString = "${app.onboarding.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.onboarding.reconcile-initial-delay-ms:60000}")
+    public void failAbandonedJobs() {
+        try {
+            for (String jobId : jobRepository.findAbandonedJobIds(LocalDateTime.now().minusMinutes(staleAfterMinutes))) {
+                if (localJobs.containsKey(jobId)) {
+                    continue;
+                }
+                int failed = itemRepository.failUnfinished(jobId, INTERRUPTED, LocalDateTime.now());
+                if (failed > 0) {
+                    jobRepository.recordFailures(jobId, failed, LocalDateTime.now());
+                }
+                log.warn("Onboarding job {} was abandoned, failed its {} unfinished tenants", jobId, failed);
+            }
+        } catch (Exception e) {
+            log.error("Could not fail abandoned onboarding jobs", e);
+        }
+    }
+
+    private void requireDistinct(List<CreateTenantRequest> requests, Function<CreateTenantRequest, String> field,
+                                 String label) {
+        Set<String> seen = new HashSet<>();
+        for (CreateTenantRequest request : requests) {
+            String value = field.apply(request);
+            if (value != null && !seen.add(value.toLowerCase())) {
+                throw new RuntimeException("Duplicate " + label + " in batch: " + value);
+            }
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.erp.admin.service;
+
+import com.erp.common.annotation.ForceMasterSchema;
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.dto.tenant.RegisterDatabaseServerRequest;
+import com.erp.common.entity.DatabaseServer;
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.common.repository.DatabaseServerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which MySQL server hosts a new tenant schema.
+ * Candidates are the primary server (tenants.database_url = NULL) and every registered server
+ * that accepts tenants and is below its max_tenants; the least loaded one wins, measured either
+ * by tenant count or by the on-disk size of its tenant schemas. A server whose size cannot be
+ * measured is skipped, so an unreachable server never receives tenants.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ForceMasterSchema
+public class TenantPlacementService {
+
+    private final DatabaseServerRepository databaseServerRepository;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+
+    // count = fewest tenants, size = smallest total tenant schema size
+    @Value("${app.sharding.placement:count}")
+    private String placementMode;
+
+    @Value("${app.sharding.primary-accepts-tenants:true}")
+    private boolean primaryAcceptsTenants;
+
+    // 0 = unlimited
+    @Value("${app.sharding.primary-max-tenants:0}")
+    private int primaryMaxTenants;
+
+    @Value("${app.database.tenant-schema-prefix:tenant_}")
+    private String tenantSchemaPrefix;
+
+    /**
+     * JDBC URL of the server for the next tenant, or null for the primary server
+     */
+    public String chooseServer() {
+        String chosenUrl = null;
+        long chosenLoad = Long.MAX_VALUE;
+        boolean found = false;
+
+        if (primaryAcceptsTenants) {
+            long tenants = databaseServerRepository.countActiveTenantsOnPrimary();
+            if (primaryMaxTenants <= 0 || tenants < primaryMaxTenants) {
+                Long primaryLoad = load(null, tenants);
+                if (primaryLoad != null) {
+                    chosenLoad = primaryLoad;
+                    found = true;
+                }
+            }
+        }
+
+        for (DatabaseServer server : databaseServerRepository.findAcceptingTenants()) {
+            long tenants = databaseServerRepository.countActiveTenantsOnServer(server.getJdbcUrl());
+            if (server.getMaxTenants() != null && tenants >= server.getMaxTenants()) {
+                continue;
+            }
+
+            Long serverLoad = load(server.getJdbcUrl(), tenants);
+            if (serverLoad == null) {
+                continue;
+            }
+            if (!found || serverLoad < chosenLoad) {
+                chosenUrl = server.getJdbcUrl();
+                chosenLoad = serverLoad;
+                found = true;
+            }
+        }
+
+        if (!found) {
+            throw new RuntimeException("No reachable database server has capacity for a new tenant");
+        }
+
+        log.info("Placing new tenant on {} (load {} by {})",
+                chosenUrl != null ? chosenUrl : "primary server", chosenLoad, placementMode);
+        return chosenUrl;
+    }
+
+    public List<Map<String, Object>> listServers() {
+        List<Map<String, Object>> servers = new ArrayList<>();
+
+        Map<String, Object> primary = new HashMap<>();
+        primary.put("serverName", "primary");
+        primary.put("jdbcUrl", null);
+        primary.put("maxTenants", primaryMaxTenants > 0 ? primaryMaxTenants : null);
+        primary.put("acceptingTenants", primaryAcceptsTenants);
+        primary.put("tenantCount", databaseServerRepository.countActiveTenantsOnPrimary());
+        servers.add(primary);
+
+        for (DatabaseServer server : databaseServerRepository.findByIsActiveTrue()) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("id", server.getId());
+            info.put("serverName", server.getServerName());
+            info.put("jdbcUrl", server.getJdbcUrl());
+            info.put("maxTenants", server.getMaxTenants());
+            info.put("acceptingTenants", server.getAcceptingTenants());
+            info.put("tenantCount", databaseServerRepository.countActiveTenantsOnServer(server.getJdbcUrl()));
+            servers.add(info);
+        }
+        return servers;
+    }
+
+    public void registerServer(RegisterDatabaseServerRequest request, UserPrincipal currentUser) {
+        String jdbcUrl = dataSourceConfig.normalizeServerUrl(request.getJdbcUrl());
+        if (jdbcUrl == null) {
+            throw new RuntimeException("The primary server is always available and cannot be registered");
+        }
+
+        if (databaseServerRepository.existsByJdbcUrlOrServerName(jdbcUrl, request.getServerName()) == 1) {
+            throw new RuntimeException("Database server already registered: " + request.getServerName());
+        }
+
+        // Fail fast if the server is unreachable with the shared credentials
+        try (Connection connection = dataSourceConfig.getServerAdminDataSource(jdbcUrl).getConnection()) {
+            connection.isValid(5);
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot connect to database server " + jdbcUrl + ": " + e.getMessage(), e);
+        }
+
+        databaseServerRepository.insertServer(request.getServerName(), jdbcUrl, request.getMaxTenants(),
+                LocalDateTime.now(), currentUser.getId());
+        log.info("Registered database server {} at {}", request.getServerName(), jdbcUrl);
+    }
+
+    public void setAcceptingTenants(Long serverId, boolean accepting, UserPrincipal currentUser) {
+        databaseServerRepository.findById(serverId)
+                .orElseThrow(() -> new RuntimeException("Database server not found: " + serverId));
+
+        databaseServerRepository.updateAcceptingTenants(serverId, accepting, LocalDateTime.now(), currentUser.getId());
+        log.info("Database server {} accepting tenants: {}", serverId, accepting);
+    }
+
+    // null when the server could not be measured
+    private Long load(String jdbcUrl, long tenantCount) {
+        if (!"size".equalsIgnoreCase(placementMode)) {
+            return tenantCount;
+        }
+        return tenantSchemaBytes(dataSourceConfig.getServerAdminDataSource(jdbcUrl));
+    }
+
+    private Long tenantSchemaBytes(DataSource serverDataSource) {
+        String sql = "SELECT COALESCE(SUM(data_length + index_length), 0) FROM information_schema.TABLES " +
+                "WHERE table_schema LIKE ?";
+
+        try (Connection connection = serverDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setString(1, tenantSchemaPrefix.replace("_", "\\_") + "%");
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (Exception e) {
+            log.warn("Could not measure tenant schema size, skipping server", e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+package com.erp.admin.service;
+
+import com.erp.common.annotation.ForceMasterSchema;
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.entity.SpareTenantSchema;
+import com.erp.common.repository.SpareTenantSchemaRepository;
+import com.erp.common.service.TenantMigrationLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a pool of spare tenant schemas that are already migrated and seeded, so tenant creation
+ * only has to claim one and move its tables under the tenant's schema name. Claims are a single
+ * conditional UPDATE in erp_master, so two requests never get the same spare. MySQL cannot rename
+ * a database; binding creates the tenant schema and moves every table in one RENAME TABLE
+ * statement, then recreates the views. A scheduler tops the pool back up and replaces spares
+ * built from older migrations or an earlier seed year; it runs on one instance at a time under a
+ * MySQL named lock, and a spare is claimed for dropping before its schema is dropped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ForceMasterSchema
+public class TenantSchemaPoolService {
+
+    private static final String SPARE_PREFIX = "erp_spare_";
+    private static final String REFILL_LOCK = "erp_spare_pool_refill";
+
+    private final SpareTenantSchemaRepository spareRepository;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantMigrationLedger migrationLedger;
+    private final TenantTemplateService tenantTemplateService;
+    private final TenantDataSeederService tenantDataSeederService;
+    private final TenantPlacementService tenantPlacementService;
+
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    // 0 disables the spare pool
+    @Value("${app.provisioning.spare-pool.size:0}")
+    private int poolSize;
+
+    // Claims older than this whose binding never finished are cleaned up
+    @Value("${app.provisioning.spare-pool.claim-timeout-minutes:10}")
+    private int claimTimeoutMinutes;
+
+    public boolean isEnabled() {
+        return poolSize > 0;
+    }
+
+    /**
+     * Claim a spare on the server and bind it to the tenant schema name.
+     * Returns false when no current spare is available; the caller then provisions normally.
+     */
+    public boolean claimInto(String schemaName, String databaseUrl) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        String serverUrl = dataSourceConfig.normalizeServerUrl(databaseUrl);
+        String claimToken = UUID.randomUUID().toString();
+
+        int claimed = spareRepository.claimOne(serverUrl, migrationLedger.getChecksum(), LocalDate.now().getYear(),
+                tenantDataSeederService.getDatasetVersion(), claimToken, LocalDateTime.now());
+        if (claimed == 0) {
+            log.info("No spare schema available for {}, provisioning from scratch", schemaName);
+            return false;
+        }
+
+        SpareTenantSchema spare = spareRepository.findByClaimToken(claimToken)
+                .orElseThrow(() -> new RuntimeException("Claimed spare schema not found"));
+
+        long start = System.currentTimeMillis();
+        bind(dataSourceConfig.getServerAdminDataSource(serverUrl), spare.getSchemaName(), schemaName);
+        spareRepository.deleteSpare(spare.getId());
+
+        migrationLedger.forget(spare.getSchemaName());
+        migrationLedger.recordMigrated(schemaName, serverUrl);
+
+        log.info("Bound spare schema {} to {} in {} ms", spare.getSchemaName(), schemaName,
+                System.currentTimeMillis() - start);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.provisioning.spare-pool.refill-interval-ms:60000}",
+            initialDelayString = "${app.provisioning.spare-pool.initial-delay-ms:60000}")
+    public void refill() {
+        if (!isEnabled() || !refillLock.tryLock()) {
+            return;
+        }
+
+        // Held on the primary's admin pool for the whole refill, so the count and the creates are not raced
+        try (Connection lockConnection = dataSourceConfig.getServerAdminDataSource(null).getConnection()) {
+            if (!tryNamedLock(lockConnection)) {
+                log.debug("Spare schema pool is being refilled by another instance");
+                return;
+            }
+            try {
+                dropStaleSpares();
+                releaseAbandonedClaims();
+
+                long missing = poolSize - spareRepository.countReady();
+                for (int i = 0; i < missing; i++) {
+                    createSpare();
+                }
+            } finally {
+                try (PreparedStatement release = lockConnection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, REFILL_LOCK);
+                    release.executeQuery().close();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Spare schema pool refill failed", e);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static boolean tryNamedLock(Connection connection) throws Exception {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            lock.setString(1, REFILL_LOCK);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void createSpare() {
+        String spareName = SPARE_PREFIX + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        String databaseUrl = tenantPlacementService.chooseServer();
+        long start = System.currentTimeMillis();
+
+        try {
+            if (tenantTemplateService.isTemplateMode()) {
+                tenantTemplateService.provisionFromTemplate(spareName, databaseUrl);
+                migrationLedger.forget(spareName);
+            } else {
+                tenantTemplateService.migrateAndSeed(dataSourceConfig.getServerAdminDataSource(databaseUrl), spareName);
+            }
+
+            spareRepository.insertSpare(spareName, dataSourceConfig.normalizeServerUrl(databaseUrl),
+                    migrationLedger.getChecksum(), LocalDate.now().getYear(),
+                    tenantDataSeederService.getDatasetVersion(), LocalDateTime.now());
+            log.info("Created spare schema {} in {} ms", spareName, System.currentTimeMillis() - start);
+
+        } catch (Exception e) {
+            log.error("Failed to create spare schema {}", spareName, e);
+            dropSchemaQuietly(dataSourceConfig.getServerAdminDataSource(databaseUrl), spareName);
+        }
+    }
+
+    private void dropStaleSpares() {
+        for (SpareTenantSchema spare : spareRepository.findStale(migrationLedger.getChecksum(), LocalDate.now().getYear(),
+                tenantDataSeederService.getDatasetVersion())) {
+            if (claimForDrop(spare)) {
+                log.info("Dropping outdated spare schema {}", spare.getSchemaName());
+                dropSpare(spare);
+            }
+        }
+    }
+
+    // A claimer that crashed mid-bind leaves a CLAIMED row; drop whatever is left of that spare
+    private void releaseAbandonedClaims() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(claimTimeoutMinutes);
+        for (SpareTenantSchema spare : spareRepository.findAbandonedClaims(before)) {
+            if (claimForDrop(spare)) {
+                log.warn("Cleaning up abandoned claim of spare schema {}", spare.getSchemaName());
+                dropSpare(spare);
+            }
+        }
+    }
+
+    // Lost to a claimer (or another dropper) since it was read when 0 rows change
+    private boolean claimForDrop(SpareTenantSchema spare) {
+        return spareRepository.claimForDrop(spare.getId(), spare.getStatus().name(), spare.getClaimedAt(),
+                LocalDateTime.now()) == 1;
+    }
+
+    private void dropSpare(SpareTenantSchema spare) {
+        dropSchemaQuietly(dataSourceConfig.getServerAdminDataSource(spare.getServerUrl()), spare.getSchemaName());
+        spareRepository.deleteSpare(spare.getId());
+    }
+
+    /**
+     * Move every table of the spare into the tenant schema in one statement and recreate its views there
+     */
+    static void bind(DataSource serverDataSource, String spareName, String schemaName) {
+        try (Connection connection = serverDataSource.getConnection()) {
+            List<String> tables = new ArrayList<>();
+            List<String> viewNames = new ArrayList<>();
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT table_name, table_type FROM information_schema.tables WHERE table_schema = ?")) {
+                statement.setString(1, spareName);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        if ("VIEW".equals(rs.getString(2))) {
+                            viewNames.add(rs.getString(1));
+                        } else {
+                            tables.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+
+            // Read view definitions while the tables they reference are still in place
+            List<String> views = new ArrayList<>();
+            for (String view : viewNames) {
+                views.add(TenantTemplateService.retargetView(
+                        TenantTemplateService.showCreate(connection, "VIEW", spareName, view), spareName, schemaName));
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE DATABASE `" + schemaName + "` " +
+                        "CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+
+                if (!tables.isEmpty()) {
+                    statement.executeUpdate("RENAME TABLE " + tables.stream()
+                            .map(table -> "`" + spareName + "`.`" + table + "` TO `" + schemaName + "`.`" + table + "`")
+                            .collect(Collectors.joining(", ")));
+                }
+
+                connection.setCatalog(schemaName);
+                for (String view : views) {
+                    statement.executeUpdate(view);
+                }
+
+                statement.executeUpdate("DROP DATABASE `" + spareName + "`");
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to bind spare schema " + spareName + " to " + schemaName, e);
+        }
+    }
+
+    static void dropSchemaQuietly(DataSource serverDataSource, String schemaName) {
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP DATABASE IF EXISTS `" + schemaName + "`");
+        } catch (Exception e) {
+            log.warn("Could not drop schema {}", schemaName, e);
+        }
+    }
+
+}
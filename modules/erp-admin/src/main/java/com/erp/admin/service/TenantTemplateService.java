@@ -0,0 +1,304 @@
+package com.erp.admin.service;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.service.FlywayMigrationService;
+import com.erp.common.service.TenantMigrationLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Provisions tenant schemas by cloning a golden template schema instead of replaying every
+ * Flyway script and seeding row by row. The template is migrated and seeded once per database
+ * server; each new tenant then gets the template's table definitions (SHOW CREATE TABLE, so
+ * foreign keys are kept), its reference data and its flyway_schema_history in one
+ * INSERT ... SELECT per table, and its views with references re-pointed at the new schema.
+ * The template is rebuilt automatically when the tenant migrations change or the seeded
+ * academic year rolls over. Clones run side by side; a rebuild waits for them on this instance
+ * and holds a MySQL named lock against the other instances. A clone that overlapped a rebuild
+ * on another instance is detected by the template's built_at stamp, dropped and retried.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantTemplateService {
+
+    // Marker table inside the template, never copied to tenants
+    private static final String TEMPLATE_INFO = "template_info";
+    private static final String BUILD_LOCK = "erp_tenant_template_build";
+    private static final int BUILD_LOCK_TIMEOUT_SECONDS = 600;
+    private static final int CLONE_ATTEMPTS = 3;
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final FlywayMigrationService flywayMigrationService;
+    private final TenantMigrationLedger migrationLedger;
+    private final TenantDataSeederService tenantDataSeederService;
+
+    // Clones share the read lock; a build takes the write lock, so no clone reads a half-built template
+    private final ReentrantReadWriteLock templateLock = new ReentrantReadWriteLock();
+
+    // migrate = Flyway + seeder per tenant, template = clone the golden template schema
+    @Value("${app.provisioning.mode:migrate}")
+    private String provisioningMode;
+
+    // Must not start with the tenant schema prefix, or fleet migrations would pick it up
+    @Value("${app.provisioning.template-schema:erp_tenant_template}")
+    private String templateSchema;
+
+    public boolean isTemplateMode() {
+        return "template".equalsIgnoreCase(provisioningMode);
+    }
+
+    /**
+     * Create the schema on the given server (null = primary) as a copy of the template,
+     * including reference data and Flyway history
+     */
+    public void provisionFromTemplate(String schemaName, String databaseUrl) {
+        DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(databaseUrl);
+        long start = System.currentTimeMillis();
+
+        for (int attempt = 1; !cloneCurrentTemplate(serverDataSource, schemaName); attempt++) {
+            TenantSchemaPoolService.dropSchemaQuietly(serverDataSource, schemaName);
+            if (attempt == CLONE_ATTEMPTS) {
+                throw new RuntimeException("Template kept being rebuilt while it was cloned into " + schemaName);
+            }
+            log.warn("Template was rebuilt while it was cloned into {}, retrying", schemaName);
+        }
+
+        migrationLedger.recordMigrated(schemaName, dataSourceConfig.normalizeServerUrl(databaseUrl));
+        log.info("Provisioned schema {} from template in {} ms", schemaName, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Clone the template, building it first if it is stale
+     * @return false when the template was rebuilt by another instance during the clone
+     */
+    private boolean cloneCurrentTemplate(DataSource serverDataSource, String schemaName) {
+        while (true) {
+            templateLock.readLock().lock();
+            try {
+                String builtAt = currentTemplateBuiltAt(serverDataSource);
+                if (builtAt != null) {
+                    try {
+                        cloneTemplate(serverDataSource, schemaName);
+                    } catch (RuntimeException e) {
+                        if (builtAt.equals(currentTemplateBuiltAt(serverDataSource))) {
+                            throw e;
+                        }
+                        return false;
+                    }
+                    return builtAt.equals(currentTemplateBuiltAt(serverDataSource));
+                }
+            } finally {
+                templateLock.readLock().unlock();
+            }
+
+            templateLock.writeLock().lock();
+            try {
+                buildTemplateIfStale(serverDataSource);
+            } finally {
+                templateLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Build the template under a named lock on its server, so two instances never build it at once
+     */
+    private void buildTemplateIfStale(DataSource serverDataSource) {
+        try (Connection connection = serverDataSource.getConnection()) {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                lock.setString(1, BUILD_LOCK);
+                lock.setInt(2, BUILD_LOCK_TIMEOUT_SECONDS);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        throw new RuntimeException("Timed out waiting for another instance to build template " + templateSchema);
+                    }
+                }
+            }
+            try {
+                // Built by another instance while we waited
+                if (currentTemplateBuiltAt(serverDataSource) == null) {
+                    buildTemplate(serverDataSource);
+                }
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, BUILD_LOCK);
+                    release.executeQuery().close();
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to lock template schema: " + templateSchema, e);
+        }
+    }
+
+    /**
+     * When the template was built, or null when it is missing or stale
+     */
+    private String currentTemplateBuiltAt(DataSource serverDataSource) {
+        String sql = "SELECT migration_checksum, seed_year, seed_version, built_at FROM `" + templateSchema + "`." + TEMPLATE_INFO;
+
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+
+            boolean current = rs.next()
+                    && rs.getLong("migration_checksum") == migrationLedger.getChecksum()
+                    && rs.getInt("seed_year") == LocalDate.now().getYear()
+                    && rs.getInt("seed_version") == tenantDataSeederService.getDatasetVersion();
+            return current ? rs.getString("built_at") : null;
+        } catch (Exception e) {
+            // Missing template or marker table, or a marker from before seed_version
+            return null;
+        }
+    }
+
+    private void buildTemplate(DataSource serverDataSource) {
+        long start = System.currentTimeMillis();
+        log.info("Building tenant template schema: {}", templateSchema);
+
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.executeUpdate("DROP DATABASE IF EXISTS `" + templateSchema + "`");
+            statement.executeUpdate("CREATE DATABASE `" + templateSchema + "` " +
+                    "CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create template schema: " + templateSchema, e);
+        }
+
+        migrateAndSeed(serverDataSource, templateSchema);
+
+        try (Connection connection = serverDataSource.getConnection()) {
+            connection.setCatalog(templateSchema);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE TABLE " + TEMPLATE_INFO + " (" +
+                        "migration_version VARCHAR(50) NOT NULL, migration_checksum BIGINT NOT NULL, " +
+                        "seed_year INT NOT NULL, seed_version INT NOT NULL, built_at DATETIME NOT NULL)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + TEMPLATE_INFO + " VALUES (?, ?, ?, ?, NOW())")) {
+                insert.setString(1, migrationLedger.getLatestVersion());
+                insert.setLong(2, migrationLedger.getChecksum());
+                insert.setInt(3, LocalDate.now().getYear());
+                insert.setInt(4, tenantDataSeederService.getDatasetVersion());
+                insert.executeUpdate();
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to stamp template schema: " + templateSchema, e);
+        }
+
+        log.info("Built tenant template schema {} in {} ms", templateSchema, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Run the tenant migrations on a schema of the given server and seed it through a connection pinned to it
+     */
+    public void migrateAndSeed(DataSource serverDataSource, String schemaName) {
+        flywayMigrationService.runTenantMigrations(serverDataSource, schemaName);
+
+        try (Connection connection = serverDataSource.getConnection()) {
+            connection.setCatalog(schemaName);
+            tenantDataSeederService.seedInitialData(new SingleConnectionDataSource(connection, true), schemaName);
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to seed schema: " + schemaName, e);
+        }
+    }
+
+    private void cloneTemplate(DataSource serverDataSource, String schemaName) {
+        try (Connection connection = serverDataSource.getConnection()) {
+            List<String> tables = new ArrayList<>();
+            List<String> views = new ArrayList<>();
+            listTemplateObjects(connection, tables, views);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE DATABASE `" + schemaName + "` " +
+                        "CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+
+                // Unqualified names in the copied DDL (including FK targets) resolve to the new schema
+                connection.setCatalog(schemaName);
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+
+                try {
+                    for (String table : tables) {
+                        statement.executeUpdate(showCreate(connection, "TABLE", templateSchema, table));
+                    }
+                    for (String table : tables) {
+                        statement.executeUpdate("INSERT INTO `" + schemaName + "`.`" + table + "` " +
+                                "SELECT * FROM `" + templateSchema + "`.`" + table + "`");
+                    }
+                } finally {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+
+                for (String view : views) {
+                    statement.executeUpdate(retargetView(showCreate(connection, "VIEW", templateSchema, view),
+                            templateSchema, schemaName));
+                }
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to clone template into schema: " + schemaName, e);
+        }
+    }
+
+    private void listTemplateObjects(Connection connection, List<String> tables, List<String> views) throws Exception {
+        String sql = "SELECT table_name, table_type FROM information_schema.tables WHERE table_schema = ? ORDER BY table_name";
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, templateSchema);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    if ("VIEW".equals(rs.getString(2))) {
+                        views.add(name);
+                    } else if (!TEMPLATE_INFO.equals(name)) {
+                        tables.add(name);
+                    }
+                }
+            }
+        }
+    }
+
+    static String showCreate(Connection connection, String type, String schema, String name) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW CREATE " + type + " `" + schema + "`.`" + name + "`")) {
+            rs.next();
+            return rs.getString(2);
+        }
+    }
+
+    // MySQL stores views with schema-qualified references and a DEFINER; point them at the new schema
+    static String retargetView(String createView, String fromSchema, String toSchema) {
+        return createView
+                .replaceFirst("DEFINER=`[^`]*`@`[^`]*`\\s*", "")
+                .replace("`" + fromSchema + "`.", "`" + toSchema + "`.");
+    }
+
+}
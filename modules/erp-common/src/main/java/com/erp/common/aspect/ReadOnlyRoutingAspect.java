@@ -0,0 +1,65 @@
+package com.erp.common.aspect;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.ReplicaRoutingPolicy;
+import com.erp.common.context.ExecutionContext;
+import com.erp.common.context.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+
+/**
+ * Publishes the readOnly flag of the current @Transactional method to the {@link ExecutionContext}
+ * before the transaction manager borrows a connection, so the routing datasource can send
+ * read-only tenant transactions to a replica. Successful writes are recorded for read-your-writes.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // After SchemaRoutingAspect, before the transaction interceptor
+public class ReadOnlyRoutingAspect {
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional) || @within(org.springframework.transaction.annotation.Transactional)")
+    public Object routeByTransactionMode(ProceedingJoinPoint joinPoint) throws Throwable {
+        Transactional transactional = findTransactional(joinPoint);
+        if (transactional == null) {
+            return joinPoint.proceed();
+        }
+
+        Object result = ExecutionContext.callWithReadOnly(transactional.readOnly(), joinPoint::proceed);
+
+        ReplicaRoutingPolicy replicaPolicy = dataSourceConfig.getReplicaPolicy();
+        if (!transactional.readOnly() && replicaPolicy != null) {
+            replicaPolicy.recordWrite(ReplicaRoutingPolicy.currentWriterKey(TenantContext.getCurrentTenant()));
+        }
+        return result;
+    }
+
+    private Transactional findTransactional(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        // Method level settings win over the class level default, as in Spring's own attribute source
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Transactional.class);
+        if (transactional == null) {
+            transactional = AnnotatedElementUtils.findMergedAnnotation(targetClass, Transactional.class);
+        }
+        return transactional;
+    }
+
+}
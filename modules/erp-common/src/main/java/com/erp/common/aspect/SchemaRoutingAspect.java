@@ -1,5 +1,6 @@
 package com.erp.common.aspect;
 
+import com.erp.common.context.ExecutionContext;
 import com.erp.common.context.SchemaContext;
 import com.erp.common.context.TenantContext;
 import lombok.extern.slf4j.Slf4j;
@@ -25,10 +26,9 @@ public class SchemaRoutingAspect {
         log.debug("Original schema before forcing: {}", originalSchema);
 
         try {
-            // Force master schema
-            SchemaContext.useMasterSchema();
+            // Force master schema for the duration of the call - only the previous schema is restored on exit
             log.info("Schema set to MASTER for method: {}", methodName);
-            Object result = joinPoint.proceed();
+            Object result = ExecutionContext.callWithRoutingSchema("master", joinPoint::proceed);
 
             log.info("Successfully executed {} with MASTER schema", methodName);
             return result;
@@ -36,16 +36,6 @@ public class SchemaRoutingAspect {
         } catch (Exception e) {
             log.error("Error in method {} with master schema: {}", methodName, e.getMessage());
             throw e;
-
-        } finally {
-            // Restore original schema
-            if (originalSchema != null) {
-                SchemaContext.setSchema(originalSchema);
-                log.debug("Restored schema to: {}", originalSchema);
-            } else {
-                SchemaContext.clear();
-                log.debug("Cleared schema context (was null before)");
-            }
         }
     }
 
@@ -58,13 +48,11 @@ public class SchemaRoutingAspect {
         log.debug("Original schema before forcing: {}", originalSchema);
 
         try {
-            // Force tenant schema
-            SchemaContext.useTenantSchema();
-
+            // Force tenant schema for the duration of the call - only the previous schema is restored on exit
             String tenantCode = TenantContext.getCurrentTenant();
             log.info("Schema set to TENANT for method: {} (tenant: {})", methodName, tenantCode);
 
-            Object result = joinPoint.proceed();
+            Object result = ExecutionContext.callWithRoutingSchema("tenant", joinPoint::proceed);
 
             log.info("Successfully executed {} with TENANT schema", methodName);
             return result;
@@ -72,16 +60,6 @@ public class SchemaRoutingAspect {
         } catch (Exception e) {
             log.error("Error in method {} with tenant schema: {}", methodName, e.getMessage());
             throw e;
-
-        } finally {
-            // Restore original schema
-            if (originalSchema != null) {
-                SchemaContext.setSchema(originalSchema);
-                log.debug("Restored schema to: {}", originalSchema);
-            } else {
-                SchemaContext.clear();
-                log.debug("Cleared schema context (was null before)");
-            }
         }
     }
 
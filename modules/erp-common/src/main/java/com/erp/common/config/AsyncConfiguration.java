@@ -1,14 +1,18 @@
 package com.erp.common.config;
 
-import com.erp.common.context.SchemaContext;
-import com.erp.common.context.TenantContext;
+import com.erp.common.context.ExecutionContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.concurrent.Executor;
 
@@ -17,9 +21,26 @@ import java.util.concurrent.Executor;
 @Slf4j
 public class AsyncConfiguration implements AsyncConfigurer {
 
+    // Same switch that moves Tomcat request handling onto virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Upper bound on concurrently running @Async tasks in virtual-thread mode
+    @Value("${app.async.virtual-concurrency-limit:200}")
+    private int virtualConcurrencyLimit;
+
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setTaskDecorator(new ContextCopyingDecorator());
+            log.info("@Async tasks run on virtual threads (concurrency limit {})", virtualConcurrencyLimit);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -31,42 +52,22 @@ public class AsyncConfiguration implements AsyncConfigurer {
     }
 
     /**
-     * Decorator that copies ThreadLocal context to async threads
+     * Decorator that hands the caller's context snapshot to async threads
      */
     public static class ContextCopyingDecorator implements TaskDecorator {
         @Override
         public Runnable decorate(Runnable runnable) {
-            // Capture context from parent thread
-            String tenantCode = TenantContext.getCurrentTenant();
-            Long tenantId = TenantContext.getCurrentTenantId();
-            String schemaContext = SchemaContext.getCurrentSchema();
-
-            log.debug("Capturing context for async task - Tenant: {}, Schema: {}",
-                    tenantCode, schemaContext);
+            // Capture context from parent thread - an immutable snapshot, so sharing it is safe
+            ExecutionContext captured = ExecutionContext.current();
 
-            return () -> {
-                try {
-                    // Set context in child thread
-                    if (tenantCode != null) {
-                        TenantContext.setCurrentTenant(tenantId, tenantCode, null);
-                        log.debug("Restored tenant context in async thread: {}", tenantCode);
-                    }
-                    if (schemaContext != null) {
-                        SchemaContext.setSchema(schemaContext);
-                        log.debug("Restored schema context in async thread: {}", schemaContext);
-                    }
+            log.debug("Capturing context for async task - {}", captured);
 
-                    // Execute the actual task
-                    runnable.run();
+            SecurityContext securityContext = SecurityContextHolder.getContext();
 
-                } finally {
-                    // Clean up context after task
-                    TenantContext.clear();
-                    SchemaContext.clear();
-                    log.debug("Cleared context after async task completion");
-                }
-            };
+            // The worker's previous (normally empty) contexts are restored when the task ends,
+            // so nothing leaks into the next task run by the pooled thread
+            return new DelegatingSecurityContextRunnable(() -> captured.run(runnable), securityContext);
         }
     }
 
-}
\ No newline at end of file
+}
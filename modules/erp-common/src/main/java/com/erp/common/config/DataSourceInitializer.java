@@ -13,9 +13,19 @@ import org.springframework.stereotype.Component;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Order(1) // Run first
@@ -34,6 +44,19 @@ public class DataSourceInitializer implements CommandLineRunner {
     @Value("${spring.datasource.password}")
     private String password;
 
+    @Value("${app.datasource.bootstrap.parallelism:16}")
+    private int bootstrapParallelism;
+
+    @Value("${app.datasource.bootstrap.tenant-timeout-ms:10000}")
+    private long tenantTimeoutMs;
+
+    // Tenant codes whose pools must be up before the application reports ready
+    @Value("${app.datasource.bootstrap.priority-tenants:}")
+    private Set<String> priorityTenants;
+
+    @Value("${app.datasource.bootstrap.warm-up-all:true}")
+    private boolean warmUpAll;
+
     @Override
     public void run(String... args) throws Exception {
         // Ensure clean context at startup
@@ -42,11 +65,19 @@ public class DataSourceInitializer implements CommandLineRunner {
 
         log.info("Initializing tenant data sources directly from database...");
 
+        // Read first, so tenants created while the list is loaded are kept by the swap
+        long routingVersion = dataSourceConfig.getRoutingVersion();
         List<Tenant> tenants = loadTenantsDirectly();
 
         if (!tenants.isEmpty()) {
-            dataSourceConfig.loadExistingTenants(tenants);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            Executor bounded = boundedExecutor(executor, bootstrapParallelism);
+
+            dataSourceConfig.loadExistingTenants(tenants, routingVersion, bounded, Duration.ofMillis(tenantTimeoutMs));
             log.info("Loaded {} active tenant data sources", tenants.size());
+
+            warmUpTenants(tenants, bounded);
+            executor.shutdown(); // lets background warm-up finish without blocking startup
         } else {
             log.info("No active tenants found");
         }
@@ -56,6 +87,77 @@ public class DataSourceInitializer implements CommandLineRunner {
         SchemaContext.clear();
     }
 
+    /**
+     * Warm priority tenants before returning, and the rest in the background
+     */
+    private void warmUpTenants(List<Tenant> tenants, Executor executor) {
+        List<Tenant> priority = new ArrayList<>();
+        List<Tenant> background = new ArrayList<>();
+        for (Tenant tenant : tenants) {
+            if (tenant.getHibernationState() != Tenant.HibernationState.AWAKE) {
+                continue; // woken on first request
+            }
+            if (priorityTenants.contains(tenant.getTenantCode())) {
+                priority.add(tenant);
+            } else {
+                background.add(tenant);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Void>> priorityWarmUps = new ArrayList<>();
+        for (Tenant tenant : priority) {
+            priorityWarmUps.add(warmUp(tenant, executor));
+        }
+        for (CompletableFuture<Void> warmUp : priorityWarmUps) {
+            warmUp.exceptionally(e -> null).join();
+        }
+        if (!priority.isEmpty()) {
+            log.info("Warmed up {} priority tenants in {} ms", priority.size(), System.currentTimeMillis() - start);
+        }
+
+        if (!warmUpAll) {
+            return;
+        }
+
+        // Do not warm more pools than may stay open at once
+        int limit = Math.max(0, dataSourceConfig.getMaxLiveTenantPools() - priority.size());
+        List<Tenant> toWarm = background.subList(0, Math.min(limit, background.size()));
+        List<CompletableFuture<Void>> backgroundWarmUps = new ArrayList<>();
+        for (Tenant tenant : toWarm) {
+            backgroundWarmUps.add(warmUp(tenant, executor));
+        }
+        CompletableFuture.allOf(backgroundWarmUps.toArray(CompletableFuture[]::new))
+                .whenComplete((result, e) -> log.info("Background warm-up of {} tenants completed", toWarm.size()));
+    }
+
+    private CompletableFuture<Void> warmUp(Tenant tenant, Executor executor) {
+        int validationTimeoutSeconds = (int) Math.max(1, tenantTimeoutMs / 1000);
+        return CompletableFuture
+                .runAsync(() -> dataSourceConfig.warmUpTenant(tenant.getSchemaName(), validationTimeoutSeconds), executor)
+                .orTimeout(tenantTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.warn("Warm-up of tenant {} failed: {}", tenant.getTenantCode(), e.toString());
+                    }
+                });
+    }
+
+    /**
+     * Run tasks on the given executor with at most the given number in flight
+     */
+    private Executor boundedExecutor(ExecutorService executor, int parallelism) {
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        return task -> executor.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
     private List<Tenant> loadTenantsDirectly() {
         List<Tenant> tenants = new ArrayList<>();
 
@@ -73,10 +175,11 @@ public class DataSourceInitializer implements CommandLineRunner {
                 // Explicitly use master database
                 stmt.execute("USE erp_master");
 
-                String query = "SELECT id, tenant_code, tenant_name, schema_name " +
-                        "FROM tenants WHERE is_active = true";
+                // SELECT * because master migrations run after this - hibernation_state may not exist yet
+                String query = "SELECT * FROM tenants WHERE is_active = true";
 
                 ResultSet rs = stmt.executeQuery(query);
+                boolean hasHibernationState = hasColumn(rs, "hibernation_state");
 
                 while (rs.next()) {
                     Tenant tenant = new Tenant();
@@ -84,6 +187,10 @@ public class DataSourceInitializer implements CommandLineRunner {
                     tenant.setTenantCode(rs.getString("tenant_code"));
                     tenant.setTenantName(rs.getString("tenant_name"));
                     tenant.setSchemaName(rs.getString("schema_name"));
+                    tenant.setDatabaseUrl(rs.getString("database_url"));
+                    if (hasHibernationState) {
+                        tenant.setHibernationState(Tenant.HibernationState.valueOf(rs.getString("hibernation_state")));
+                    }
                     tenants.add(tenant);
 
                     log.debug("Found tenant: {} with schema: {}",
@@ -97,4 +204,14 @@ public class DataSourceInitializer implements CommandLineRunner {
         return tenants;
     }
 
+    private boolean hasColumn(ResultSet rs, String columnName) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (columnName.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
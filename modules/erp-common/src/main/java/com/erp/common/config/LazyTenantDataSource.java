@@ -0,0 +1,149 @@
+package com.erp.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Tenant datasource whose connection pool is only created on the first routed
+ * getConnection, and can be closed again once the tenant has been idle.
+ * The routing map keeps pointing at this wrapper, so eviction never touches routing.
+ */
+@Slf4j
+public class LazyTenantDataSource extends AbstractDataSource {
+
+    @Getter
+    private final String schemaName;
+
+    private final Supplier<DataSource> poolFactory;
+    private final Consumer<LazyTenantDataSource> onMaterialized;
+    private final Consumer<HikariDataSource> poolCloser;
+
+    // ReentrantLock rather than synchronized so virtual threads are not pinned while a pool starts
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile DataSource delegate;
+
+    @Getter
+    private volatile long lastAccessMillis;
+
+    public LazyTenantDataSource(String schemaName, Supplier<DataSource> poolFactory,
+                                Consumer<LazyTenantDataSource> onMaterialized,
+                                Consumer<HikariDataSource> poolCloser) {
+        this.schemaName = schemaName;
+        this.poolFactory = poolFactory;
+        this.onMaterialized = onMaterialized;
+        this.poolCloser = poolCloser;
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        lastAccessMillis = System.currentTimeMillis();
+        DataSource dataSource = materialize();
+
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            // The pool was evicted between lookup and checkout - start a fresh one
+            if (dataSource instanceof HikariDataSource hikari && hikari.isClosed()) {
+                log.debug("Pool for schema {} was evicted during checkout, re-creating", schemaName);
+                return materialize().getConnection();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        lastAccessMillis = System.currentTimeMillis();
+        return materialize().getConnection(username, password);
+    }
+
+    public boolean isMaterialized() {
+        return delegate != null;
+    }
+
+    /**
+     * Current pool, or null if the tenant has not been used since startup or last eviction
+     */
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Close the pool if no connection is currently borrowed from it
+     */
+    public boolean evictIfIdle() {
+        lock.lock();
+        try {
+            if (!(delegate instanceof HikariDataSource hikari)) {
+                return false;
+            }
+
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null && pool.getActiveConnections() > 0) {
+                return false;
+            }
+
+            delegate = null;
+            poolCloser.accept(hikari);
+            log.info("Evicted idle connection pool for schema: {}", schemaName);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            if (delegate instanceof HikariDataSource hikari) {
+                poolCloser.accept(hikari);
+            }
+            delegate = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DataSource materialize() {
+        DataSource current = delegate;
+        if (current != null && !isClosed(current)) {
+            return current;
+        }
+
+        boolean created = false;
+        lock.lock();
+        try {
+            current = delegate;
+            if (current == null || isClosed(current)) {
+                log.info("Materializing connection pool for schema: {}", schemaName);
+                current = poolFactory.get();
+                delegate = current;
+                created = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (created && onMaterialized != null) {
+            onMaterialized.accept(this);
+        }
+        return current;
+    }
+
+    private boolean isClosed(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari && hikari.isClosed();
+    }
+
+}
@@ -3,6 +3,7 @@ package com.erp.common.config;
 import com.erp.common.entity.Tenant;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,16 +12,39 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
 import javax.sql.DataSource;
-import java.util.concurrent.ConcurrentHashMap;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 @Slf4j
 public class MultiTenantDataSourceConfig {
 
     @Getter
-    private final Map<Object, Object> dataSources = new ConcurrentHashMap<>();
+    private final TenantRoutingTable routingTable = new TenantRoutingTable();
+
+    @Getter
+    private final TenantSchemaAvailability schemaAvailability = new TenantSchemaAvailability();
+
+    // Base server URL of tenants placed outside the primary server, keyed by schema name
+    private final Map<String, String> tenantServerUrls = new ConcurrentHashMap<>();
+
+    // Small autocommit pools per tenant server (primary included), for DDL and migrations
+    private final Map<String, HikariDataSource> serverAdminPools = new ConcurrentHashMap<>();
 
     @Value("${spring.datasource.url}")
     private String masterDbUrl;
@@ -31,23 +55,97 @@ public class MultiTenantDataSourceConfig {
     @Value("${spring.datasource.password}")
     private String dbPassword;
 
+    // dedicated: one pool per tenant schema, shared: one catalog-switching pool for all tenants
+    @Value("${app.datasource.pool-mode:dedicated}")
+    private String poolMode;
+
+    @Value("${app.datasource.shared-pool.maximum-pool-size:50}")
+    private int sharedPoolMaxSize;
+
+    @Value("${app.datasource.shared-pool.minimum-idle:5}")
+    private int sharedPoolMinIdle;
+
+    // Create tenant pools on the first routed getConnection instead of at startup
+    @Value("${app.datasource.tenant-pool.lazy:true}")
+    private boolean lazyTenantPools;
+
+    @Value("${app.datasource.tenant-pool.idle-ttl-ms:1800000}")
+    private long tenantPoolIdleTtlMs;
+
+    @Value("${app.datasource.tenant-pool.max-live-pools:200}")
+    private int maxLiveTenantPools;
+
+    @Value("${app.datasource.tenant-pool.initial-size:5}")
+    private int tenantPoolInitialSize;
+
+    // Cap on the summed maximumPoolSize of all tenant pools, enforced on creation and resize
+    @Value("${app.datasource.tenant-pool.global-max-connections:400}")
+    private int tenantGlobalMaxConnections;
+
+    // Retry-After sent to requests for a tenant whose schema is still migrating
+    @Getter
+    @Value("${app.migration.retry-after-seconds:10}")
+    private long migrationRetryAfterSeconds;
+
+    // Connections per tenant server for DDL and migrations (Flyway holds up to two per migrating schema)
+    @Value("${app.datasource.server-admin-pool-size:8}")
+    private int serverAdminPoolSize;
+
+    // Base JDBC URL of a read replica server; empty disables replica routing
+    @Value("${app.datasource.replica.url:}")
+    private String replicaDbUrl;
+
+    @Value("${app.datasource.replica.max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${app.datasource.replica.sticky-window-ms:5000}")
+    private long replicaStickyWindowMs;
+
     private TenantRoutingDataSource routingDataSource;
 
+    @Getter
+    private ReplicaRoutingPolicy replicaPolicy;
+
+    @Getter
+    private HikariDataSource replicaMonitorDataSource;
+
+    @Getter
+    private SharedTenantConnectionPool sharedPool;
+
+    @Getter
+    private TenantConnectionBudget connectionBudget;
+
+    // Guards pool size changes against concurrent close; a lock rather than synchronized so virtual threads are not pinned
+    private final ReentrantLock poolSizeLock = new ReentrantLock();
+    private final Set<HikariDataSource> closingPools = ConcurrentHashMap.newKeySet();
+    // Budget held by each open tenant pool: its maximum size, or more while a shrink is still draining
+    private final Map<HikariDataSource, Integer> chargedConnections = new ConcurrentHashMap<>();
+
     @Bean
     @Primary
     public DataSource dataSource() {
-        routingDataSource = new TenantRoutingDataSource();
+        routingDataSource = new TenantRoutingDataSource(routingTable, schemaAvailability, migrationRetryAfterSeconds);
+        connectionBudget = new TenantConnectionBudget(tenantGlobalMaxConnections);
 
-        // Create and set master datasource
-        DataSource masterDataSource = createDataSource("erp_master");
+        // Create master datasource - also the fallback for unknown routing keys
+        routingTable.putMaster(createDataSource("erp_master"));
 
-        // IMPORTANT: Add master to the map with "master" key
-        dataSources.put("master", masterDataSource);
+        if (isSharedPoolMode()) {
+            sharedPool = new SharedTenantConnectionPool(createSharedPool());
+            log.info("Tenant schemas will share one catalog-switching connection pool");
+        }
 
-        // Set as default
-        routingDataSource.setDefaultTargetDataSource(masterDataSource);
-        routingDataSource.setTargetDataSources(dataSources);
-        routingDataSource.afterPropertiesSet();
+        if (isReplicaEnabled()) {
+            replicaPolicy = new ReplicaRoutingPolicy(
+                    // The replica mirrors the primary server only - sharded tenants always read from their own server
+                    schemaName -> tenantServerUrls.containsKey(schemaName) ? null
+                            : new LazyTenantDataSource(schemaName, () -> createReplicaDataSource(schemaName),
+                            null, this::closeTenantPool),
+                    replicaMaxLagSeconds, replicaStickyWindowMs);
+            replicaMonitorDataSource = createReplicaMonitorPool();
+            routingDataSource.setReplicaPolicy(replicaPolicy);
+            log.info("Read-only tenant transactions will be routed to replica: {}", replicaDbUrl);
+        }
 
         log.info("Initialized routing datasource with master database");
 
@@ -55,38 +153,127 @@ public class MultiTenantDataSourceConfig {
     }
 
     public void loadExistingTenants(List<Tenant> tenants) {
+        loadExistingTenants(tenants, routingTable.version(), Runnable::run, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Version of the routing table, to be read before the tenants passed to {@link #loadExistingTenants}
+     */
+    public long getRoutingVersion() {
+        return routingTable.version();
+    }
+
+    /**
+     * Build tenant datasources on the given executor, then swap them into routing in one step.
+     * Tenants added or removed since {@code routingVersion} keep their current routing.
+     * A tenant whose pool cannot be opened within the timeout is registered lazily and retried on first use.
+     */
+    public void loadExistingTenants(List<Tenant> tenants, long routingVersion, Executor executor, Duration timeout) {
         try {
+            Map<String, CompletableFuture<DataSource>> pending = new LinkedHashMap<>();
+            Map<String, String> schemaByTenantCode = new HashMap<>();
+            Set<DataSource> reused = Collections.newSetFromMap(new IdentityHashMap<>());
             for (Tenant tenant : tenants) {
-                addTenantDataSource(tenant.getTenantCode(), tenant.getSchemaName());
+                String schemaName = tenant.getSchemaName();
+                schemaByTenantCode.put(tenant.getTenantCode(), schemaName);
+                registerTenantServer(schemaName, tenant.getDatabaseUrl());
+                DataSource existing = routingTable.get(schemaName);
+                if (existing == null && isHibernated(tenant)) {
+                    // No pool for a sleeping (or restoring) tenant; it stays blocked until woken
+                    if (tenant.getHibernationState() == Tenant.HibernationState.RESTORING) {
+                        schemaAvailability.markRestoring(schemaName);
+                    } else {
+                        schemaAvailability.markHibernated(schemaName);
+                    }
+                    pending.put(schemaName, CompletableFuture.completedFuture(hibernatedPlaceholder(schemaName)));
+                    continue;
+                }
+                if (existing != null) {
+                    reused.add(existing);
+                }
+                pending.put(schemaName, existing != null
+                        ? CompletableFuture.completedFuture(existing)
+                        : CompletableFuture.supplyAsync(() -> buildTenantDataSource(schemaName), executor));
+            }
+
+            long deadline = System.nanoTime() + timeout.toNanos();
+            Map<String, DataSource> entries = new HashMap<>();
+            for (Map.Entry<String, CompletableFuture<DataSource>> entry : pending.entrySet()) {
+                entries.put(entry.getKey(), awaitTenantDataSource(entry.getKey(), entry.getValue(), deadline));
             }
+
+            routingTable.replaceTenants(entries, schemaByTenantCode, routingVersion)
+                    .forEach((schemaName, dataSource) -> closeTenantDataSource(dataSource));
+            // Pools built here for a tenant that was added or removed meanwhile were never routed
+            entries.forEach((schemaName, dataSource) -> {
+                if (!reused.contains(dataSource) && routingTable.get(schemaName) != dataSource) {
+                    closeTenantDataSource(dataSource);
+                }
+            });
             log.info("Loaded {} tenant data sources", tenants.size());
         } catch (Exception e) {
             log.error("Error loading existing tenants", e);
         }
     }
 
-    public void addTenantDataSource(String tenantCode, String schemaName) {
+    private DataSource awaitTenantDataSource(String schemaName, CompletableFuture<DataSource> future, long deadline) {
         try {
-            // Create datasource for tenant schema
-            DataSource tenantDataSource = createDataSource(schemaName);
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Datasource for schema {} not ready during bootstrap ({}), deferring to first use",
+                    schemaName, e.toString());
+        }
 
-            // Add with tenant_code as key (matching TenantContext format)
-            String tenantKey = "tenant_" + tenantCode.toLowerCase();
-            dataSources.put(tenantKey, tenantDataSource);
+        // Close a pool that still completes after we gave up on it
+        future.thenAccept(this::closeTenantDataSource);
+        return new LazyTenantDataSource(schemaName, () -> createDataSource(schemaName),
+                this::enforceLivePoolLimit, this::closeTenantPool);
+    }
 
-            // Also add with just the tenant code for backward compatibility
-            dataSources.put(tenantCode, tenantDataSource);
+    /**
+     * Open the tenant's pool and validate one connection, so the first request does not pay for it
+     */
+    public void warmUpTenant(String schemaName, int validationTimeoutSeconds) {
+        DataSource dataSource = routingTable.get(schemaName);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("No datasource registered for schema: " + schemaName);
+        }
 
-            // Also add with the schema name directly
-            dataSources.put(schemaName, tenantDataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                throw new SQLException("Connection validation failed for schema: " + schemaName);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to warm up datasource for schema: " + schemaName, e);
+        }
+    }
+
+    public int getMaxLiveTenantPools() {
+        return lazyTenantPools ? maxLiveTenantPools : Integer.MAX_VALUE;
+    }
 
-            if (routingDataSource != null) {
-                routingDataSource.setTargetDataSources(dataSources);
-                routingDataSource.afterPropertiesSet();
+    public void addTenantDataSource(String tenantCode, String schemaName) {
+        addTenantDataSource(tenantCode, schemaName, null);
+    }
+
+    /**
+     * Register a tenant hosted on the given server (null = primary server)
+     */
+    public void addTenantDataSource(String tenantCode, String schemaName, String databaseUrl) {
+        try {
+            registerTenantServer(schemaName, databaseUrl);
+            DataSource tenantDataSource = buildTenantDataSource(schemaName);
+
+            DataSource replaced = routingTable.put(tenantCode, schemaName, tenantDataSource);
+            if (replaced != null) {
+                closeTenantDataSource(replaced);
             }
 
-            log.info("Added datasource for tenant: {} (keys: {}, {}, {}) with schema: {}",
-                    tenantCode, tenantKey, tenantCode, schemaName, schemaName);
+            log.info("Added {}datasource for tenant: {} with schema: {} on server: {}",
+                    tenantDataSource instanceof LazyTenantDataSource ? "lazy " : "", tenantCode, schemaName,
+                    tenantServerUrls.getOrDefault(schemaName, "primary"));
         } catch (Exception e) {
             log.error("Failed to add tenant datasource for: {}", tenantCode, e);
             throw new RuntimeException("Failed to add tenant datasource", e);
@@ -94,57 +281,476 @@ public class MultiTenantDataSourceConfig {
     }
 
     public void removeTenantDataSource(String tenantCode) {
-        String tenantKey = "tenant_" + tenantCode.toLowerCase();
-        String schemaName = "tenant_" + tenantCode.toLowerCase();
+        String schemaName = routingTable.schemaOf(tenantCode);
+        DataSource dataSource = routingTable.remove(schemaName);
+        if (dataSource != null) {
+            closeTenantDataSource(dataSource);
+        }
 
-        // Close datasource if it's HikariDataSource
-        Object dataSource = dataSources.get(tenantKey);
-        if (dataSource instanceof HikariDataSource) {
-            ((HikariDataSource) dataSource).close();
+        if (replicaPolicy != null) {
+            DataSource replica = replicaPolicy.removeReplica(schemaName);
+            if (replica != null) {
+                closeTenantDataSource(replica);
+            }
         }
+        tenantServerUrls.remove(schemaName);
 
-        // Remove all possible keys
-        dataSources.remove(tenantKey);
-        dataSources.remove(tenantCode);
-        dataSources.remove(schemaName);
+        log.info("Removed datasource for tenant: {}", tenantCode);
+    }
 
-        if (routingDataSource != null) {
-            routingDataSource.setTargetDataSources(dataSources);
-            routingDataSource.afterPropertiesSet();
+    /**
+     * Close the tenant's pools but keep it routed to an unopened placeholder, so a hibernated (or
+     * restoring) tenant is turned away by its availability state instead of falling through to master.
+     * Takes a schema name or a tenant key.
+     */
+    public void releaseTenantDataSource(String key) {
+        String schemaName = routingTable.resolveSchema(key);
+        DataSource replaced = routingTable.put(schemaName, hibernatedPlaceholder(schemaName));
+        if (replaced != null) {
+            closeTenantDataSource(replaced);
         }
 
-        log.info("Removed datasource for tenant: {}", tenantCode);
+        if (replicaPolicy != null) {
+            DataSource replica = replicaPolicy.removeReplica(schemaName);
+            if (replica != null) {
+                closeTenantDataSource(replica);
+            }
+        }
+
+        log.info("Released datasource for schema: {}", schemaName);
+    }
+
+    private DataSource hibernatedPlaceholder(String schemaName) {
+        return new LazyTenantDataSource(schemaName, () -> createDataSource(schemaName),
+                this::enforceLivePoolLimit, this::closeTenantPool);
+    }
+
+    private static boolean isHibernated(Tenant tenant) {
+        return tenant.getHibernationState() != null && tenant.getHibernationState() != Tenant.HibernationState.AWAKE;
     }
 
     public DataSource getTenantDataSource(String schemaName) {
         // Try to find existing datasource
-        Object dataSource = dataSources.get(schemaName);
+        DataSource dataSource = routingTable.get(schemaName);
         if (dataSource != null) {
-            return (DataSource) dataSource;
+            return dataSource;
         }
 
         // If not found, create new one
         log.info("Creating new datasource for schema: {}", schemaName);
-        return createDataSource(schemaName);
+        return createTenantDataSource(schemaName);
     }
 
     public DataSource getMasterDataSource() {
-        return (DataSource) dataSources.get("master");
+        return routingTable.getMaster();
     }
 
-    private DataSource createDataSource(String schemaName) {
+    /**
+     * Schema name of a registered tenant code; tenant_xxx for codes that are not registered
+     */
+    public String getTenantSchemaName(String tenantCode) {
+        return routingTable.schemaOf(tenantCode);
+    }
+
+    /**
+     * Base URL of the server hosting the schema, or null when it is on the primary server
+     */
+    public String getTenantServerUrl(String schemaName) {
+        return tenantServerUrls.get(schemaName);
+    }
+
+    /**
+     * Server-level (no default schema) datasource for DDL and migrations on the given server
+     * (null = primary server). The primary server gets its own admin pool too, so migrations
+     * never drain the master pool that logins and every master-schema request depend on.
+     */
+    public DataSource getServerAdminDataSource(String databaseUrl) {
+        String baseUrl = normalizeServerUrl(databaseUrl);
+        return serverAdminPools.computeIfAbsent(baseUrl != null ? baseUrl : baseUrlOf(masterDbUrl),
+                this::createServerAdminPool);
+    }
+
+    public DataSource getAdminDataSourceForSchema(String schemaName) {
+        return getServerAdminDataSource(tenantServerUrls.get(schemaName));
+    }
+
+    /**
+     * Base URL ("jdbc:mysql://host:port/") of a server URL, or null if it denotes the primary server
+     */
+    public String normalizeServerUrl(String databaseUrl) {
+        if (databaseUrl == null || databaseUrl.isBlank()) {
+            return null;
+        }
+        String baseUrl = baseUrlOf(databaseUrl);
+        return baseUrl.equals(baseUrlOf(masterDbUrl)) ? null : baseUrl;
+    }
+
+    private void registerTenantServer(String schemaName, String databaseUrl) {
+        String baseUrl = normalizeServerUrl(databaseUrl);
+        if (baseUrl != null) {
+            tenantServerUrls.put(schemaName, baseUrl);
+        } else {
+            tenantServerUrls.remove(schemaName);
+        }
+    }
+
+    private static String baseUrlOf(String url) {
+        int queryStart = url.indexOf('?');
+        String withoutQuery = queryStart >= 0 ? url.substring(0, queryStart) : url;
+        return withoutQuery.substring(0, withoutQuery.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Live Hikari pools keyed by pool name - master plus every materialized tenant pool
+     */
+    public Map<String, HikariDataSource> getLivePools() {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (DataSource value : allRoutedDataSources()) {
+            if (!seen.add(value)) {
+                continue; // shared pool views may wrap the same pool
+            }
+            Object pool = value instanceof LazyTenantDataSource lazy ? lazy.getDelegate() : value;
+            if (pool instanceof HikariDataSource hikari && !hikari.isClosed()) {
+                pools.put(hikari.getPoolName(), hikari);
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * Close tenant pools that have not been used within the idle TTL
+     */
+    public int evictIdlePools() {
+        long cutoff = System.currentTimeMillis() - tenantPoolIdleTtlMs;
+        int evicted = 0;
+
+        for (LazyTenantDataSource lazy : materializedLazyDataSources()) {
+            if (lazy.getLastAccessMillis() < cutoff && lazy.evictIfIdle()) {
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            log.info("Evicted {} tenant pools idle for more than {} ms", evicted, tenantPoolIdleTtlMs);
+        }
+        return evicted;
+    }
+
+    /**
+     * Keep the number of live tenant pools under the configured bound, evicting least recently used first
+     */
+    private void enforceLivePoolLimit(LazyTenantDataSource materialized) {
+        List<LazyTenantDataSource> live = materializedLazyDataSources();
+        int excess = live.size() - maxLiveTenantPools;
+        if (excess <= 0) {
+            return;
+        }
+
+        live.sort(Comparator.comparingLong(LazyTenantDataSource::getLastAccessMillis));
+        for (LazyTenantDataSource candidate : live) {
+            if (excess == 0) {
+                break;
+            }
+            if (candidate != materialized && candidate.evictIfIdle()) {
+                excess--;
+            }
+        }
+
+        if (excess > 0) {
+            log.warn("Live tenant pools exceed limit of {} by {} - all other pools are busy",
+                    maxLiveTenantPools, excess);
+        }
+    }
+
+    /**
+     * Live tenant pools (primary and replica), excluding master
+     */
+    public List<HikariDataSource> getLiveTenantPools() {
+        DataSource master = routingTable.getMaster();
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (HikariDataSource pool : getLivePools().values()) {
+            if (pool != master) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * Change the maximum size of a tenant pool within the global budget.
+     * Returns the size actually applied, which may be smaller than requested when the budget is exhausted.
+     * A shrink keeps its connections charged until Hikari has retired them, see releaseRetiredConnections.
+     */
+    public int resizeTenantPool(HikariDataSource pool, int requestedSize) {
+        poolSizeLock.lock();
+        try {
+            if (pool.isClosed() || closingPools.contains(pool)) {
+                return 0;
+            }
+
+            int current = pool.getMaximumPoolSize();
+            int charged = chargedConnections.getOrDefault(pool, current);
+            int target = current;
+            if (requestedSize > current) {
+                // Connections still charged from an earlier shrink are reused before the budget is asked
+                int granted = requestedSize > charged ? connectionBudget.tryAcquire(requestedSize - charged) : 0;
+                target = Math.min(requestedSize, charged + granted);
+                chargedConnections.put(pool, charged + granted);
+            } else if (requestedSize < current) {
+                target = requestedSize;
+            }
+
+            if (target != current) {
+                pool.getHikariConfigMXBean().setMinimumIdle(Math.min(pool.getMinimumIdle(), target));
+                pool.getHikariConfigMXBean().setMaximumPoolSize(target);
+            }
+            return target;
+        } finally {
+            poolSizeLock.unlock();
+        }
+    }
+
+    /**
+     * Return the budget of connections that shrunk pools have actually closed; called on every sizer tick
+     */
+    public void releaseRetiredConnections() {
+        poolSizeLock.lock();
+        try {
+            for (Map.Entry<HikariDataSource, Integer> entry : chargedConnections.entrySet()) {
+                HikariDataSource pool = entry.getKey();
+                HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+                if (closingPools.contains(pool) || stats == null) {
+                    continue;
+                }
+                int held = Math.max(pool.getMaximumPoolSize(), stats.getTotalConnections());
+                if (entry.getValue() > held) {
+                    connectionBudget.release(entry.getValue() - held);
+                    entry.setValue(held);
+                }
+            }
+        } finally {
+            poolSizeLock.unlock();
+        }
+    }
+
+    /**
+     * Close a tenant pool and return its connections to the global budget once they are closed
+     */
+    private void closeTenantPool(HikariDataSource pool) {
+        if (!closingPools.add(pool)) {
+            return; // another thread is already closing it
+        }
+
+        try {
+            // Outside the lock - closing waits for borrowed connections, which stay charged until then
+            pool.close();
+        } finally {
+            poolSizeLock.lock();
+            try {
+                Integer charged = chargedConnections.remove(pool);
+                if (charged != null) {
+                    connectionBudget.release(charged);
+                }
+            } finally {
+                poolSizeLock.unlock();
+            }
+            closingPools.remove(pool);
+        }
+    }
+
+    /**
+     * Reserve connections for a new tenant pool, evicting idle pools when the budget is used up
+     */
+    private int acquirePoolBudget(String poolName) {
+        int granted = connectionBudget.tryAcquire(tenantPoolInitialSize);
+
+        if (granted == 0) {
+            List<LazyTenantDataSource> live = materializedLazyDataSources();
+            live.sort(Comparator.comparingLong(LazyTenantDataSource::getLastAccessMillis));
+            for (LazyTenantDataSource candidate : live) {
+                if (candidate.evictIfIdle()) {
+                    granted = connectionBudget.tryAcquire(tenantPoolInitialSize);
+                    if (granted > 0) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (granted == 0) {
+            throw new RuntimeException("Tenant connection budget of " + connectionBudget.getMaxConnections()
+                    + " is exhausted, cannot open " + poolName);
+        }
+        return granted;
+    }
+
+    private HikariDataSource openTenantPool(HikariConfig config) {
+        int granted = acquirePoolBudget(config.getPoolName());
+        config.setMaximumPoolSize(granted);
+        config.setMinimumIdle(Math.min(config.getMinimumIdle(), granted));
+
+        try {
+            HikariDataSource pool = new HikariDataSource(config);
+            chargedConnections.put(pool, granted);
+            return pool;
+        } catch (RuntimeException e) {
+            connectionBudget.release(granted);
+            throw e;
+        }
+    }
+
+    private List<LazyTenantDataSource> materializedLazyDataSources() {
+        Set<LazyTenantDataSource> lazies = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource value : allRoutedDataSources()) {
+            if (value instanceof LazyTenantDataSource lazy && lazy.isMaterialized()) {
+                lazies.add(lazy);
+            }
+        }
+        return new ArrayList<>(lazies);
+    }
+
+    private List<DataSource> allRoutedDataSources() {
+        List<DataSource> all = new ArrayList<>(routingTable.snapshot().values());
+        if (replicaPolicy != null) {
+            all.addAll(replicaPolicy.getReplicas().values());
+        }
+        return all;
+    }
+
+    public boolean isReplicaEnabled() {
+        return replicaDbUrl != null && !replicaDbUrl.isBlank();
+    }
+
+    public boolean isSharedPoolMode() {
+        return "shared".equalsIgnoreCase(poolMode);
+    }
+
+    /**
+     * Routing entry for a tenant schema - the pool itself is deferred in lazy mode
+     */
+    private DataSource buildTenantDataSource(String schemaName) {
+        // The shared pool only reaches the primary server
+        boolean shared = sharedPool != null && !tenantServerUrls.containsKey(schemaName);
+        if (lazyTenantPools && !shared) {
+            return new LazyTenantDataSource(schemaName, () -> createDataSource(schemaName),
+                    this::enforceLivePoolLimit, this::closeTenantPool);
+        }
+        return createTenantDataSource(schemaName);
+    }
+
+    private void closeTenantDataSource(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            closeTenantPool(hikari);
+        } else if (dataSource instanceof LazyTenantDataSource lazyDataSource) {
+            lazyDataSource.close();
+        } else if (dataSource instanceof SharedTenantConnectionPool.DataSourceView view && sharedPool != null) {
+            // Shared pool stays open for the other tenants
+            sharedPool.removeCatalog(view.getCatalog());
+        }
+    }
+
+    private DataSource createTenantDataSource(String schemaName) {
+        if (sharedPool != null && !tenantServerUrls.containsKey(schemaName)) {
+            log.info("Using shared connection pool for schema: {}", schemaName);
+            return sharedPool.forCatalog(schemaName);
+        }
+        return createDataSource(schemaName);
+    }
+
+    private HikariDataSource createSharedPool() {
+        HikariConfig config = new HikariConfig();
+
+        // No schema in the URL - the catalog is switched per checkout
+        String baseUrl = masterDbUrl.substring(0, masterDbUrl.lastIndexOf('/') + 1);
+        config.setJdbcUrl(baseUrl + "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true");
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+
+        config.setMaximumPoolSize(sharedPoolMaxSize);
+        config.setMinimumIdle(sharedPoolMinIdle);
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        config.setPoolName("HikariPool-shared-tenants");
+        config.setAutoCommit(false);
+        applyMySqlOptimizations(config);
+
+        log.info("Created shared tenant pool with max size: {}", sharedPoolMaxSize);
+
+        return new HikariDataSource(config);
+    }
+
+    private HikariDataSource createReplicaMonitorPool() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(replicaBaseUrl() + "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true");
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(5000);
+        config.setPoolName("HikariPool-replica-monitor");
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+    private DataSource createReplicaDataSource(String schemaName) {
+        String jdbcUrl = replicaBaseUrl() + schemaName + "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+        HikariConfig config = createPoolConfig(jdbcUrl, "HikariPool-replica-" + schemaName);
+        config.setReadOnly(true);
+
+        log.info("Created replica datasource for schema: {} with URL: {}", schemaName, jdbcUrl);
+
+        return openTenantPool(config);
+    }
+
+    private String replicaBaseUrl() {
+        return baseUrlOf(replicaDbUrl);
+    }
+
+    private HikariDataSource createServerAdminPool(String baseUrl) {
         HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(baseUrl + "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true");
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setMaximumPoolSize(serverAdminPoolSize);
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setPoolName("HikariPool-admin-" + baseUrl.replaceAll("[^A-Za-z0-9.-]+", "_"));
+        applyMySqlOptimizations(config);
+
+        log.info("Created admin datasource for tenant server: {}", baseUrl);
 
+        return new HikariDataSource(config);
+    }
+
+    private DataSource createDataSource(String schemaName) {
         // Build JDBC URL
         String jdbcUrl;
         if ("erp_master".equals(schemaName)) {
             jdbcUrl = masterDbUrl; // Use the configured master URL
         } else {
-            // Extract base URL and append schema name
-            String baseUrl = masterDbUrl.substring(0, masterDbUrl.lastIndexOf('/') + 1);
+            // Tenant's own server if it was placed on a shard, otherwise the primary server
+            String baseUrl = tenantServerUrls.getOrDefault(schemaName, baseUrlOf(masterDbUrl));
             jdbcUrl = baseUrl + schemaName + "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
         }
 
+        HikariConfig config = createPoolConfig(jdbcUrl, "HikariPool-" + schemaName);
+
+        log.info("Created datasource for schema: {} with URL: {}", schemaName, jdbcUrl);
+
+        // Master is sized statically, tenant pools draw from the global budget
+        return "erp_master".equals(schemaName) ? new HikariDataSource(config) : openTenantPool(config);
+    }
+
+    private HikariConfig createPoolConfig(String jdbcUrl, String poolName) {
+        HikariConfig config = new HikariConfig();
+
         config.setJdbcUrl(jdbcUrl);
         config.setUsername(dbUsername);
         config.setPassword(dbPassword);
@@ -156,12 +762,18 @@ public class MultiTenantDataSourceConfig {
         config.setConnectionTimeout(30000);
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
-        config.setPoolName("HikariPool-" + schemaName);
+        config.setPoolName(poolName);
 
         // CRITICAL: Disable autocommit for proper transaction management
         config.setAutoCommit(false);
 
         // MySQL optimizations
+        applyMySqlOptimizations(config);
+
+        return config;
+    }
+
+    private void applyMySqlOptimizations(HikariConfig config) {
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
@@ -172,10 +784,6 @@ public class MultiTenantDataSourceConfig {
         config.addDataSourceProperty("cacheServerConfiguration", "true");
         config.addDataSourceProperty("elideSetAutoCommits", "true");
         config.addDataSourceProperty("maintainTimeStats", "false");
-
-        log.info("Created datasource for schema: {} with URL: {}", schemaName, jdbcUrl);
-
-        return new HikariDataSource(config);
     }
 
 }
@@ -0,0 +1,112 @@
+package com.erp.common.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Decides whether a read-only tenant transaction may use the tenant's replica pool.
+ * Reads go to the primary while replica lag is above the threshold, and for a short
+ * sticky window after the same user wrote to the same tenant (read-your-writes).
+ */
+@Slf4j
+public class ReplicaRoutingPolicy {
+
+    private final Map<String, DataSource> replicas = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final Function<String, DataSource> replicaFactory;
+
+    @Getter
+    private final long maxLagSeconds;
+
+    @Getter
+    private final long stickyWindowMillis;
+
+    // -1 = replica unreachable or replication stopped, 0 until the first lag check
+    @Getter
+    private volatile long lagSeconds;
+
+    public ReplicaRoutingPolicy(Function<String, DataSource> replicaFactory, long maxLagSeconds, long stickyWindowMillis) {
+        this.replicaFactory = replicaFactory;
+        this.maxLagSeconds = maxLagSeconds;
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    /**
+     * Key identifying the current user within the current tenant, or null when unauthenticated
+     */
+    public static String currentWriterKey(String tenantCode) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (tenantCode == null || authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return tenantCode + ":" + authentication.getName();
+    }
+
+    /**
+     * Replica datasource to use for a read in the given schema, or null to stay on the primary
+     */
+    public DataSource resolveReplica(String schemaName, String writerKey) {
+        if (!isReplicaHealthy()) {
+            return null;
+        }
+
+        if (writerKey != null) {
+            Long lastWrite = lastWrites.get(writerKey);
+            if (lastWrite != null && System.currentTimeMillis() - lastWrite < stickyWindowMillis) {
+                log.trace("Read-your-writes: keeping {} on primary", writerKey);
+                return null;
+            }
+        }
+
+        return replicas.computeIfAbsent(schemaName, replicaFactory);
+    }
+
+    /**
+     * Remember a committed write so the writer's next reads see it
+     */
+    public void recordWrite(String writerKey) {
+        if (writerKey != null) {
+            lastWrites.put(writerKey, System.currentTimeMillis());
+        }
+    }
+
+    public void updateLag(long lagSeconds) {
+        if (lagSeconds < 0 || lagSeconds > maxLagSeconds) {
+            if (isReplicaHealthy()) {
+                log.warn("Replica lag {}s exceeds {}s - routing reads to primary", lagSeconds, maxLagSeconds);
+            }
+        } else if (!isReplicaHealthy()) {
+            log.info("Replica caught up (lag {}s) - routing reads to replica again", lagSeconds);
+        }
+        this.lagSeconds = lagSeconds;
+    }
+
+    public boolean isReplicaHealthy() {
+        return lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+    }
+
+    /**
+     * Drop write markers older than the sticky window
+     */
+    public void purgeExpiredWrites() {
+        long cutoff = System.currentTimeMillis() - stickyWindowMillis;
+        lastWrites.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+
+    public DataSource removeReplica(String schemaName) {
+        return replicas.remove(schemaName);
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return Map.copyOf(replicas);
+    }
+
+}
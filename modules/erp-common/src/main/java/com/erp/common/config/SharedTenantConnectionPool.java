@@ -0,0 +1,129 @@
+package com.erp.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One Hikari pool shared by every tenant schema on the same MySQL server.
+ * Each tenant gets a lightweight {@link CatalogDataSource} view that switches
+ * the catalog of the borrowed connection to the tenant schema on checkout. The pool
+ * runs with useLocalSessionState, so Connector/J answers getCatalog from its own
+ * session state and skips setCatalog when the connection is already on the schema.
+ */
+@Slf4j
+public class SharedTenantConnectionPool {
+
+    @Getter
+    private final HikariDataSource pool;
+
+    private final Map<String, TenantUsage> usageByCatalog = new ConcurrentHashMap<>();
+
+    public SharedTenantConnectionPool(HikariDataSource pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Get a datasource that hands out shared connections switched to the given schema
+     */
+    public DataSourceView forCatalog(String catalog) {
+        return new CatalogDataSource(catalog, usageByCatalog.computeIfAbsent(catalog, c -> new TenantUsage()));
+    }
+
+    /**
+     * Forget usage statistics of a schema that is no longer routed
+     */
+    public void removeCatalog(String catalog) {
+        usageByCatalog.remove(catalog);
+    }
+
+    /**
+     * Per-tenant usage of the shared pool
+     */
+    public Map<String, Map<String, Object>> getUsageSnapshot() {
+        Map<String, Map<String, Object>> snapshot = new HashMap<>();
+        usageByCatalog.forEach((catalog, usage) -> snapshot.put(catalog, usage.toMap()));
+        return snapshot;
+    }
+
+    public void close() {
+        pool.close();
+    }
+
+    private Connection borrow(String catalog, TenantUsage usage) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = pool.getConnection();
+
+        try {
+            if (!catalog.equals(connection.getCatalog())) {
+                usage.catalogSwitches.increment();
+            }
+            connection.setCatalog(catalog);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        usage.checkouts.increment();
+        usage.acquireNanos.add(System.nanoTime() - start);
+        return connection;
+    }
+
+    /**
+     * Marker for datasources that are views over a shared pool and must not be closed on their own
+     */
+    public interface DataSourceView extends javax.sql.DataSource {
+        String getCatalog();
+    }
+
+    private class CatalogDataSource extends AbstractDataSource implements DataSourceView {
+
+        private final String catalog;
+        private final TenantUsage usage;
+
+        private CatalogDataSource(String catalog, TenantUsage usage) {
+            this.catalog = catalog;
+            this.usage = usage;
+        }
+
+        @Override
+        public String getCatalog() {
+            return catalog;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return borrow(catalog, usage);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Shared tenant pool does not support per-call credentials");
+        }
+    }
+
+    private static class TenantUsage {
+        private final LongAdder checkouts = new LongAdder();
+        private final LongAdder catalogSwitches = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+
+        private Map<String, Object> toMap() {
+            long count = checkouts.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("checkouts", count);
+            map.put("catalogSwitches", catalogSwitches.sum());
+            map.put("avgAcquireMicros", count == 0 ? 0 : acquireNanos.sum() / count / 1000);
+            return map;
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.erp.common.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global cap on the sum of maximumPoolSize over all tenant pools.
+ * Pool creation, resizing and closing all go through here, so the cap holds at every point in time.
+ */
+@Slf4j
+public class TenantConnectionBudget {
+
+    @Getter
+    private final int maxConnections;
+
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    public TenantConnectionBudget(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Reserve up to the requested number of connections, returning how many were granted (possibly 0)
+     */
+    public int tryAcquire(int requested) {
+        while (true) {
+            int current = allocated.get();
+            int granted = Math.min(requested, maxConnections - current);
+            if (granted <= 0) {
+                return 0;
+            }
+            if (allocated.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    public void release(int connections) {
+        if (connections > 0) {
+            allocated.addAndGet(-connections);
+        }
+    }
+
+    public int getAllocated() {
+        return allocated.get();
+    }
+
+    public int getAvailable() {
+        return maxConnections - allocated.get();
+    }
+
+}
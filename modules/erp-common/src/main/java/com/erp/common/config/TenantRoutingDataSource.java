@@ -2,14 +2,97 @@ package com.erp.common.config;
 
 import com.erp.common.context.SchemaContext;
 import com.erp.common.context.TenantContext;
+import com.erp.common.exception.TenantSchemaUnavailableException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 @Slf4j
-public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+public class TenantRoutingDataSource extends AbstractDataSource {
+
+    private final TenantRoutingTable routingTable;
+    private final TenantSchemaAvailability schemaAvailability;
+    private final long retryAfterSeconds;
+
+    // Null when no read replica is configured
+    private volatile ReplicaRoutingPolicy replicaPolicy;
+
+    public TenantRoutingDataSource(TenantRoutingTable routingTable, TenantSchemaAvailability schemaAvailability,
+                                   long retryAfterSeconds) {
+        this.routingTable = routingTable;
+        this.schemaAvailability = schemaAvailability;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public void setReplicaPolicy(ReplicaRoutingPolicy replicaPolicy) {
+        this.replicaPolicy = replicaPolicy;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return determineTargetDataSource().unwrap(iface);
+    }
 
     @Override
-    protected Object determineCurrentLookupKey() {
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || determineTargetDataSource().isWrapperFor(iface);
+    }
+
+    /**
+     * Look up the datasource for the current context, falling back to master for unknown keys
+     */
+    protected DataSource determineTargetDataSource() {
+        String key = routingTable.resolveSchema(determineCurrentLookupKey());
+        DataSource dataSource = routingTable.get(key);
+        if (dataSource != null) {
+            // Never serve a tenant from a schema that is still being migrated
+            if (!schemaAvailability.isAvailable(key)) {
+                throw new TenantSchemaUnavailableException(key, retryAfterSeconds);
+            }
+            DataSource replica = resolveReplica(key);
+            return replica != null ? replica : dataSource;
+        }
+
+        DataSource master = routingTable.getMaster();
+        if (master == null) {
+            throw new IllegalStateException("Cannot determine target DataSource for lookup key [" + key + "]");
+        }
+        log.trace("No datasource registered for key: {}, using master", key);
+        return master;
+    }
+
+    private DataSource resolveReplica(String key) {
+        ReplicaRoutingPolicy policy = replicaPolicy;
+        if (policy == null || !SchemaContext.isReadOnly() || TenantRoutingTable.MASTER_KEY.equals(key)) {
+            return null;
+        }
+
+        DataSource replica = policy.resolveReplica(key,
+                ReplicaRoutingPolicy.currentWriterKey(TenantContext.getCurrentTenant()));
+        if (replica != null) {
+            log.trace("â†' Routing read-only transaction to replica of: {}", key);
+        }
+        return replica;
+    }
+
+    protected String determineCurrentLookupKey() {
         try {
             String schemaContext = SchemaContext.getCurrentSchema();
             String tenantCode = TenantContext.getCurrentTenant();
@@ -26,7 +109,7 @@ public class TenantRoutingDataSource extends AbstractRoutingDataSource {
 
                 if ("tenant".equals(schemaContext)) {
                     if (tenantCode != null) {
-                        String key = "tenant_" + tenantCode.toLowerCase();
+                        String key = TenantRoutingTable.tenantKey(tenantCode);
                         log.debug("â†' Routing to: {} (explicit tenant)", key);
                         return key;
                     } else {
@@ -42,7 +125,7 @@ public class TenantRoutingDataSource extends AbstractRoutingDataSource {
 
             // Priority 2: Tenant context (from JWT, but no explicit schema set)
             if (tenantCode != null) {
-                String key = "tenant_" + tenantCode.toLowerCase();
+                String key = TenantRoutingTable.tenantKey(tenantCode);
                 log.debug("â†' Routing to: {} (from tenant context)", key);
                 return key;
             }
@@ -57,11 +140,4 @@ public class TenantRoutingDataSource extends AbstractRoutingDataSource {
             return "master";
         }
     }
-
-    @Override
-    protected Object resolveSpecifiedLookupKey(Object lookupKey) {
-        String key = (String) lookupKey;
-        log.trace("Resolving datasource for key: {}", key);
-        return super.resolveSpecifiedLookupKey(lookupKey);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.erp.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Routing table behind {@link TenantRoutingDataSource}, holding exactly one entry per
+ * schema ("master" plus one schema name per tenant). Tenant contexts route by the tenant key
+ * ("tenant_" + lower-case code), which is resolved through a code index for tenants whose
+ * schema is named differently (e.g. the seeded DEMO tenant on demo_schema).
+ * The table is immutable and every change - a single tenant or a bulk reload - builds the next
+ * one and swaps it in with compare-and-set, so routing threads never observe a half-built map and
+ * never wait on a writer. A bulk reload keeps single-tenant changes made while it was being built.
+ */
+@Slf4j
+public class TenantRoutingTable {
+
+    public static final String MASTER_KEY = "master";
+
+    private static final String TENANT_PREFIX = "tenant_";
+
+    private final AtomicReference<Routes> routes = new AtomicReference<>(new Routes(0, Map.of(), Map.of(), Map.of()));
+
+    // Datasources by schema name, schema names by tenant key where the two differ, and the version
+    // at which each schema was last put or removed on its own
+    private record Routes(long version,
+                          Map<String, DataSource> dataSources,
+                          Map<String, String> schemaByTenantKey,
+                          Map<String, Long> changedAt) {
+
+        String resolve(String key) {
+            String schemaName = schemaByTenantKey.get(key);
+            return schemaName != null ? schemaName : key;
+        }
+    }
+
+    /**
+     * Canonical routing key of a tenant code
+     */
+    public static String tenantKey(String tenantCode) {
+        return TENANT_PREFIX + tenantCode.toLowerCase();
+    }
+
+    /**
+     * Schema name a routing key (tenant key or schema name) resolves to
+     */
+    public String resolveSchema(String key) {
+        return key == null ? null : routes.get().resolve(key);
+    }
+
+    /**
+     * Schema name of a tenant code, whether or not its schema follows the tenant_xxx convention
+     */
+    public String schemaOf(String tenantCode) {
+        return resolveSchema(tenantKey(tenantCode));
+    }
+
+    public DataSource get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Routes current = routes.get();
+        return current.dataSources().get(current.resolve(key));
+    }
+
+    public DataSource getMaster() {
+        return routes.get().dataSources().get(MASTER_KEY);
+    }
+
+    public void putMaster(DataSource dataSource) {
+        update(current -> {
+            Map<String, DataSource> dataSources = new HashMap<>(current.dataSources());
+            dataSources.put(MASTER_KEY, dataSource);
+            return new Routes(current.version() + 1, Map.copyOf(dataSources), current.schemaByTenantKey(), current.changedAt());
+        });
+    }
+
+    /**
+     * Current version of the table; pass it to {@link #replaceTenants} from before the reload read its tenants
+     */
+    public long version() {
+        return routes.get().version();
+    }
+
+    /**
+     * Register a tenant under its schema name, returning any datasource it replaced
+     */
+    public DataSource put(String schemaName, DataSource dataSource) {
+        return put(null, schemaName, dataSource);
+    }
+
+    /**
+     * Register a tenant under its schema name and make its code (if given) resolve to it,
+     * returning any datasource it replaced
+     */
+    public DataSource put(String tenantCode, String schemaName, DataSource dataSource) {
+        String tenantKey = tenantCode == null ? null : tenantKey(tenantCode);
+        Routes previous = update(current -> {
+            Map<String, DataSource> dataSources = new HashMap<>(current.dataSources());
+            dataSources.put(schemaName, dataSource);
+            Map<String, String> index = current.schemaByTenantKey();
+            if (tenantKey != null && !tenantKey.equals(schemaName)) {
+                index = new HashMap<>(index);
+                index.put(tenantKey, schemaName);
+            }
+            return changed(current, schemaName, dataSources, index);
+        });
+        return previous.dataSources().get(schemaName);
+    }
+
+    /**
+     * Unregister a schema (or the schema a tenant key resolves to), returning the datasource that was routed to it
+     */
+    public DataSource remove(String key) {
+        String schemaName = resolveSchema(key);
+        if (MASTER_KEY.equals(schemaName)) {
+            throw new IllegalArgumentException("Master datasource cannot be removed from routing");
+        }
+        Routes previous = update(current -> {
+            Map<String, DataSource> dataSources = new HashMap<>(current.dataSources());
+            dataSources.remove(schemaName);
+            Map<String, String> index = new HashMap<>(current.schemaByTenantKey());
+            index.values().removeIf(schemaName::equals);
+            return changed(current, schemaName, dataSources, index);
+        });
+        return previous.dataSources().get(schemaName);
+    }
+
+    /**
+     * Swap in a complete set of tenant entries (keyed by schema name) and their tenant codes
+     * (schema name by tenant code) in one step, keeping master. Schemas put or removed on their own
+     * after {@code sinceVersion} keep their current entry, as they are newer than the reload.
+     * Returns the entries of the previous table that are no longer routed, so the caller can close them.
+     */
+    public Map<String, DataSource> replaceTenants(Map<String, DataSource> tenants, Map<String, String> schemaByTenantCode,
+                                                  long sinceVersion) {
+        Map<String, String> reloadIndex = new HashMap<>();
+        schemaByTenantCode.forEach((tenantCode, schemaName) -> {
+            if (!tenantKey(tenantCode).equals(schemaName)) {
+                reloadIndex.put(tenantKey(tenantCode), schemaName);
+            }
+        });
+
+        AtomicReference<Routes> swapped = new AtomicReference<>();
+        Routes previous = update(current -> {
+            Map<String, DataSource> dataSources = new HashMap<>(tenants);
+            Map<String, String> index = new HashMap<>(reloadIndex);
+            current.changedAt().forEach((schemaName, changedAt) -> {
+                if (changedAt <= sinceVersion) {
+                    return;
+                }
+                DataSource live = current.dataSources().get(schemaName);
+                if (live != null) {
+                    dataSources.put(schemaName, live);
+                } else {
+                    dataSources.remove(schemaName);
+                }
+                index.values().removeIf(schemaName::equals);
+                current.schemaByTenantKey().forEach((tenantKey, indexed) -> {
+                    if (indexed.equals(schemaName)) {
+                        index.put(tenantKey, indexed);
+                    }
+                });
+            });
+            DataSource master = current.dataSources().get(MASTER_KEY);
+            if (master != null) {
+                dataSources.put(MASTER_KEY, master);
+            }
+            swapped.set(new Routes(current.version() + 1, Map.copyOf(dataSources), Map.copyOf(index), current.changedAt()));
+            return swapped.get();
+        });
+
+        // Previous entries this reload (not a later change) stopped routing
+        Map<String, DataSource> next = swapped.get().dataSources();
+        Map<String, DataSource> displaced = new HashMap<>();
+        previous.dataSources().forEach((key, dataSource) -> {
+            if (next.get(key) != dataSource) {
+                displaced.put(key, dataSource);
+            }
+        });
+
+        log.info("Swapped routing table: {} tenant entries, {} displaced", tenants.size(), displaced.size());
+        return displaced;
+    }
+
+    /**
+     * Read-only view of the current table
+     */
+    public Map<String, DataSource> snapshot() {
+        return routes.get().dataSources();
+    }
+
+    public int size() {
+        return routes.get().dataSources().size();
+    }
+
+    private Routes update(UnaryOperator<Routes> change) {
+        while (true) {
+            Routes current = routes.get();
+            if (routes.compareAndSet(current, change.apply(current))) {
+                return current;
+            }
+        }
+    }
+
+    private static Routes changed(Routes current, String schemaName, Map<String, DataSource> dataSources,
+                                  Map<String, String> index) {
+        long version = current.version() + 1;
+        Map<String, Long> changedAt = new HashMap<>(current.changedAt());
+        changedAt.put(schemaName, version);
+        return new Routes(version, Map.copyOf(dataSources), Map.copyOf(index), Map.copyOf(changedAt));
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.erp.common.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tenant schemas that must not serve traffic yet because a migration run has them queued,
+ * is migrating them, or failed on them. Schemas not listed are available; the check on the
+ * routing path is a single map lookup, and skipped entirely while nothing is blocked.
+ * Hibernated tenants stay listed here for as long as they sleep, see TenantHibernationService.
+ * Also carries the startup readiness flag: the application is ready once the master schema
+ * is migrated and the tenant migration plan is published here, not when every tenant is done.
+ */
+public class TenantSchemaAvailability {
+
+    public enum State {
+        PENDING, MIGRATING, FAILED, HIBERNATING, HIBERNATED, WAKING, RESTORING
+    }
+
+    private final Map<String, State> blocked = new ConcurrentHashMap<>();
+    private final AtomicInteger planned = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private volatile boolean startupComplete;
+
+    public boolean isAvailable(String schemaName) {
+        return blocked.isEmpty() || schemaName == null || !blocked.containsKey(schemaName);
+    }
+
+    public State getState(String schemaName) {
+        return schemaName == null ? null : blocked.get(schemaName);
+    }
+
+    /**
+     * Block the schemas of a new migration run until each one is migrated
+     */
+    public void markPending(Collection<String> schemaNames) {
+        planned.set(schemaNames.size());
+        completed.set(0);
+        schemaNames.forEach(schemaName -> blocked.put(schemaName, State.PENDING));
+    }
+
+    public void markMigrating(String schemaName) {
+        blocked.put(schemaName, State.MIGRATING);
+    }
+
+    public void markReady(String schemaName) {
+        blocked.remove(schemaName);
+        completed.incrementAndGet();
+    }
+
+    public void markFailed(String schemaName) {
+        blocked.put(schemaName, State.FAILED);
+        completed.incrementAndGet();
+    }
+
+    public void markHibernating(String schemaName) {
+        blocked.put(schemaName, State.HIBERNATING);
+    }
+
+    public void markHibernated(String schemaName) {
+        blocked.put(schemaName, State.HIBERNATED);
+    }
+
+    public void markWaking(String schemaName) {
+        blocked.put(schemaName, State.WAKING);
+    }
+
+    /**
+     * Unblock a schema that was hibernated; unlike markReady this is not counted towards a migration run
+     */
+    public void markAwake(String schemaName) {
+        blocked.remove(schemaName);
+    }
+
+    /**
+     * Block a schema while its tables are swapped for a restored backup
+     */
+    public void markRestoring(String schemaName) {
+        blocked.put(schemaName, State.RESTORING);
+    }
+
+    public void markRestored(String schemaName) {
+        blocked.remove(schemaName);
+    }
+
+    public Set<String> getHibernatedSchemas() {
+        return getSchemas(State.HIBERNATED);
+    }
+
+    public Set<String> getRestoringSchemas() {
+        return getSchemas(State.RESTORING);
+    }
+
+    private Set<String> getSchemas(State wanted) {
+        Set<String> schemas = new HashSet<>();
+        blocked.forEach((schemaName, state) -> {
+            if (state == wanted) {
+                schemas.add(schemaName);
+            }
+        });
+        return schemas;
+    }
+
+    public boolean isHibernationState(String schemaName) {
+        State state = getState(schemaName);
+        return state == State.HIBERNATING || state == State.HIBERNATED || state == State.WAKING;
+    }
+
+    public boolean isStartupComplete() {
+        return startupComplete;
+    }
+
+    public void setStartupComplete(boolean startupComplete) {
+        this.startupComplete = startupComplete;
+    }
+
+    /**
+     * Progress of the current (or last) migration run
+     */
+    public Map<String, Object> getProgress() {
+        int pending = 0;
+        int migrating = 0;
+        int hibernated = 0;
+        int restoring = 0;
+        Map<String, State> failed = new HashMap<>();
+        for (Map.Entry<String, State> entry : blocked.entrySet()) {
+            switch (entry.getValue()) {
+                case PENDING -> pending++;
+                case MIGRATING -> migrating++;
+                case FAILED -> failed.put(entry.getKey(), entry.getValue());
+                case HIBERNATING, HIBERNATED, WAKING -> hibernated++;
+                case RESTORING -> restoring++;
+            }
+        }
+
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("startupComplete", startupComplete);
+        progress.put("planned", planned.get());
+        progress.put("completed", completed.get());
+        progress.put("pending", pending);
+        progress.put("migrating", migrating);
+        progress.put("failed", failed.keySet());
+        progress.put("hibernated", hibernated);
+        progress.put("restoring", restoring);
+        return progress;
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.erp.common.context;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the tenant and routing state of the current thread.
+ * {@link TenantContext} and {@link SchemaContext} are facades over this single ThreadLocal.
+ * Aspects that override one field for the duration of a call use {@link #callWithRoutingSchema} /
+ * {@link #callWithReadOnly}, which put back only that field, so tenant changes made inside the
+ * call survive it. {@link #run} / {@link #within} install and restore a whole snapshot, for
+ * handing the context to another thread - that is one reference, not a copy of each field.
+ */
+public record ExecutionContext(Long tenantId, String tenantCode, String tenantSchema,
+                               String routingSchema, Boolean readOnly) {
+
+    public static final ExecutionContext EMPTY = new ExecutionContext(null, null, null, null, null);
+
+    private static final ThreadLocal<ExecutionContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Action run inside a scope, allowed to throw anything (e.g. ProceedingJoinPoint::proceed)
+     */
+    @FunctionalInterface
+    public interface ScopedAction<T> {
+        T call() throws Throwable;
+    }
+
+    public static ExecutionContext current() {
+        ExecutionContext context = CURRENT.get();
+        return context != null ? context : EMPTY;
+    }
+
+    /**
+     * Replace the snapshot of the current thread; an empty snapshot removes the ThreadLocal entry
+     */
+    static void set(ExecutionContext context) {
+        if (context == null || context.isEmpty()) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public boolean isEmpty() {
+        return EMPTY.equals(this);
+    }
+
+    public ExecutionContext withTenant(Long tenantId, String tenantCode, String tenantSchema) {
+        return new ExecutionContext(tenantId, tenantCode, tenantSchema, routingSchema, readOnly);
+    }
+
+    public ExecutionContext withTenantSchema(String tenantSchema) {
+        return new ExecutionContext(tenantId, tenantCode, tenantSchema, routingSchema, readOnly);
+    }
+
+    public ExecutionContext withRoutingSchema(String routingSchema) {
+        return new ExecutionContext(tenantId, tenantCode, tenantSchema, routingSchema, readOnly);
+    }
+
+    public ExecutionContext withReadOnly(Boolean readOnly) {
+        return new ExecutionContext(tenantId, tenantCode, tenantSchema, routingSchema, readOnly);
+    }
+
+    /**
+     * Run the task with this snapshot as the current context, restoring the previous one afterwards
+     */
+    public void run(Runnable task) {
+        ExecutionContext previous = CURRENT.get();
+        set(this);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Call the action with this snapshot as the current context, restoring the previous one afterwards
+     */
+    public <T> T within(ScopedAction<T> action) throws Throwable {
+        ExecutionContext previous = CURRENT.get();
+        set(this);
+        try {
+            return action.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Call the action with the given routing schema, putting back only the previous routing schema afterwards
+     */
+    public static <T> T callWithRoutingSchema(String routingSchema, ScopedAction<T> action) throws Throwable {
+        String previous = current().routingSchema();
+        set(current().withRoutingSchema(routingSchema));
+        try {
+            return action.call();
+        } finally {
+            set(current().withRoutingSchema(previous));
+        }
+    }
+
+    /**
+     * Call the action with the given read-only flag, putting back only the previous flag afterwards
+     */
+    public static <T> T callWithReadOnly(Boolean readOnly, ScopedAction<T> action) throws Throwable {
+        Boolean previous = current().readOnly();
+        set(current().withReadOnly(readOnly));
+        try {
+            return action.call();
+        } finally {
+            set(current().withReadOnly(previous));
+        }
+    }
+
+    private static void restore(ExecutionContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionContext[tenant=" + tenantCode + ", tenantSchema=" + tenantSchema
+                + ", routing=" + routingSchema + ", readOnly=" + Objects.toString(readOnly, "-") + "]";
+    }
+
+}
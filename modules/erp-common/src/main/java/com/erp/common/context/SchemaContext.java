@@ -1,33 +1,47 @@
 package com.erp.common.context;
 
+/**
+ * Routing part of the {@link ExecutionContext} of the current thread
+ */
 public class SchemaContext {
 
-    private static final ThreadLocal<String> currentSchema = new ThreadLocal<>();
-
     public static void setSchema(String schema) {
-        currentSchema.set(schema);
+        ExecutionContext.set(ExecutionContext.current().withRoutingSchema(schema));
     }
 
     public static String getCurrentSchema() {
-        return currentSchema.get();
+        return ExecutionContext.current().routingSchema();
     }
 
     public static void clear() {
-        currentSchema.remove();
+        ExecutionContext.set(ExecutionContext.current().withRoutingSchema(null).withReadOnly(null));
     }
 
     public static boolean hasForcedSchema() {
-        return currentSchema.get() != null;
+        return getCurrentSchema() != null;
+    }
+
+    // Read-only transactions may be routed to a tenant replica
+    public static void setReadOnly(Boolean value) {
+        ExecutionContext.set(ExecutionContext.current().withReadOnly(value));
+    }
+
+    public static Boolean getReadOnly() {
+        return ExecutionContext.current().readOnly();
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(getReadOnly());
     }
 
     // Force use master schema for user management operations
     public static void useMasterSchema() {
-        currentSchema.set("master");
+        setSchema("master");
     }
 
     // Force use tenant schema for business operations
     public static void useTenantSchema() {
-        currentSchema.set("tenant");
+        setSchema("tenant");
     }
 
 }
@@ -2,13 +2,12 @@ package com.erp.common.context;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Tenant part of the {@link ExecutionContext} of the current thread
+ */
 @Slf4j
 public class TenantContext {
 
-    private static final ThreadLocal<String> currentTenant = new ThreadLocal<>();
-    private static final ThreadLocal<Long> currentTenantId = new ThreadLocal<>();
-    private static final ThreadLocal<String> currentSchema = new ThreadLocal<>();
-
     /**
      * Set complete tenant context (used when JWT has all tenant info)
      */
@@ -18,25 +17,23 @@ public class TenantContext {
             tenantCode = tenantCode.substring(7).toUpperCase(); // Remove "tenant_" and uppercase
         }
 
-        currentTenantId.set(tenantId);
-        currentTenant.set(tenantCode);
-
         // Derive schema from tenant code if not provided
-        if (schemaName != null) {
-            currentSchema.set(schemaName);
-        } else if (tenantCode != null) {
-            currentSchema.set("tenant_" + tenantCode.toLowerCase());
+        String schema = schemaName;
+        if (schema == null) {
+            schema = tenantCode != null ? "tenant_" + tenantCode.toLowerCase() : ExecutionContext.current().tenantSchema();
         }
 
+        ExecutionContext.set(ExecutionContext.current().withTenant(tenantId, tenantCode, schema));
+
         log.debug("Set tenant context - ID: {}, Code: {}, Schema: {}",
-                tenantId, tenantCode, currentSchema.get());
+                tenantId, tenantCode, schema);
     }
 
     /**
      * Set schema directly (used by routing)
      */
     public static void setCurrentSchema(String schema) {
-        currentSchema.set(schema);
+        ExecutionContext.set(ExecutionContext.current().withTenantSchema(schema));
         log.debug("Set schema: {}", schema);
     }
 
@@ -44,30 +41,28 @@ public class TenantContext {
      * Get current tenant code
      */
     public static String getCurrentTenant() {
-        return currentTenant.get();
+        return ExecutionContext.current().tenantCode();
     }
 
     /**
      * Get current tenant ID
      */
     public static Long getCurrentTenantId() {
-        return currentTenantId.get();
+        return ExecutionContext.current().tenantId();
     }
 
     /**
      * Get current schema for datasource routing
      */
     public static String getCurrentSchema() {
-        return currentSchema.get();
+        return ExecutionContext.current().tenantSchema();
     }
 
     /**
      * Clear all context
      */
     public static void clear() {
-        currentTenantId.remove();
-        currentTenant.remove();
-        currentSchema.remove();
+        ExecutionContext.set(ExecutionContext.current().withTenant(null, null, null));
         log.debug("Cleared tenant context");
     }
 
@@ -75,14 +70,14 @@ public class TenantContext {
      * Check if running in master context
      */
     public static boolean isMasterContext() {
-        return "master".equals(currentSchema.get());
+        return "master".equals(getCurrentSchema());
     }
 
     /**
      * Check if running in tenant context
      */
     public static boolean isTenantContext() {
-        String schema = currentSchema.get();
+        String schema = getCurrentSchema();
         return schema != null && schema.startsWith("tenant_");
     }
 
@@ -90,7 +85,7 @@ public class TenantContext {
      * Check if we have a tenant context
      */
     public static boolean hasTenantContext() {
-        return currentTenant.get() != null;
+        return getCurrentTenant() != null;
     }
 
     /**
@@ -0,0 +1,15 @@
+package com.erp.common.dto.tenant;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCreateTenantRequest {
+
+    @NotEmpty(message = "At least one tenant is required")
+    private List<@Valid CreateTenantRequest> tenants;
+
+}
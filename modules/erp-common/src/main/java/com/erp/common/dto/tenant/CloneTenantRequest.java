@@ -0,0 +1,16 @@
+package com.erp.common.dto.tenant;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * A new (sandbox) tenant created as a copy of an existing tenant's data
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class CloneTenantRequest extends CreateTenantRequest {
+
+    // Replace Aadhaar numbers, phone numbers and email addresses while copying
+    private boolean anonymize = true;
+
+}
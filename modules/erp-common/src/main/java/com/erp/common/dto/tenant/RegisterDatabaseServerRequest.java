@@ -0,0 +1,23 @@
+package com.erp.common.dto.tenant;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class RegisterDatabaseServerRequest {
+
+    @NotBlank(message = "Server name is required")
+    @Size(max = 100, message = "Server name must not exceed 100 characters")
+    private String serverName;
+
+    @NotBlank(message = "JDBC URL is required")
+    @Pattern(regexp = "^jdbc:mysql://.+", message = "JDBC URL must start with jdbc:mysql://")
+    private String jdbcUrl;
+
+    @Min(value = 1, message = "Max tenants must be positive")
+    private Integer maxTenants; // null = unlimited
+
+}
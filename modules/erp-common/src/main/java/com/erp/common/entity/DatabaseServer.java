@@ -0,0 +1,28 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * MySQL server that can host tenant schemas, referenced by tenants.database_url
+ */
+@Entity
+@Table(name = "database_servers")
+@Getter
+@Setter
+public class DatabaseServer extends BaseEntity {
+
+    @Column(name = "server_name", nullable = false, unique = true)
+    private String serverName;
+
+    // Base JDBC URL without schema, e.g. jdbc:mysql://db2:3306/
+    @Column(name = "jdbc_url", nullable = false, unique = true)
+    private String jdbcUrl;
+
+    @Column(name = "max_tenants")
+    private Integer maxTenants;
+
+    @Column(name = "accepting_tenants")
+    private Boolean acceptingTenants = true;
+}
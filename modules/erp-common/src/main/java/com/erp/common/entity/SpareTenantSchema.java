@@ -0,0 +1,54 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Migrated and seeded schema kept ready to be bound to the next new tenant
+ */
+@Entity
+@Table(name = "spare_tenant_schemas")
+@Getter
+@Setter
+public class SpareTenantSchema {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schema_name", nullable = false, unique = true, length = 50)
+    private String schemaName;
+
+    // NULL = primary server
+    @Column(name = "server_url")
+    private String serverUrl;
+
+    @Column(name = "migration_checksum", nullable = false)
+    private Long migrationChecksum;
+
+    @Column(name = "seed_year", nullable = false)
+    private Integer seedYear;
+
+    @Column(name = "seed_version", nullable = false)
+    private Integer seedVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    public enum Status {
+        READY, CLAIMED, DROPPING
+    }
+}
@@ -40,7 +40,26 @@ public class Tenant extends BaseEntity {
     @Column(name = "subscription_end_date")
     private LocalDateTime subscriptionEndDate;
 
+    @Column(name = "last_active_at")
+    private LocalDateTime lastActiveAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "hibernation_state", nullable = false)
+    private HibernationState hibernationState = HibernationState.AWAKE;
+
+    @Column(name = "hibernated_at")
+    private LocalDateTime hibernatedAt;
+
+    // Compressed dump of the dropped schema, null when the schema was kept
+    @Column(name = "archive_path", length = 500)
+    private String archivePath;
+
     public enum TenantStatus {
         ACTIVE, INACTIVE, SUSPENDED
     }
+
+    // RESTORING: tables being swapped for a restored backup, see TenantBackupService
+    public enum HibernationState {
+        AWAKE, HIBERNATING, HIBERNATED, WAKING, RESTORING
+    }
 }
@@ -0,0 +1,47 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fleet-wide tenant migration run, see TenantMigrationOrchestrator
+ */
+@Entity
+@Table(name = "tenant_migration_runs")
+@Getter
+@Setter
+public class TenantMigrationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, unique = true, length = 36)
+    private String runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RunStatus status;
+
+    @Column(name = "total_schemas")
+    private Integer totalSchemas;
+
+    @Column(name = "succeeded")
+    private Integer succeeded;
+
+    @Column(name = "failed")
+    private Integer failed;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, COMPLETED_WITH_FAILURES
+    }
+}
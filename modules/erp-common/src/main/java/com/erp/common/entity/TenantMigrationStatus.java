@@ -0,0 +1,53 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of migrating one tenant schema within a {@link TenantMigrationRun}
+ */
+@Entity
+@Table(name = "tenant_migration_status")
+@Getter
+@Setter
+public class TenantMigrationStatus {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "schema_name", nullable = false, length = 50)
+    private String schemaName;
+
+    @Column(name = "server_url")
+    private String serverUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "migrations_executed")
+    private Integer migrationsExecuted;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING, SUCCEEDED, FAILED
+    }
+}
@@ -0,0 +1,53 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one tenant within a {@link TenantOnboardingJob}
+ */
+@Entity
+@Table(name = "tenant_onboarding_items")
+@Getter
+@Setter
+public class TenantOnboardingItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Column(name = "tenant_code", nullable = false, length = 20)
+    private String tenantCode;
+
+    @Column(name = "tenant_name", length = 100)
+    private String tenantName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ItemStatus status;
+
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum ItemStatus {
+        PENDING, PROVISIONING, SUCCEEDED, FAILED
+    }
+}
@@ -0,0 +1,54 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bulk tenant onboarding request, see TenantOnboardingService
+ */
+@Entity
+@Table(name = "tenant_onboarding_jobs")
+@Getter
+@Setter
+public class TenantOnboardingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false, unique = true, length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private JobStatus status;
+
+    @Column(name = "total_tenants")
+    private Integer totalTenants;
+
+    @Column(name = "succeeded")
+    private Integer succeeded;
+
+    @Column(name = "failed")
+    private Integer failed;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Last sign of life from the instance running the job
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public enum JobStatus {
+        RUNNING, COMPLETED, COMPLETED_WITH_FAILURES
+    }
+}
@@ -0,0 +1,33 @@
+package com.erp.common.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entry: tenant migration version and checksum last applied to a tenant schema
+ */
+@Entity
+@Table(name = "tenant_schema_versions")
+@Getter
+@Setter
+public class TenantSchemaVersion {
+
+    @Id
+    @Column(name = "schema_name", length = 50)
+    private String schemaName;
+
+    @Column(name = "server_url")
+    private String serverUrl;
+
+    @Column(name = "applied_version", nullable = false, length = 50)
+    private String appliedVersion;
+
+    @Column(name = "applied_checksum", nullable = false)
+    private Long appliedChecksum;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.erp.common.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown by the routing datasource when the tenant's schema is still being migrated
+ * (or its migration failed, or the tenant is hibernated); mapped to 503 with a Retry-After header.
+ */
+@Getter
+public class TenantSchemaUnavailableException extends RuntimeException {
+
+    private final String schemaName;
+    private final long retryAfterSeconds;
+
+    public TenantSchemaUnavailableException(String schemaName, long retryAfterSeconds) {
+        super("Tenant schema " + schemaName + " is being migrated");
+        this.schemaName = schemaName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.erp.common.filter;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.TenantSchemaAvailability;
+import com.erp.common.context.TenantContext;
+import com.erp.common.dto.ApiResponse;
+import com.erp.common.service.TenantAdmissionService;
+import com.erp.common.service.TenantHibernationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the per-tenant bulkhead. Must run after JwtAuthenticationFilter has set TenantContext;
+ * requests without a tenant (super admin, login, public endpoints) are not limited.
+ * Requests for a tenant whose schema is still migrating are turned away here, before they
+ * take an admission slot, rather than failing later when they first need a connection;
+ * a request for a hibernated tenant starts waking it. Admitted requests count as tenant activity.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantAdmissionFilter extends OncePerRequestFilter {
+
+    private final TenantAdmissionService admissionService;
+    private final ObjectMapper objectMapper;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantHibernationService hibernationService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String tenantCode = TenantContext.getCurrentTenant();
+        if (tenantCode == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+        String schemaName = dataSourceConfig.getTenantSchemaName(tenantCode);
+        if (availability.isHibernationState(schemaName)) {
+            // First request after a long sleep - wake the tenant and tell the caller how far along it is
+            Map<String, Object> progress = hibernationService.wake(tenantCode);
+            log.debug("Rejected {} {} for tenant {} - waking from hibernation: {}",
+                    request.getMethod(), request.getRequestURI(), tenantCode, progress);
+            write(response, hibernationService.getWakeRetryAfterSeconds(),
+                    "School data is being restored after a period of inactivity. Please retry shortly.",
+                    "TENANT_WAKING", progress);
+            return;
+        }
+
+        if (availability.getState(schemaName) == TenantSchemaAvailability.State.RESTORING) {
+            log.debug("Rejected {} {} for tenant {} - restore from backup in progress",
+                    request.getMethod(), request.getRequestURI(), tenantCode);
+            write(response, dataSourceConfig.getMigrationRetryAfterSeconds(),
+                    "School data is being restored from a backup. Please retry shortly.", "TENANT_RESTORING");
+            return;
+        }
+
+        if (!availability.isAvailable(schemaName)) {
+            log.debug("Rejected {} {} for tenant {} - schema migration in progress",
+                    request.getMethod(), request.getRequestURI(), tenantCode);
+            write(response, dataSourceConfig.getMigrationRetryAfterSeconds(),
+                    "Tenant data is being upgraded. Please retry shortly.", "TENANT_MIGRATING");
+            return;
+        }
+
+        hibernationService.recordActivity(tenantCode);
+
+        if (!admissionService.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean admitted;
+        try {
+            admitted = admissionService.tryAcquire(tenantCode);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            log.warn("Rejected {} {} for tenant {} - concurrency limit reached",
+                    request.getMethod(), request.getRequestURI(), tenantCode);
+            write(response, 1, "Too many concurrent requests for this tenant. Please retry shortly.", "TENANT_BUSY");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionService.release(tenantCode);
+        }
+    }
+
+    private void write(HttpServletResponse response, long retryAfterSeconds, String message, String errorCode)
+            throws IOException {
+        write(response, retryAfterSeconds, message, errorCode, null);
+    }
+
+    private void write(HttpServletResponse response, long retryAfterSeconds, String message, String errorCode,
+                       Object data) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ApiResponse<Object> errorResponse = ApiResponse.error(message, errorCode);
+        errorResponse.setData(data);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+}
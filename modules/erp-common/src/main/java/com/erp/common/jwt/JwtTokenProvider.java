@@ -1,6 +1,8 @@
 package com.erp.common.jwt;
 
 import com.erp.common.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -8,11 +10,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -22,14 +26,32 @@ public class JwtTokenProvider {
     private final long accessTokenValidityMs;
     private final long refreshTokenValidityMs;
 
+    // Immutable and thread-safe, so built once instead of per token
+    private final JwtParser parser;
+
+    // Signature -> verified claims; null when disabled
+    private final Cache<String, CachedToken> verifiedTokens;
+
+    private record CachedToken(String signedContent, VerifiedToken token) {
+    }
+
     public JwtTokenProvider(
             @Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.access-token-validity:900000}") long accessTokenValidityMs, // 15 minutes
-            @Value("${app.jwt.refresh-token-validity:86400000}") long refreshTokenValidityMs // 24 hours
+            @Value("${app.jwt.refresh-token-validity:86400000}") long refreshTokenValidityMs, // 24 hours
+            @Value("${app.jwt.verified-cache.ttl-ms:30000}") long verifiedCacheTtlMs, // 0 = verify every request
+            @Value("${app.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize
     ) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
         this.accessTokenValidityMs = accessTokenValidityMs;
         this.refreshTokenValidityMs = refreshTokenValidityMs;
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.verifiedTokens = verifiedCacheTtlMs > 0
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(Duration.ofMillis(verifiedCacheTtlMs))
+                        .maximumSize(verifiedCacheMaxSize)
+                        .build()
+                : null;
     }
 
     public String generateAccessToken(UserPrincipal userPrincipal) {
@@ -93,6 +115,35 @@ public class JwtTokenProvider {
         return claims.get("tokenType", String.class);
     }
 
+    /**
+     * Check the token's signature and expiry once and return all of its claims
+     * @return empty if the token is invalid or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        String signature = signatureStart >= 0 ? token.substring(signatureStart + 1) : null;
+
+        if (verifiedTokens != null && signature != null && !signature.isEmpty()) {
+            CachedToken cached = verifiedTokens.getIfPresent(signature);
+            // The signature alone is only a lookup key; the signed content must match too
+            if (cached != null && cached.signedContent().length() == signatureStart
+                    && token.startsWith(cached.signedContent())) {
+                return cached.token().isExpired(Instant.now()) ? Optional.empty() : Optional.of(cached.token());
+            }
+        }
+
+        try {
+            VerifiedToken verified = VerifiedToken.from(getClaimsFromToken(token));
+            if (verifiedTokens != null && signature != null && !signature.isEmpty()) {
+                verifiedTokens.put(signature, new CachedToken(token.substring(0, signatureStart), verified));
+            }
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public boolean validateToken(String token) {
         try {
             getClaimsFromToken(token);
@@ -113,11 +164,7 @@ public class JwtTokenProvider {
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public long getAccessTokenValidityMs() {
@@ -0,0 +1,51 @@
+package com.erp.common.jwt;
+
+import com.erp.common.entity.User;
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiry have been checked, see {@link JwtTokenProvider#verify}
+ */
+public record VerifiedToken(Long userId,
+                            String username,
+                            String email,
+                            User.UserType userType,
+                            Long tenantId,
+                            String tenantCode,
+                            String tokenType,
+                            Instant issuedAt,
+                            Instant expiresAt) {
+
+    static VerifiedToken from(Claims claims) {
+        String userType = claims.get("userType", String.class);
+        if (userType == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            throw new IllegalArgumentException("Token is missing required claims");
+        }
+        return new VerifiedToken(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("email", String.class),
+                User.UserType.valueOf(userType),
+                claims.get("tenantId", Long.class),
+                claims.get("tenantCode", String.class),
+                claims.get("tokenType", String.class),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    /**
+     * Principal carried by the token, without a password and enabled as of when the token was
+     * issued - changes made since are caught by revoking the user's tokens
+     */
+    public UserPrincipal toUserPrincipal() {
+        return new UserPrincipal(userId, username, email, null, userType, tenantId, tenantCode, true, true);
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.erp.common.monitoring;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resizes tenant pools from live Hikari telemetry: pools with waiting threads grow,
+ * pools that stay under-used for several samples shrink. All growth is taken from
+ * the global tenant connection budget, so the cap across tenants always holds; a shrink
+ * gives its connections back on a later tick, once Hikari has closed them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptivePoolSizer {
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+
+    // Consecutive under-used samples per pool
+    private final Map<String, Integer> idleSamples = new ConcurrentHashMap<>();
+
+    @Value("${app.datasource.pool-sizing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.datasource.tenant-pool.min-size:1}")
+    private int minPoolSize;
+
+    @Value("${app.datasource.tenant-pool.max-size:20}")
+    private int maxPoolSize;
+
+    @Value("${app.datasource.pool-sizing.grow-step:2}")
+    private int growStep;
+
+    @Value("${app.datasource.pool-sizing.shrink-after-samples:12}")
+    private int shrinkAfterSamples;
+
+    @Scheduled(fixedDelayString = "${app.datasource.pool-sizing.interval-ms:5000}")
+    public void resizePools() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            dataSourceConfig.releaseRetiredConnections();
+            List<HikariDataSource> pools = dataSourceConfig.getLiveTenantPools();
+            Set<String> seen = new HashSet<>();
+
+            for (HikariDataSource pool : pools) {
+                seen.add(pool.getPoolName());
+                resize(pool);
+            }
+
+            // Forget pools that were closed since the last sample
+            idleSamples.keySet().retainAll(seen);
+        } catch (Exception e) {
+            log.error("Adaptive pool sizing failed", e);
+        }
+    }
+
+    private void resize(HikariDataSource pool) {
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        if (stats == null) {
+            return;
+        }
+
+        String poolName = pool.getPoolName();
+        int current = pool.getMaximumPoolSize();
+        int active = stats.getActiveConnections();
+        int waiting = stats.getThreadsAwaitingConnection();
+
+        if (waiting > 0) {
+            idleSamples.remove(poolName);
+            if (current < maxPoolSize) {
+                int requested = Math.min(maxPoolSize, current + Math.max(growStep, waiting));
+                int applied = dataSourceConfig.resizeTenantPool(pool, requested);
+                if (applied > current) {
+                    log.info("Pool [{}] grown {} -> {} ({} threads waiting)", poolName, current, applied, waiting);
+                } else {
+                    log.warn("Pool [{}] has {} threads waiting but the tenant connection budget is exhausted",
+                            poolName, waiting);
+                }
+            }
+            return;
+        }
+
+        // Under-used: fewer than half of the connections borrowed
+        if (current > minPoolSize && active * 2 < current) {
+            int samples = idleSamples.merge(poolName, 1, Integer::sum);
+            if (samples >= shrinkAfterSamples) {
+                int target = Math.max(minPoolSize, Math.max(active + 1, current - 1));
+                if (target < current) {
+                    dataSourceConfig.resizeTenantPool(pool, target);
+                    log.debug("Pool [{}] shrunk {} -> {} (active {})", poolName, current, target, active);
+                }
+                idleSamples.remove(poolName);
+            }
+        } else {
+            idleSamples.remove(poolName);
+        }
+    }
+
+}
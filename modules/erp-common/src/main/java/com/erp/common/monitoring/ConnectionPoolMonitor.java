@@ -1,6 +1,7 @@
 package com.erp.common.monitoring;
 
 import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.SharedTenantConnectionPool;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.RequiredArgsConstructor;
@@ -19,25 +20,30 @@ public class ConnectionPoolMonitor {
 
     @Scheduled(fixedRate = 300000) // Every 5 minutes
     public void monitorConnectionPools() {
-        Map<Object, Object> dataSources = dataSourceConfig.getDataSources();
-
-        for (Map.Entry<Object, Object> entry : dataSources.entrySet()) {
-            if (entry.getValue() instanceof HikariDataSource) {
-                HikariDataSource ds = (HikariDataSource) entry.getValue();
-                HikariPoolMXBean pool = ds.getHikariPoolMXBean();
-
-                int active = pool.getActiveConnections();
-                int idle = pool.getIdleConnections();
-                int waiting = pool.getThreadsAwaitingConnection();
-
-                if (waiting > 0) {
-                    log.warn("Pool [{}]: {} threads waiting for connection! Active={}, Idle={}",
-                            entry.getKey(), waiting, active, idle);
-                } else {
-                    log.debug("Pool [{}]: Active={}, Idle={}, Total={}",
-                            entry.getKey(), active, idle, active + idle);
-                }
+        Map<String, HikariDataSource> pools = dataSourceConfig.getLivePools();
+
+        for (Map.Entry<String, HikariDataSource> entry : pools.entrySet()) {
+            HikariPoolMXBean pool = entry.getValue().getHikariPoolMXBean();
+
+            int active = pool.getActiveConnections();
+            int idle = pool.getIdleConnections();
+            int waiting = pool.getThreadsAwaitingConnection();
+
+            if (waiting > 0) {
+                log.warn("Pool [{}]: {} threads waiting for connection! Active={}, Idle={}",
+                        entry.getKey(), waiting, active, idle);
+            } else {
+                log.debug("Pool [{}]: Active={}, Idle={}, Total={}",
+                        entry.getKey(), active, idle, active + idle);
             }
         }
+
+        SharedTenantConnectionPool sharedPool = dataSourceConfig.getSharedPool();
+        if (sharedPool != null) {
+            HikariPoolMXBean pool = sharedPool.getPool().getHikariPoolMXBean();
+            log.debug("Shared tenant pool: Active={}, Idle={}, Waiting={}, Tenants={}",
+                    pool.getActiveConnections(), pool.getIdleConnections(),
+                    pool.getThreadsAwaitingConnection(), sharedPool.getUsageSnapshot().size());
+        }
     }
 }
\ No newline at end of file
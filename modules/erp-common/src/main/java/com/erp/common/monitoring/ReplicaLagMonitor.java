@@ -0,0 +1,54 @@
+package com.erp.common.monitoring;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.ReplicaRoutingPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkReplicaLag() {
+        ReplicaRoutingPolicy replicaPolicy = dataSourceConfig.getReplicaPolicy();
+        if (replicaPolicy == null) {
+            return;
+        }
+
+        replicaPolicy.updateLag(readReplicaLag());
+        replicaPolicy.purgeExpiredWrites();
+    }
+
+    /**
+     * Seconds_Behind_Source of the replica, or -1 if it is unreachable or not replicating
+     */
+    private long readReplicaLag() {
+        try (Connection connection = dataSourceConfig.getReplicaMonitorDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+
+            if (!rs.next()) {
+                log.warn("Configured replica reports no replication status");
+                return -1;
+            }
+
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? -1 : lag;
+
+        } catch (Exception e) {
+            log.warn("Failed to read replica lag: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+}
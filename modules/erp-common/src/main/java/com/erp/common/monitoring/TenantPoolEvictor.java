@@ -0,0 +1,25 @@
+package com.erp.common.monitoring;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantPoolEvictor {
+
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+
+    // Close tenant pools that have been idle past app.datasource.tenant-pool.idle-ttl-ms
+    @Scheduled(fixedDelayString = "${app.datasource.tenant-pool.eviction-interval-ms:60000}")
+    public void evictIdleTenantPools() {
+        try {
+            dataSourceConfig.evictIdlePools();
+        } catch (Exception e) {
+            log.error("Error evicting idle tenant pools", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.DatabaseServer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DatabaseServerRepository extends JpaRepository<DatabaseServer, Long> {
+
+    @Query(value = "SELECT * FROM erp_master.database_servers WHERE id = :id", nativeQuery = true)
+    Optional<DatabaseServer> findById(@Param("id") Long id);
+
+    @Query(value = "SELECT * FROM erp_master.database_servers WHERE is_active = true ORDER BY id", nativeQuery = true)
+    List<DatabaseServer> findByIsActiveTrue();
+
+    @Query(value = """
+            SELECT * FROM erp_master.database_servers
+            WHERE is_active = true AND accepting_tenants = true
+            ORDER BY id
+            """, nativeQuery = true)
+    List<DatabaseServer> findAcceptingTenants();
+
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM erp_master.database_servers WHERE jdbc_url = :jdbcUrl OR server_name = :serverName)", nativeQuery = true)
+    long existsByJdbcUrlOrServerName(@Param("jdbcUrl") String jdbcUrl, @Param("serverName") String serverName);
+
+    @Query(value = "SELECT COUNT(*) FROM erp_master.tenants WHERE database_url = :jdbcUrl AND is_active = true", nativeQuery = true)
+    long countActiveTenantsOnServer(@Param("jdbcUrl") String jdbcUrl);
+
+    @Query(value = "SELECT COUNT(*) FROM erp_master.tenants WHERE database_url IS NULL AND is_active = true", nativeQuery = true)
+    long countActiveTenantsOnPrimary();
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.database_servers
+            (server_name, jdbc_url, max_tenants, accepting_tenants, is_active, created_at, created_by, updated_at, updated_by)
+            VALUES (:serverName, :jdbcUrl, :maxTenants, true, true, :createdAt, :createdBy, :createdAt, :createdBy)
+            """, nativeQuery = true)
+    int insertServer(@Param("serverName") String serverName, @Param("jdbcUrl") String jdbcUrl,
+                     @Param("maxTenants") Integer maxTenants, @Param("createdAt") LocalDateTime createdAt,
+                     @Param("createdBy") Long createdBy);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.database_servers
+            SET accepting_tenants = :accepting,
+                updated_at = :updatedAt,
+                updated_by = :updatedBy
+            WHERE id = :id
+            """, nativeQuery = true)
+    int updateAcceptingTenants(@Param("id") Long id, @Param("accepting") Boolean accepting,
+                               @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedBy") Long updatedBy);
+
+}
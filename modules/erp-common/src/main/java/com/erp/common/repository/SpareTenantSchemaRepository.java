@@ -0,0 +1,85 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.SpareTenantSchema;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SpareTenantSchemaRepository extends JpaRepository<SpareTenantSchema, Long> {
+
+    @Query(value = "SELECT COUNT(*) FROM erp_master.spare_tenant_schemas WHERE status = 'READY'", nativeQuery = true)
+    long countReady();
+
+    @Query(value = """
+            SELECT * FROM erp_master.spare_tenant_schemas
+            WHERE status = 'READY' AND (migration_checksum <> :checksum OR seed_year <> :seedYear OR seed_version <> :seedVersion)
+            """, nativeQuery = true)
+    List<SpareTenantSchema> findStale(@Param("checksum") long checksum, @Param("seedYear") int seedYear,
+                                      @Param("seedVersion") int seedVersion);
+
+    // Claims whose binding never finished and drops that never finished
+    @Query(value = "SELECT * FROM erp_master.spare_tenant_schemas WHERE status IN ('CLAIMED', 'DROPPING') AND claimed_at < :before", nativeQuery = true)
+    List<SpareTenantSchema> findAbandonedClaims(@Param("before") LocalDateTime before);
+
+    @Query(value = "SELECT * FROM erp_master.spare_tenant_schemas WHERE claim_token = :claimToken", nativeQuery = true)
+    Optional<SpareTenantSchema> findByClaimToken(@Param("claimToken") String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.spare_tenant_schemas (schema_name, server_url, migration_checksum, seed_year, seed_version, status, created_at)
+            VALUES (:schemaName, :serverUrl, :checksum, :seedYear, :seedVersion, 'READY', :createdAt)
+            """, nativeQuery = true)
+    int insertSpare(@Param("schemaName") String schemaName, @Param("serverUrl") String serverUrl,
+                    @Param("checksum") long checksum, @Param("seedYear") int seedYear,
+                    @Param("seedVersion") int seedVersion, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Atomically claim one current spare on the server; at most one caller gets each row.
+     * Commits on its own so the claim holds (and its row lock is released) even if the caller's
+     * transaction later rolls back - the spare's tables are moved outside any transaction.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.spare_tenant_schemas
+            SET status = 'CLAIMED', claim_token = :claimToken, claimed_at = :claimedAt
+            WHERE status = 'READY' AND server_url <=> :serverUrl
+              AND migration_checksum = :checksum AND seed_year = :seedYear AND seed_version = :seedVersion
+            ORDER BY id
+            LIMIT 1
+            """, nativeQuery = true)
+    int claimOne(@Param("serverUrl") String serverUrl, @Param("checksum") long checksum,
+                 @Param("seedYear") int seedYear, @Param("seedVersion") int seedVersion,
+                 @Param("claimToken") String claimToken,
+                 @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Claim the spare for dropping if the row is still as it was read; only the caller that gets 1
+     * may drop the schema
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.spare_tenant_schemas
+            SET status = 'DROPPING', claimed_at = :now
+            WHERE id = :id AND status = :status AND claimed_at <=> :claimedAt
+            """, nativeQuery = true)
+    int claimForDrop(@Param("id") Long id, @Param("status") String status,
+                     @Param("claimedAt") LocalDateTime claimedAt, @Param("now") LocalDateTime now);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "DELETE FROM erp_master.spare_tenant_schemas WHERE id = :id", nativeQuery = true)
+    int deleteSpare(@Param("id") Long id);
+
+}
@@ -0,0 +1,45 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.TenantMigrationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TenantMigrationRunRepository extends JpaRepository<TenantMigrationRun, Long> {
+
+    @Query(value = "SELECT * FROM erp_master.tenant_migration_runs WHERE status = 'RUNNING' ORDER BY started_at DESC LIMIT 1", nativeQuery = true)
+    Optional<TenantMigrationRun> findUnfinishedRun();
+
+    @Query(value = "SELECT * FROM erp_master.tenant_migration_runs ORDER BY started_at DESC LIMIT :limit", nativeQuery = true)
+    List<TenantMigrationRun> findRecentRuns(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.tenant_migration_runs (run_id, status, total_schemas, succeeded, failed, started_at)
+            VALUES (:runId, 'RUNNING', :totalSchemas, 0, 0, :startedAt)
+            """, nativeQuery = true)
+    int insertRun(@Param("runId") String runId, @Param("totalSchemas") int totalSchemas,
+                  @Param("startedAt") LocalDateTime startedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_migration_runs
+            SET status = :status, total_schemas = :totalSchemas, succeeded = :succeeded, failed = :failed,
+                finished_at = :finishedAt
+            WHERE run_id = :runId
+            """, nativeQuery = true)
+    int finishRun(@Param("runId") String runId, @Param("status") String status,
+                  @Param("totalSchemas") int totalSchemas, @Param("succeeded") int succeeded,
+                  @Param("failed") int failed, @Param("finishedAt") LocalDateTime finishedAt);
+
+}
@@ -0,0 +1,47 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.TenantMigrationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TenantMigrationStatusRepository extends JpaRepository<TenantMigrationStatus, Long> {
+
+    @Query(value = "SELECT * FROM erp_master.tenant_migration_status WHERE run_id = :runId ORDER BY schema_name", nativeQuery = true)
+    List<TenantMigrationStatus> findByRunId(@Param("runId") String runId);
+
+    @Query(value = "SELECT schema_name FROM erp_master.tenant_migration_status WHERE run_id = :runId AND status = 'SUCCEEDED'", nativeQuery = true)
+    List<String> findSucceededSchemas(@Param("runId") String runId);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.tenant_migration_status (run_id, schema_name, server_url, status, started_at)
+            VALUES (:runId, :schemaName, :serverUrl, 'RUNNING', :startedAt)
+            ON DUPLICATE KEY UPDATE status = 'RUNNING', server_url = :serverUrl, started_at = :startedAt,
+                                    finished_at = NULL, duration_ms = NULL, error_message = NULL
+            """, nativeQuery = true)
+    int markRunning(@Param("runId") String runId, @Param("schemaName") String schemaName,
+                    @Param("serverUrl") String serverUrl, @Param("startedAt") LocalDateTime startedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_migration_status
+            SET status = :status, migrations_executed = :migrationsExecuted, duration_ms = :durationMs,
+                error_message = :errorMessage, finished_at = :finishedAt
+            WHERE run_id = :runId AND schema_name = :schemaName
+            """, nativeQuery = true)
+    int markFinished(@Param("runId") String runId, @Param("schemaName") String schemaName,
+                     @Param("status") String status, @Param("migrationsExecuted") Integer migrationsExecuted,
+                     @Param("durationMs") long durationMs, @Param("errorMessage") String errorMessage,
+                     @Param("finishedAt") LocalDateTime finishedAt);
+
+}
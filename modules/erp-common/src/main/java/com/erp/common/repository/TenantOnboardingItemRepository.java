@@ -0,0 +1,66 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.TenantOnboardingItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TenantOnboardingItemRepository extends JpaRepository<TenantOnboardingItem, Long> {
+
+    @Query(value = "SELECT * FROM erp_master.tenant_onboarding_items WHERE job_id = :jobId ORDER BY id", nativeQuery = true)
+    List<TenantOnboardingItem> findByJobId(@Param("jobId") String jobId);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.tenant_onboarding_items (job_id, tenant_code, tenant_name, status)
+            VALUES (:jobId, :tenantCode, :tenantName, 'PENDING')
+            """, nativeQuery = true)
+    int insertItem(@Param("jobId") String jobId, @Param("tenantCode") String tenantCode,
+                   @Param("tenantName") String tenantName);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_onboarding_items
+            SET status = 'PROVISIONING', started_at = :startedAt
+            WHERE job_id = :jobId AND tenant_code = :tenantCode AND status = 'PENDING'
+            """, nativeQuery = true)
+    int markProvisioning(@Param("jobId") String jobId, @Param("tenantCode") String tenantCode,
+                         @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * Fail the tenants of a job that will never be provisioned
+     * @return how many were failed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_onboarding_items
+            SET status = 'FAILED', error_message = :errorMessage, finished_at = :finishedAt
+            WHERE job_id = :jobId AND status IN ('PENDING', 'PROVISIONING')
+            """, nativeQuery = true)
+    int failUnfinished(@Param("jobId") String jobId, @Param("errorMessage") String errorMessage,
+                       @Param("finishedAt") LocalDateTime finishedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_onboarding_items
+            SET status = :status, tenant_id = :tenantId, duration_ms = :durationMs,
+                error_message = :errorMessage, finished_at = :finishedAt
+            WHERE job_id = :jobId AND tenant_code = :tenantCode AND status IN ('PENDING', 'PROVISIONING')
+            """, nativeQuery = true)
+    int markFinished(@Param("jobId") String jobId, @Param("tenantCode") String tenantCode,
+                     @Param("status") String status, @Param("tenantId") Long tenantId,
+                     @Param("durationMs") long durationMs, @Param("errorMessage") String errorMessage,
+                     @Param("finishedAt") LocalDateTime finishedAt);
+
+}
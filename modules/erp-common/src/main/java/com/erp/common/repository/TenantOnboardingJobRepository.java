@@ -0,0 +1,79 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.TenantOnboardingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TenantOnboardingJobRepository extends JpaRepository<TenantOnboardingJob, Long> {
+
+    @Query(value = "SELECT * FROM erp_master.tenant_onboarding_jobs WHERE job_id = :jobId", nativeQuery = true)
+    Optional<TenantOnboardingJob> findByJobId(@Param("jobId") String jobId);
+
+    @Query(value = "SELECT * FROM erp_master.tenant_onboarding_jobs ORDER BY started_at DESC LIMIT :limit", nativeQuery = true)
+    List<TenantOnboardingJob> findRecentJobs(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.tenant_onboarding_jobs (job_id, status, total_tenants, succeeded, failed, created_by, started_at, heartbeat_at)
+            VALUES (:jobId, 'RUNNING', :totalTenants, 0, 0, :createdBy, :startedAt, :startedAt)
+            """, nativeQuery = true)
+    int insertJob(@Param("jobId") String jobId, @Param("totalTenants") int totalTenants,
+                  @Param("createdBy") Long createdBy, @Param("startedAt") LocalDateTime startedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE erp_master.tenant_onboarding_jobs SET heartbeat_at = :now WHERE job_id IN (:jobIds)", nativeQuery = true)
+    int heartbeat(@Param("jobIds") Collection<String> jobIds, @Param("now") LocalDateTime now);
+
+    @Query(value = """
+            SELECT job_id FROM erp_master.tenant_onboarding_jobs
+            WHERE status = 'RUNNING' AND COALESCE(heartbeat_at, started_at) < :before
+            """, nativeQuery = true)
+    List<String> findAbandonedJobIds(@Param("before") LocalDateTime before);
+
+    /**
+     * Count failed tenants of an abandoned job and close it, as recordOutcome
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_onboarding_jobs
+            SET failed = failed + :count,
+                status = IF(succeeded + failed < total_tenants, 'RUNNING',
+                            IF(failed > 0, 'COMPLETED_WITH_FAILURES', 'COMPLETED')),
+                finished_at = IF(succeeded + failed < total_tenants, NULL, :finishedAt)
+            WHERE job_id = :jobId
+            """, nativeQuery = true)
+    int recordFailures(@Param("jobId") String jobId, @Param("count") int count,
+                       @Param("finishedAt") LocalDateTime finishedAt);
+
+    /**
+     * Count one finished tenant; the job is closed by whichever tenant finishes last.
+     * MySQL applies SET assignments left to right, so status and finished_at see the new counters.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE erp_master.tenant_onboarding_jobs
+            SET succeeded = succeeded + IF(:succeeded, 1, 0),
+                failed = failed + IF(:succeeded, 0, 1),
+                status = IF(succeeded + failed < total_tenants, 'RUNNING',
+                            IF(failed > 0, 'COMPLETED_WITH_FAILURES', 'COMPLETED')),
+                finished_at = IF(succeeded + failed < total_tenants, NULL, :finishedAt)
+            WHERE job_id = :jobId
+            """, nativeQuery = true)
+    int recordOutcome(@Param("jobId") String jobId, @Param("succeeded") boolean succeeded,
+                      @Param("finishedAt") LocalDateTime finishedAt);
+
+}
@@ -35,6 +35,15 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
     @Query(value = "SELECT * FROM erp_master.tenants WHERE is_active = true ORDER BY created_at DESC", nativeQuery = true)
     List<Tenant> findByIsActiveTrueOrderByCreatedAtDesc();
 
+    @Query(value = "SELECT * FROM erp_master.tenants", nativeQuery = true)
+    List<Tenant> findAllTenants();
+
+    /**
+     * Changes whenever a tenant is added or updated, see TenantDirectory
+     */
+    @Query(value = "SELECT CONCAT(COUNT(*), '/', COALESCE(MAX(updated_at), '')) FROM erp_master.tenants", nativeQuery = true)
+    String getChangeMarker();
+
     @Query(value = """
             SELECT * FROM erp_master.tenants t 
             WHERE (:tenantName IS NULL OR LOWER(t.tenant_name) LIKE LOWER(CONCAT('%', :tenantName, '%')))
@@ -105,6 +114,22 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
                      @Param("status") String status, @Param("subscriptionEndDate") LocalDateTime subscriptionEndDate,
                      @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedBy") Long updatedBy);
 
+    /**
+     * Put a tenant inserted inactive live once its schema and admin are in place
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE erp_master.tenants SET is_active = true WHERE id = :id AND is_active = false", nativeQuery = true)
+    int activateProvisionedTenant(@Param("id") Long id);
+
+    /**
+     * Undo the insert of a tenant whose provisioning failed; never touches a tenant that went live
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM erp_master.tenants WHERE id = :id AND is_active = false", nativeQuery = true)
+    int deleteProvisioningTenant(@Param("id") Long id);
+
     @Modifying
     @Transactional
     @Query(value = """
@@ -131,4 +156,83 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
                          @Param("status") String status, @Param("updatedAt") LocalDateTime updatedAt,
                          @Param("updatedBy") Long updatedBy);
 
-}
\ No newline at end of file
+    @Query(value = """
+            SELECT * FROM erp_master.tenants
+            WHERE is_active = true AND hibernation_state = 'AWAKE'
+              AND (COALESCE(last_active_at, created_at) < :idleSince OR (:includeSuspended AND status = 'SUSPENDED'))
+            ORDER BY COALESCE(last_active_at, created_at)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Tenant> findHibernationCandidates(@Param("idleSince") LocalDateTime idleSince,
+                                           @Param("includeSuspended") boolean includeSuspended,
+                                           @Param("limit") int limit);
+
+    @Query(value = "SELECT schema_name FROM erp_master.tenants WHERE is_active = true AND hibernation_state <> 'AWAKE'", nativeQuery = true)
+    List<String> findHibernatedSchemaNames();
+
+    @Query(value = "SELECT schema_name FROM erp_master.tenants WHERE is_active = true AND hibernation_state = 'RESTORING'", nativeQuery = true)
+    List<String> findRestoringSchemaNames();
+
+    // Activity and hibernation updates keep updated_at (ON UPDATE CURRENT_TIMESTAMP) meaning "config changed"
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.tenants
+            SET last_active_at = GREATEST(COALESCE(last_active_at, :lastActiveAt), :lastActiveAt),
+                updated_at = updated_at
+            WHERE tenant_code = :tenantCode
+            """, nativeQuery = true)
+    int touchLastActive(@Param("tenantCode") String tenantCode, @Param("lastActiveAt") LocalDateTime lastActiveAt);
+
+    /**
+     * Move the tenant between hibernation states; 0 rows means another instance got there first
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.tenants
+            SET hibernation_state = :toState, updated_at = updated_at
+            WHERE id = :id AND hibernation_state = :fromState
+            """, nativeQuery = true)
+    int transitionHibernationState(@Param("id") Long id, @Param("fromState") String fromState,
+                                   @Param("toState") String toState);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.tenants
+            SET hibernation_state = 'HIBERNATED', hibernated_at = :hibernatedAt, archive_path = :archivePath,
+                updated_at = updated_at
+            WHERE id = :id
+            """, nativeQuery = true)
+    int markHibernated(@Param("id") Long id, @Param("hibernatedAt") LocalDateTime hibernatedAt,
+                       @Param("archivePath") String archivePath);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.tenants
+            SET hibernation_state = 'AWAKE', hibernated_at = NULL, archive_path = NULL, last_active_at = :lastActiveAt,
+                updated_at = updated_at
+            WHERE id = :id
+            """, nativeQuery = true)
+    int markAwake(@Param("id") Long id, @Param("lastActiveAt") LocalDateTime lastActiveAt);
+
+    // Revocation is not a configuration change, so updated_at is kept
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.tenants
+            SET tokens_valid_after = :validAfter, updated_at = updated_at
+            WHERE id = :id
+            """, nativeQuery = true)
+    int updateTokensValidAfter(@Param("id") Long id, @Param("validAfter") LocalDateTime validAfter);
+
+    /**
+     * (id, tokens_valid_after) of tenants whose tokens were revoked at or after the given time
+     */
+    @Query(value = "SELECT id, tokens_valid_after FROM erp_master.tenants WHERE tokens_valid_after >= :since",
+            nativeQuery = true)
+    List<Object[]> findTokenRevocationsSince(@Param("since") LocalDateTime since);
+
+}
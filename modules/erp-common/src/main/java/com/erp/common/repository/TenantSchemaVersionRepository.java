@@ -0,0 +1,40 @@
+package com.erp.common.repository;
+
+import com.erp.common.entity.TenantSchemaVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TenantSchemaVersionRepository extends JpaRepository<TenantSchemaVersion, String> {
+
+    @Query(value = """
+            SELECT schema_name FROM erp_master.tenant_schema_versions
+            WHERE applied_version = :version AND applied_checksum = :checksum
+            """, nativeQuery = true)
+    List<String> findSchemasAtVersion(@Param("version") String version, @Param("checksum") long checksum);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO erp_master.tenant_schema_versions (schema_name, server_url, applied_version, applied_checksum, updated_at)
+            VALUES (:schemaName, :serverUrl, :version, :checksum, :updatedAt)
+            ON DUPLICATE KEY UPDATE server_url = :serverUrl, applied_version = :version,
+                                    applied_checksum = :checksum, updated_at = :updatedAt
+            """, nativeQuery = true)
+    int upsert(@Param("schemaName") String schemaName, @Param("serverUrl") String serverUrl,
+               @Param("version") String version, @Param("checksum") long checksum,
+               @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM erp_master.tenant_schema_versions WHERE schema_name = :schemaName", nativeQuery = true)
+    int deleteBySchemaName(@Param("schemaName") String schemaName);
+
+}
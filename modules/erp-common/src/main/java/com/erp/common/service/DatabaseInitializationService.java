@@ -1,5 +1,6 @@
 package com.erp.common.service;
 
+import com.erp.common.config.MultiTenantDataSourceConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +22,9 @@ public class DatabaseInitializationService {
 
     private final FlywayMigrationService flywayMigrationService;
     private final DataSource dataSource;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantMigrationOrchestrator tenantMigrationOrchestrator;
+    private final TenantMigrationLedger migrationLedger;
 
     @Value("${app.database.master-schema:erp_master}")
     private String masterSchemaName;
@@ -31,6 +35,11 @@ public class DatabaseInitializationService {
     @Value("${app.database.auto-migrate-on-startup:true}")
     private boolean autoMigrateOnStartup;
 
+    // Migrate tenant schemas after startup instead of holding up the ready event; requests for
+    // tenants still behind get 503 + Retry-After from the routing datasource meanwhile
+    @Value("${app.migration.background-on-startup:true}")
+    private boolean backgroundTenantMigration;
+
     /**
      * This method runs after application is fully started
      * It migrates master schema and all existing tenant schemas
@@ -39,6 +48,7 @@ public class DatabaseInitializationService {
     public void initializeDatabaseOnStartup() {
         if (!autoMigrateOnStartup) {
             log.info("Auto-migration on startup is disabled");
+            dataSourceConfig.getSchemaAvailability().setStartupComplete(true);
             return;
         }
 
@@ -52,8 +62,20 @@ public class DatabaseInitializationService {
             initializeMasterSchema();
 
             // 2. Find and migrate all existing tenant schemas
-            migrateAllExistingTenantSchemas();
+            if (backgroundTenantMigration) {
+                // Schemas that are behind are blocked before this returns, the rest serve right away
+                tenantMigrationOrchestrator.migrateFleetInBackground()
+                        .whenComplete((summary, e) -> {
+                            if (e != null) {
+                                log.error("Background tenant schema migration failed", e);
+                            }
+                        });
+            } else {
+                migrateAllExistingTenantSchemas();
+            }
 
+            // Ready for traffic - tenant progress is reported separately by the readiness endpoint
+            dataSourceConfig.getSchemaAvailability().setStartupComplete(true);
             log.info("Database initialization completed successfully");
 
         } catch (Exception e) {
@@ -71,7 +93,7 @@ public class DatabaseInitializationService {
             log.info("Initializing master schema: {}", masterSchemaName);
 
             // Create master schema if it doesn't exist
-            createSchemaIfNotExists(masterSchemaName);
+            createSchemaIfNotExists(dataSource, masterSchemaName);
 
             // Run master migrations
             flywayMigrationService.runMasterMigrations(dataSource);
@@ -89,21 +111,8 @@ public class DatabaseInitializationService {
      */
     public void migrateAllExistingTenantSchemas() {
         try {
-            List<String> tenantSchemas = findAllTenantSchemas();
-            log.info("Found {} existing tenant schemas", tenantSchemas.size());
-
-            for (String schemaName : tenantSchemas) {
-                try {
-                    log.info("Migrating tenant schema: {}", schemaName);
-                    flywayMigrationService.runTenantMigrations(dataSource, schemaName);
-                    log.info("Successfully migrated tenant schema: {}", schemaName);
-
-                } catch (Exception e) {
-                    log.error("Failed to migrate tenant schema: {}", schemaName, e);
-                    // Continue with other schemas even if one fails
-                }
-            }
-
+            // Parallel across schemas and servers; failures are recorded per schema and do not stop the run
+            tenantMigrationOrchestrator.migrateFleet();
         } catch (Exception e) {
             log.error("Error during tenant schemas migration", e);
         }
@@ -114,15 +123,25 @@ public class DatabaseInitializationService {
      * This matches your current tenant creation logic
      */
     public void initializeNewTenantSchema(String tenantId) {
+        initializeNewTenantSchema(tenantId, null);
+    }
+
+    /**
+     * Initialize a new tenant schema on the given server (null = primary server)
+     */
+    public void initializeNewTenantSchema(String tenantId, String databaseUrl) {
         try {
             String schemaName = tenantSchemaPrefix + tenantId;
             log.info("Initializing new tenant schema: {} for tenant: {}", schemaName, tenantId);
 
+            DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(databaseUrl);
+
             // 1. Create schema using raw SQL (matching your approach)
-            createSchemaIfNotExists(schemaName);
+            createSchemaIfNotExists(serverDataSource, schemaName);
 
             // 2. Run migrations using your existing method signature
-            flywayMigrationService.runTenantMigrations(dataSource, schemaName);
+            flywayMigrationService.runTenantMigrations(serverDataSource, schemaName);
+            migrationLedger.recordMigrated(schemaName, dataSourceConfig.normalizeServerUrl(databaseUrl));
 
             log.info("New tenant schema initialized successfully: {}", schemaName);
 
@@ -141,12 +160,15 @@ public class DatabaseInitializationService {
             String schemaName = tenantSchemaPrefix + tenantId;
             log.info("Updating tenant schema: {} for tenant: {}", schemaName, tenantId);
 
-            if (!schemaExists(schemaName)) {
+            DataSource serverDataSource = dataSourceConfig.getAdminDataSourceForSchema(schemaName);
+
+            if (!schemaExists(serverDataSource, schemaName)) {
                 throw new RuntimeException("Tenant schema does not exist: " + schemaName);
             }
 
             // Run migrations using your existing method
-            flywayMigrationService.runTenantMigrations(dataSource, schemaName);
+            flywayMigrationService.runTenantMigrations(serverDataSource, schemaName);
+            migrationLedger.recordMigrated(schemaName, dataSourceConfig.getTenantServerUrl(schemaName));
 
             log.info("Tenant schema updated successfully: {}", schemaName);
 
@@ -164,10 +186,10 @@ public class DatabaseInitializationService {
 
         try {
             // Check master schema
-            status.setMasterSchemaExists(schemaExists(masterSchemaName));
+            status.setMasterSchemaExists(schemaExists(dataSource, masterSchemaName));
 
             // Find tenant schemas
-            List<String> tenantSchemas = findAllTenantSchemas();
+            List<String> tenantSchemas = findAllTenantSchemas(dataSource);
             status.setTenantSchemas(tenantSchemas);
             status.setTenantSchemaCount(tenantSchemas.size());
 
@@ -181,8 +203,8 @@ public class DatabaseInitializationService {
         return status;
     }
 
-    private void createSchemaIfNotExists(String schemaName) {
-        try (Connection connection = dataSource.getConnection();
+    private void createSchemaIfNotExists(DataSource serverDataSource, String schemaName) {
+        try (Connection connection = serverDataSource.getConnection();
              Statement statement = connection.createStatement()) {
 
             String createSchemaSQL = "CREATE SCHEMA IF NOT EXISTS `" + schemaName +
@@ -197,10 +219,10 @@ public class DatabaseInitializationService {
         }
     }
 
-    private List<String> findAllTenantSchemas() {
+    private List<String> findAllTenantSchemas(DataSource serverDataSource) {
         List<String> tenantSchemas = new ArrayList<>();
 
-        try (Connection connection = dataSource.getConnection();
+        try (Connection connection = serverDataSource.getConnection();
              Statement statement = connection.createStatement()) {
 
             ResultSet rs = statement.executeQuery(
@@ -223,8 +245,8 @@ public class DatabaseInitializationService {
     /**
      * Check if schema exists - matches your database check pattern
      */
-    private boolean schemaExists(String schemaName) {
-        try (Connection connection = dataSource.getConnection();
+    private boolean schemaExists(DataSource serverDataSource, String schemaName) {
+        try (Connection connection = serverDataSource.getConnection();
              Statement statement = connection.createStatement()) {
 
             ResultSet rs = statement.executeQuery(
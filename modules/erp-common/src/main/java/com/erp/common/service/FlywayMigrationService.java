@@ -19,8 +19,9 @@ public class FlywayMigrationService {
 
     /**
      * Run tenant migrations - enhanced with better error handling
+     * @return number of migrations executed
      */
-    public void runTenantMigrations(DataSource tenantDataSource, String schemaName) {
+    public int runTenantMigrations(DataSource tenantDataSource, String schemaName) {
         try {
             log.info("Starting Flyway migrations for schema: {}", schemaName);
 
@@ -29,12 +30,8 @@ public class FlywayMigrationService {
                 createSchema(tenantDataSource, schemaName);
             }
 
-            // Switch to correct schema
-            try (Connection connection = tenantDataSource.getConnection();
-                 Statement statement = connection.createStatement()) {
-                statement.execute("USE `" + schemaName + "`");
-                log.info("Switched to schema: {}", schemaName);
-            }
+            // No USE on a pooled connection here: Flyway switches to schemas(schemaName) itself and
+            // restores the original schema, while a USE would leak into the next borrower of the connection
 
             // Configure Flyway
             Flyway flyway = Flyway.configure()
@@ -64,8 +61,12 @@ public class FlywayMigrationService {
             log.info("Flyway migration completed for schema {}. Success: {}, Migrations executed: {}",
                     schemaName, result.success, result.migrationsExecuted);
 
-            // Verify tables were created
-            verifyTablesCreated(tenantDataSource, schemaName);
+            // Verify tables were created - nothing to verify when no migration ran
+            if (result.migrationsExecuted > 0) {
+                verifyTablesCreated(tenantDataSource, schemaName);
+            }
+
+            return result.migrationsExecuted;
 
         } catch (Exception e) {
             log.error("Failed to run Flyway migrations for schema: {}", schemaName, e);
@@ -218,9 +219,9 @@ public class FlywayMigrationService {
                                 "ORDER BY table_name"
                 );
 
-                log.info("Tables created in {}:", schemaName);
+                log.debug("Tables created in {}:", schemaName);
                 while (tableList.next()) {
-                    log.info("  - {}", tableList.getString("table_name"));
+                    log.debug("  - {}", tableList.getString("table_name"));
                 }
 
                 // Verify critical tables exist
@@ -0,0 +1,321 @@
+package com.erp.common.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-tenant bulkhead in front of the request workers.
+ * Each tenant may hold at most its own in-flight limit, and all tenants together at most
+ * the global limit. While nobody is queued, a request is admitted with two atomic counter
+ * updates and no lock. Requests over the limit wait in a short per-tenant queue; when a slot
+ * frees up it goes to the waiting tenant with the lowest in-flight count relative to its
+ * weight, so one busy tenant cannot starve the others.
+ */
+@Service
+@Slf4j
+public class TenantAdmissionService {
+
+    private final Map<String, TenantState> tenants = new ConcurrentHashMap<>();
+    private final AtomicInteger globalInFlight = new AtomicInteger();
+
+    // Requests queued across all tenants; the lock-free paths only take the lock while this is non-zero
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // Guards the per-tenant queues and the schedule of tenants with waiters
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Tenants with queued requests, lowest in-flight per weight (as of when they were scheduled) first
+    private final PriorityQueue<TenantState> scheduled = new PriorityQueue<>(
+            Comparator.comparingDouble((TenantState state) -> state.priority).thenComparingLong(state -> state.sequence));
+    private long sequence;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.admission.max-concurrent:150}")
+    private int globalLimit;
+
+    @Value("${app.admission.tenant-max-concurrent:20}")
+    private int defaultTenantLimit;
+
+    @Value("${app.admission.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${app.admission.queue-timeout-ms:500}")
+    private long queueTimeoutMs;
+
+    // Comma separated TENANT_CODE:weight pairs, tenants not listed get weight 1
+    @Value("${app.admission.tenant-weights:}")
+    private String tenantWeights;
+
+    // Comma separated TENANT_CODE:limit pairs overriding tenant-max-concurrent
+    @Value("${app.admission.tenant-limits:}")
+    private String tenantLimits;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admit a request for the tenant, waiting up to the queue timeout.
+     * Returns false when the request must be rejected; every true must be paired with {@link #release}.
+     */
+    public boolean tryAcquire(String tenantCode) throws InterruptedException {
+        TenantState state = tenants.computeIfAbsent(tenantCode, this::newState);
+
+        // Fast path: free slots and nobody queued, whose turn it would otherwise be
+        if (waiting.get() == 0 && reserve(state)) {
+            state.admitted.increment();
+            return true;
+        }
+
+        return enqueue(state);
+    }
+
+    public void release(String tenantCode) {
+        TenantState state = tenants.get(tenantCode);
+        if (state == null) {
+            return;
+        }
+
+        state.inFlight.decrementAndGet();
+        globalInFlight.decrementAndGet();
+        // A waiter counts itself before it looks for free slots, so one of the two sides always sees the other
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                schedule(state);
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Admission counters per tenant plus global usage
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        Map<String, Object> perTenant = new HashMap<>();
+
+        lock.lock();
+        try {
+            metrics.put("globalInFlight", globalInFlight.get());
+            metrics.put("globalLimit", globalLimit);
+            metrics.put("waiting", waiting.get());
+            tenants.forEach((code, state) -> perTenant.put(code, state.toMap()));
+        } finally {
+            lock.unlock();
+        }
+
+        metrics.put("tenants", perTenant);
+        return metrics;
+    }
+
+    private boolean enqueue(TenantState state) throws InterruptedException {
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (state.queue.size() >= queueCapacity) {
+                state.rejected.increment();
+                return false;
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            state.queue.addLast(waiter);
+            waiting.incrementAndGet();
+            state.queued.increment();
+            schedule(state);
+            // Slots may have been freed since the fast path failed
+            dispatch();
+
+            long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // Slot was handed over just as we were interrupted - give it to the next waiter
+                    state.inFlight.decrementAndGet();
+                    globalInFlight.decrementAndGet();
+                    dispatch();
+                } else if (state.queue.remove(waiter)) {
+                    waiting.decrementAndGet();
+                }
+                throw e;
+            }
+
+            state.queueNanos.add(System.nanoTime() - start);
+            if (waiter.granted) {
+                state.admitted.increment();
+                return true;
+            }
+
+            if (state.queue.remove(waiter)) {
+                waiting.decrementAndGet();
+            }
+            state.rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hand freed slots to waiting tenants in schedule order; called with the lock held
+    private void dispatch() {
+        while (!scheduled.isEmpty()) {
+            TenantState next = scheduled.peek();
+            if (next.queue.isEmpty()) {
+                // All of its waiters timed out
+                unschedule();
+                continue;
+            }
+            if (!reserveGlobal()) {
+                return;
+            }
+            if (!reserveTenant(next)) {
+                // At its own limit - scheduled again when one of its requests is released
+                globalInFlight.decrementAndGet();
+                unschedule();
+                continue;
+            }
+
+            unschedule();
+            Waiter waiter = next.queue.pollFirst();
+            waiting.decrementAndGet();
+            waiter.granted = true;
+            waiter.condition.signal();
+            schedule(next);
+        }
+    }
+
+    // Add a tenant with waiters to the schedule at its current share; called with the lock held
+    private void schedule(TenantState state) {
+        if (state.scheduled || state.queue.isEmpty()) {
+            return;
+        }
+        state.priority = (double) state.inFlight.get() / state.weight;
+        state.sequence = sequence++;
+        state.scheduled = true;
+        scheduled.add(state);
+    }
+
+    private void unschedule() {
+        scheduled.poll().scheduled = false;
+    }
+
+    private boolean reserve(TenantState state) {
+        if (!reserveTenant(state)) {
+            return false;
+        }
+        if (!reserveGlobal()) {
+            state.inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean reserveTenant(TenantState state) {
+        return incrementBelow(state.inFlight, state.limit);
+    }
+
+    private boolean reserveGlobal() {
+        return incrementBelow(globalInFlight, globalLimit);
+    }
+
+    private static boolean incrementBelow(AtomicInteger counter, int limit) {
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private TenantState newState(String tenantCode) {
+        int limit = parsePairs(tenantLimits).getOrDefault(tenantCode, defaultTenantLimit);
+        int weight = parsePairs(tenantWeights).getOrDefault(tenantCode, 1);
+        log.debug("Admission state for tenant {}: limit={}, weight={}", tenantCode, limit, weight);
+        return new TenantState(limit, Math.max(1, weight));
+    }
+
+    private Map<String, Integer> parsePairs(String pairs) {
+        Map<String, Integer> parsed = new HashMap<>();
+        if (pairs == null || pairs.isBlank()) {
+            return parsed;
+        }
+        for (String pair : pairs.split(",")) {
+            String[] parts = pair.trim().split(":");
+            if (parts.length == 2) {
+                parsed.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return parsed;
+    }
+
+    private static class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    private static class TenantState {
+        private final int limit;
+        private final int weight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // Guarded by the service lock
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private double priority;
+        private long sequence;
+
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder queueNanos = new LongAdder();
+
+        private TenantState(int limit, int weight) {
+            this.limit = limit;
+            this.weight = weight;
+        }
+
+        private Map<String, Object> toMap() {
+            long queuedCount = queued.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("inFlight", inFlight.get());
+            map.put("waiting", queue.size());
+            map.put("limit", limit);
+            map.put("weight", weight);
+            map.put("admitted", admitted.sum());
+            map.put("rejected", rejected.sum());
+            map.put("queued", queuedCount);
+            map.put("avgQueueMillis", queuedCount == 0 ? 0 : queueNanos.sum() / queuedCount / 1_000_000);
+            return map;
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.erp.common.service;
+
+import com.erp.common.entity.Tenant;
+import com.erp.common.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * All tenants of erp_master held in memory and indexed by id, code and schema name, for the lookups
+ * made on login and user listings. Every refresh loads the whole table and swaps in a new snapshot,
+ * so readers never see a half-applied change. Tenant changes made through this instance refresh it
+ * right after commit; changes made by other instances are picked up by polling a count/updated_at
+ * marker. Hibernation and activity columns are not tracked - read those from TenantRepository.
+ * Codes and schema names match case-insensitively, like the master collation.
+ * Returned tenants are shared and must not be modified.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantDirectory {
+
+    private final TenantRepository tenantRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Map<Long, Tenant> byId, Map<String, Tenant> byCode, Map<String, Tenant> bySchemaName,
+                            String marker) {
+    }
+
+    public Optional<Tenant> findById(Long tenantId) {
+        return Optional.ofNullable(snapshot().byId().get(tenantId));
+    }
+
+    public Optional<Tenant> findActiveByCode(String tenantCode) {
+        return Optional.ofNullable(snapshot().byCode().get(normalize(tenantCode)));
+    }
+
+    public Optional<Tenant> findActiveBySchemaName(String schemaName) {
+        return Optional.ofNullable(snapshot().bySchemaName().get(normalize(schemaName)));
+    }
+
+    /**
+     * Reload once the current transaction commits (right away outside of one), so a rolled back
+     * change never reaches the directory
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshInNewTransaction();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * The committed transaction's persistence context is still bound in afterCommit, and it hands back
+     * the tenants it loaded before its native UPDATEs unchanged; a new transaction reads them afresh
+     */
+    private void refreshInNewTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> refresh());
+    }
+
+    public synchronized void refresh() {
+        // Marker first: a change landing between the two reads is seen again by the next poll
+        String marker = tenantRepository.getChangeMarker();
+        List<Tenant> tenants = tenantRepository.findAllTenants();
+
+        Map<Long, Tenant> byId = new HashMap<>();
+        Map<String, Tenant> byCode = new HashMap<>();
+        Map<String, Tenant> bySchemaName = new HashMap<>();
+        for (Tenant tenant : tenants) {
+            byId.put(tenant.getId(), tenant);
+            if (Boolean.TRUE.equals(tenant.getIsActive())) {
+                byCode.put(normalize(tenant.getTenantCode()), tenant);
+                bySchemaName.put(normalize(tenant.getSchemaName()), tenant);
+            }
+        }
+
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byCode), Map.copyOf(bySchemaName), marker);
+        log.debug("Tenant directory refreshed: {} tenants ({} active)", byId.size(), byCode.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenant-directory.poll-interval-ms:30000}",
+            initialDelayString = "${app.tenant-directory.poll-interval-ms:30000}")
+    public void pollForChanges() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            if (!Objects.equals(current.marker(), tenantRepository.getChangeMarker())) {
+                log.info("Tenants changed on another instance, refreshing tenant directory");
+                refresh();
+            }
+        } catch (Exception e) {
+            log.warn("Tenant directory poll failed: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // First use, after the master schema is migrated
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // Map.get on the immutable snapshot maps throws on null keys, so null maps to a key no tenant has
+    private static String normalize(String key) {
+        return key == null ? "" : key.toUpperCase(Locale.ROOT);
+    }
+
+}
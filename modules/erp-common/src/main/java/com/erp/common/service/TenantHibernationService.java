@@ -0,0 +1,405 @@
+package com.erp.common.service;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.TenantSchemaAvailability;
+import com.erp.common.entity.Tenant;
+import com.erp.common.repository.TenantRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernates tenants with no requests for {@code idle-days}: their pool is closed, fleet migrations
+ * skip them and, with archiving on, their schema is dumped to a zip and dropped. Schemas are only
+ * dropped when the archive directory is shared by all instances and persistent; otherwise they are kept.
+ * The first request for a hibernated tenant starts waking it in the background (restore, migrate to
+ * the latest version, reopen the pool) and gets 503 + Retry-After with the wake progress meanwhile.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantHibernationService {
+
+    private static final long WAKE_RETRY_COOLDOWN_MS = 60_000;
+    private static final DateTimeFormatter ARCHIVE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final TenantRepository tenantRepository;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantSchemaArchiver schemaArchiver;
+    private final FlywayMigrationService flywayMigrationService;
+    private final TenantMigrationLedger migrationLedger;
+
+    @Value("${app.hibernation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.hibernation.idle-days:60}")
+    private int idleDays;
+
+    // Suspended tenants are hibernated on the next check whatever their last activity
+    @Value("${app.hibernation.include-suspended:true}")
+    private boolean includeSuspended;
+
+    @Value("${app.hibernation.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.hibernation.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${app.hibernation.archive.directory:./tenant-archives}")
+    private String archiveDirectory;
+
+    // Set only when the directory is a volume every instance mounts and that survives pod restarts
+    @Value("${app.hibernation.archive.shared:false}")
+    private boolean archiveShared;
+
+    @Value("${app.hibernation.wake-retry-after-seconds:5}")
+    private long wakeRetryAfterSeconds;
+
+    // Last request per tenant code since the previous flush to tenants.last_active_at
+    private final Map<String, Long> recentActivity = new ConcurrentHashMap<>();
+
+    private final Map<String, WakeProgress> wakes = new ConcurrentHashMap<>();
+
+    public enum WakePhase {
+        HIBERNATING, STARTING, RESTORING, MIGRATING, READY, FAILED
+    }
+
+    @PostConstruct
+    void checkArchiveDirectory() {
+        if (archiveEnabled && !archiveShared) {
+            log.warn("Hibernation archiving is on but {} is not marked shared (app.hibernation.archive.shared);"
+                    + " hibernated schemas will be kept instead of archived and dropped", archiveDirectory);
+        }
+    }
+
+    public long getWakeRetryAfterSeconds() {
+        return wakeRetryAfterSeconds;
+    }
+
+    /**
+     * Note a request for the tenant; called on every tenant request, so only a map write
+     */
+    public void recordActivity(String tenantCode) {
+        recentActivity.put(tenantCode, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.hibernation.activity-flush-interval-ms:60000}")
+    public void flushActivity() {
+        for (Map.Entry<String, Long> entry : recentActivity.entrySet()) {
+            String tenantCode = entry.getKey();
+            Long lastActive = entry.getValue();
+            try {
+                tenantRepository.touchLastActive(tenantCode,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(lastActive), ZoneId.systemDefault()));
+                // Keep a newer timestamp recorded while we were writing this one
+                recentActivity.remove(tenantCode, lastActive);
+            } catch (Exception e) {
+                log.warn("Could not record activity of tenant {}: {}", tenantCode, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.hibernation.check-interval-ms:3600000}",
+            initialDelayString = "${app.hibernation.initial-delay-ms:600000}")
+    public void hibernateIdleTenants() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            flushActivity();
+            syncHibernatedSchemas();
+
+            List<Tenant> candidates = tenantRepository.findHibernationCandidates(
+                    LocalDateTime.now().minusDays(idleDays), includeSuspended, batchSize);
+            for (Tenant tenant : candidates) {
+                try {
+                    hibernate(tenant);
+                } catch (Exception e) {
+                    log.error("Failed to hibernate tenant {}", tenant.getTenantCode(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Tenant hibernation check failed", e);
+        }
+    }
+
+    public void hibernate(Long tenantId) {
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new RuntimeException("Tenant not found with ID: " + tenantId));
+        hibernate(tenant);
+    }
+
+    public void hibernate(Tenant tenant) {
+        String schemaName = tenant.getSchemaName();
+        if (tenantRepository.transitionHibernationState(tenant.getId(),
+                Tenant.HibernationState.AWAKE.name(), Tenant.HibernationState.HIBERNATING.name()) == 0) {
+            throw new RuntimeException("Tenant is not awake: " + tenant.getTenantCode());
+        }
+
+        long start = System.currentTimeMillis();
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+        availability.markHibernating(schemaName);
+
+        Path archive = null;
+        boolean dropped = false;
+        try {
+            dataSourceConfig.releaseTenantDataSource(schemaName);
+
+            // A pod-local archive would be lost on reschedule and missing on the instance that wakes the tenant
+            if (archiveEnabled && archiveShared) {
+                DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(tenant.getDatabaseUrl());
+                archive = archiveSchema(serverDataSource, schemaName);
+                dropSchema(serverDataSource, schemaName);
+                dropped = true;
+                migrationLedger.forget(schemaName);
+            }
+
+            tenantRepository.markHibernated(tenant.getId(), LocalDateTime.now(),
+                    archive != null ? archive.toAbsolutePath().toString() : null);
+            availability.markHibernated(schemaName);
+
+            log.info("Hibernated tenant {} ({}) in {} ms", tenant.getTenantCode(),
+                    archive != null ? "archived to " + archive : "schema kept", System.currentTimeMillis() - start);
+
+        } catch (Exception e) {
+            if (dropped) {
+                // The archive is the only copy now - leave the tenant blocked rather than serve an empty schema
+                log.error("Tenant {} was archived to {} and its schema dropped, but could not be marked hibernated",
+                        tenant.getTenantCode(), archive, e);
+            } else {
+                deleteQuietly(archive);
+                tenantRepository.transitionHibernationState(tenant.getId(),
+                        Tenant.HibernationState.HIBERNATING.name(), Tenant.HibernationState.AWAKE.name());
+                availability.markAwake(schemaName);
+            }
+            throw new RuntimeException("Failed to hibernate tenant: " + tenant.getTenantCode(), e);
+        }
+    }
+
+    /**
+     * Start waking the tenant if it is hibernated and report how far along it is
+     */
+    public Map<String, Object> wake(String tenantCode) {
+        String schemaName = dataSourceConfig.getTenantSchemaName(tenantCode);
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+
+        if (availability.getState(schemaName) == TenantSchemaAvailability.State.HIBERNATING) {
+            return new WakeProgress(WakePhase.HIBERNATING).toMap();
+        }
+
+        WakeProgress existing = wakes.get(schemaName);
+        if (existing != null && !(existing.phase == WakePhase.FAILED && existing.ageMillis() > WAKE_RETRY_COOLDOWN_MS)) {
+            return existing.toMap();
+        }
+
+        WakeProgress progress = new WakeProgress(WakePhase.STARTING);
+        boolean started = existing == null
+                ? wakes.putIfAbsent(schemaName, progress) == null
+                : wakes.replace(schemaName, existing, progress);
+        if (!started) {
+            return wakes.getOrDefault(schemaName, progress).toMap();
+        }
+
+        CompletableFuture.runAsync(() -> runWake(tenantCode, schemaName, progress),
+                task -> new Thread(task, "tenant-wake-" + tenantCode).start());
+        return progress.toMap();
+    }
+
+    private void runWake(String tenantCode, String schemaName, WakeProgress progress) {
+        long start = System.currentTimeMillis();
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+        Tenant tenant = null;
+        boolean claimed = false;
+
+        try {
+            tenant = tenantRepository.findByTenantCodeAndIsActiveTrue(tenantCode)
+                    .orElseThrow(() -> new RuntimeException("Tenant not found: " + tenantCode));
+
+            if (tenant.getHibernationState() == Tenant.HibernationState.AWAKE) {
+                // Woken by another instance
+                dataSourceConfig.addTenantDataSource(tenantCode, schemaName, tenant.getDatabaseUrl());
+                availability.markAwake(schemaName);
+                progress.phase = WakePhase.READY;
+                return;
+            }
+
+            claimed = tenantRepository.transitionHibernationState(tenant.getId(),
+                    Tenant.HibernationState.HIBERNATED.name(), Tenant.HibernationState.WAKING.name()) > 0;
+            if (!claimed) {
+                throw new RuntimeException("Tenant is being hibernated or woken by another instance");
+            }
+            availability.markWaking(schemaName);
+
+            DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(tenant.getDatabaseUrl());
+            Path archive = tenant.getArchivePath() != null ? Path.of(tenant.getArchivePath()) : null;
+            if (archive != null) {
+                progress.phase = WakePhase.RESTORING;
+                // Left over by an interrupted wake
+                dropSchema(serverDataSource, schemaName);
+                schemaArchiver.restore(serverDataSource, schemaName, archive, (table, restored, total) -> {
+                    progress.tablesRestored = restored;
+                    progress.totalTables = total;
+                });
+            }
+
+            // Catch up on migrations released while the tenant slept
+            progress.phase = WakePhase.MIGRATING;
+            flywayMigrationService.runTenantMigrations(serverDataSource, schemaName);
+            migrationLedger.recordMigrated(schemaName, dataSourceConfig.normalizeServerUrl(tenant.getDatabaseUrl()));
+
+            dataSourceConfig.addTenantDataSource(tenantCode, schemaName, tenant.getDatabaseUrl());
+            tenantRepository.markAwake(tenant.getId(), LocalDateTime.now());
+            availability.markAwake(schemaName);
+            progress.phase = WakePhase.READY;
+            deleteQuietly(archive);
+
+            log.info("Woke tenant {} in {} ms", tenantCode, System.currentTimeMillis() - start);
+
+        } catch (Exception e) {
+            log.error("Failed to wake tenant {}", tenantCode, e);
+            progress.error = e.getMessage();
+            progress.phase = WakePhase.FAILED;
+            if (claimed) {
+                tenantRepository.transitionHibernationState(tenant.getId(),
+                        Tenant.HibernationState.WAKING.name(), Tenant.HibernationState.HIBERNATED.name());
+                availability.markHibernated(schemaName);
+            }
+        } finally {
+            if (progress.phase == WakePhase.READY) {
+                wakes.remove(schemaName, progress);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.hibernation.sync-interval-ms:5000}")
+    public void syncStates() {
+        try {
+            syncHibernatedSchemas();
+        } catch (Exception e) {
+            log.warn("Could not sync tenant hibernation states: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Align this instance with tenants hibernated, woken or being restored by other instances
+     */
+    public void syncHibernatedSchemas() {
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+        Set<String> restoring = new HashSet<>(tenantRepository.findRestoringSchemaNames());
+        Set<String> hibernated = new HashSet<>(tenantRepository.findHibernatedSchemaNames());
+        hibernated.removeAll(restoring);
+
+        for (String schemaName : restoring) {
+            if (availability.getState(schemaName) != TenantSchemaAvailability.State.RESTORING) {
+                availability.markRestoring(schemaName);
+                dataSourceConfig.releaseTenantDataSource(schemaName);
+            }
+        }
+        for (String schemaName : availability.getRestoringSchemas()) {
+            if (!restoring.contains(schemaName)) {
+                availability.markRestored(schemaName);
+            }
+        }
+
+        for (String schemaName : hibernated) {
+            if (availability.getState(schemaName) == null) {
+                availability.markHibernated(schemaName);
+                dataSourceConfig.releaseTenantDataSource(schemaName);
+            }
+        }
+        for (String schemaName : availability.getHibernatedSchemas()) {
+            if (!hibernated.contains(schemaName) && !wakes.containsKey(schemaName)) {
+                availability.markAwake(schemaName);
+            }
+        }
+    }
+
+    private Path archiveSchema(DataSource serverDataSource, String schemaName) throws Exception {
+        Path directory = Path.of(archiveDirectory);
+        Files.createDirectories(directory);
+        Path archive = directory.resolve(schemaName + "-" + LocalDateTime.now().format(ARCHIVE_TIMESTAMP) + ".zip");
+        Path partial = directory.resolve(archive.getFileName() + ".part");
+
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            schemaArchiver.archive(serverDataSource, schemaName, out);
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            throw e;
+        }
+        Files.move(partial, archive, StandardCopyOption.ATOMIC_MOVE);
+
+        // Never drop the schema on the strength of an unreadable archive
+        schemaArchiver.readManifest(archive);
+        return archive;
+    }
+
+    private void dropSchema(DataSource serverDataSource, String schemaName) throws Exception {
+        try (Connection connection = serverDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP DATABASE IF EXISTS `" + schemaName + "`");
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class WakeProgress {
+        private final long startedAt = System.currentTimeMillis();
+        private volatile WakePhase phase;
+        private volatile int tablesRestored;
+        private volatile int totalTables;
+        private volatile String error;
+
+        WakeProgress(WakePhase phase) {
+            this.phase = phase;
+        }
+
+        long ageMillis() {
+            return System.currentTimeMillis() - startedAt;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("phase", phase.name());
+            map.put("tablesRestored", tablesRestored);
+            map.put("totalTables", totalTables);
+            map.put("elapsedMs", ageMillis());
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.erp.common.service;
+
+import com.erp.common.repository.TenantSchemaVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Tracks which tenant migration set each tenant schema was last migrated to.
+ * The classpath's latest tenant migration version and a checksum over all tenant migration
+ * files are computed once; a schema whose ledger entry matches both has nothing pending,
+ * so startup can skip Flyway for it entirely. Editing an existing migration changes the
+ * checksum and sends every schema through Flyway once more.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantMigrationLedger {
+
+    private static final String TENANT_MIGRATIONS = "classpath:db/migration/tenant/*.sql";
+    private static final Pattern VERSIONED = Pattern.compile("^V([0-9]+(?:[._][0-9]+)*)__.*\\.sql$");
+
+    private final TenantSchemaVersionRepository schemaVersionRepository;
+
+    @Getter
+    private String latestVersion = "0";
+
+    @Getter
+    private long checksum;
+
+    @PostConstruct
+    void readClasspathMigrations() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(TENANT_MIGRATIONS);
+            Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+
+            CRC32 crc = new CRC32();
+            for (Resource resource : resources) {
+                String filename = resource.getFilename();
+                crc.update(filename.getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = resource.getInputStream()) {
+                    crc.update(in.readAllBytes());
+                }
+
+                Matcher matcher = VERSIONED.matcher(filename);
+                if (matcher.matches() && compareVersions(matcher.group(1), latestVersion) > 0) {
+                    latestVersion = matcher.group(1);
+                }
+            }
+            checksum = crc.getValue();
+
+            log.info("Tenant migrations on classpath: {} files, latest version {}, checksum {}",
+                    resources.length, latestVersion, checksum);
+        } catch (Exception e) {
+            // A checksum no ledger row can match - every schema goes through Flyway
+            checksum = -1;
+            log.warn("Could not read tenant migrations from classpath, ledger skipping disabled", e);
+        }
+    }
+
+    /**
+     * Schemas already at the classpath's latest tenant migration set, in one query
+     */
+    public Set<String> findUpToDateSchemas() {
+        if (checksum < 0) {
+            return Set.of();
+        }
+        return new HashSet<>(schemaVersionRepository.findSchemasAtVersion(latestVersion, checksum));
+    }
+
+    /**
+     * Record that the schema has all classpath tenant migrations applied
+     */
+    public void recordMigrated(String schemaName, String serverUrl) {
+        if (checksum < 0) {
+            return;
+        }
+        try {
+            schemaVersionRepository.upsert(schemaName, serverUrl, latestVersion, checksum, LocalDateTime.now());
+        } catch (Exception e) {
+            // Only costs a redundant Flyway run on the next startup
+            log.warn("Could not record migration ledger entry for schema: {}", schemaName, e);
+        }
+    }
+
+    public void forget(String schemaName) {
+        schemaVersionRepository.deleteBySchemaName(schemaName);
+    }
+
+    private static int compareVersions(String left, String right) {
+        String[] a = left.split("[._]");
+        String[] b = right.split("[._]");
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            long x = i < a.length ? Long.parseLong(a[i]) : 0;
+            long y = i < b.length ? Long.parseLong(b[i]) : 0;
+            if (x != y) {
+                return Long.compare(x, y);
+            }
+        }
+        return 0;
+    }
+
+}
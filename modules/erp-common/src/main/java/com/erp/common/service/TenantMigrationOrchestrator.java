@@ -0,0 +1,335 @@
+package com.erp.common.service;
+
+import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.TenantSchemaAvailability;
+import com.erp.common.entity.DatabaseServer;
+import com.erp.common.entity.TenantMigrationRun;
+import com.erp.common.entity.TenantMigrationStatus;
+import com.erp.common.repository.DatabaseServerRepository;
+import com.erp.common.repository.TenantMigrationRunRepository;
+import com.erp.common.repository.TenantMigrationStatusRepository;
+import com.erp.common.repository.TenantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Migrates every tenant schema on every database server in parallel.
+ * At most {@code parallelism} schemas migrate at once, and at most {@code per-server-parallelism}
+ * on any one server. Each run and each schema outcome is recorded in erp_master; a run that
+ * did not finish (crash, redeploy) is resumed by the next call and skips schemas it already migrated.
+ * Schemas the {@link TenantMigrationLedger} reports as up to date are not touched at all, nor are
+ * hibernated tenants (see TenantHibernationService).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantMigrationOrchestrator {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final FlywayMigrationService flywayMigrationService;
+    private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final DatabaseServerRepository databaseServerRepository;
+    private final TenantMigrationRunRepository runRepository;
+    private final TenantMigrationStatusRepository statusRepository;
+    private final TenantMigrationLedger migrationLedger;
+    private final TenantRepository tenantRepository;
+
+    // One fleet run at a time per instance; planned on one thread, possibly executed on another
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.migration.parallelism:8}")
+    private int parallelism;
+
+    @Value("${app.migration.per-server-parallelism:4}")
+    private int perServerParallelism;
+
+    @Value("${app.database.tenant-schema-prefix:tenant_}")
+    private String tenantSchemaPrefix;
+
+    /**
+     * Migrate all tenant schemas that are behind, resuming an unfinished run if there is one
+     */
+    public Map<String, Object> migrateFleet() {
+        return migrateFleet(false);
+    }
+
+    /**
+     * @param force run Flyway on every schema, ignoring the migration ledger
+     */
+    public Map<String, Object> migrateFleet(boolean force) {
+        return execute(plan(force));
+    }
+
+    /**
+     * Plan the run on the calling thread - so the schemas behind are blocked before this returns -
+     * and migrate them on a background thread
+     */
+    public CompletableFuture<Map<String, Object>> migrateFleetInBackground() {
+        MigrationPlan plan = plan(false);
+        return CompletableFuture.supplyAsync(() -> execute(plan),
+                task -> new Thread(task, "tenant-migration-run").start());
+    }
+
+    public List<TenantMigrationRun> getRecentRuns(int limit) {
+        return runRepository.findRecentRuns(limit);
+    }
+
+    public List<TenantMigrationStatus> getRunStatus(String runId) {
+        return statusRepository.findByRunId(runId);
+    }
+
+    /**
+     * Find the schemas that are behind, open or resume the run and block those schemas from routing
+     */
+    private MigrationPlan plan(boolean force) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("A tenant migration run is already in progress");
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            // Hibernated tenants catch up when they are woken
+            Set<String> hibernated = new HashSet<>(tenantRepository.findHibernatedSchemaNames());
+            List<MigrationTarget> targets = discoverTargets().stream()
+                    .filter(target -> !hibernated.contains(target.schemaName()))
+                    .toList();
+            int discovered = targets.size();
+
+            if (!force) {
+                Set<String> upToDate = migrationLedger.findUpToDateSchemas();
+                targets = targets.stream()
+                        .filter(target -> !upToDate.contains(target.schemaName()))
+                        .toList();
+            }
+
+            Optional<TenantMigrationRun> unfinished = runRepository.findUnfinishedRun();
+            if (targets.isEmpty() && unfinished.isEmpty()) {
+                return new MigrationPlan(null, discovered, 0, List.of(), 0, start);
+            }
+
+            String runId;
+            Set<String> alreadyMigrated = new HashSet<>();
+            if (unfinished.isPresent()) {
+                runId = unfinished.get().getRunId();
+                alreadyMigrated.addAll(statusRepository.findSucceededSchemas(runId));
+                log.info("Resuming tenant migration run {} - {} of {} schemas already migrated",
+                        runId, alreadyMigrated.size(), targets.size());
+            } else {
+                runId = UUID.randomUUID().toString();
+                runRepository.insertRun(runId, targets.size(), LocalDateTime.now());
+                log.info("Starting tenant migration run {} for {} schemas", runId, targets.size());
+            }
+
+            List<MigrationTarget> remaining = interleaveByServer(targets.stream()
+                    .filter(target -> !alreadyMigrated.contains(target.schemaName()))
+                    .toList());
+            dataSourceConfig.getSchemaAvailability().markPending(remaining.stream().map(MigrationTarget::schemaName).toList());
+
+            return new MigrationPlan(runId, discovered, targets.size(), remaining, alreadyMigrated.size(), start);
+
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private Map<String, Object> execute(MigrationPlan plan) {
+        try {
+            if (plan.runId() == null) {
+                log.info("All {} tenant schemas are at tenant migration version {} - nothing to migrate",
+                        plan.discovered(), migrationLedger.getLatestVersion());
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("status", "UP_TO_DATE");
+                summary.put("totalSchemas", 0);
+                summary.put("upToDateSchemas", plan.discovered());
+                summary.put("latestVersion", migrationLedger.getLatestVersion());
+                summary.put("durationMs", System.currentTimeMillis() - plan.startMillis());
+                return summary;
+            }
+
+            String runId = plan.runId();
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            Map<String, Semaphore> serverPermits = new HashMap<>();
+            for (MigrationTarget target : plan.remaining()) {
+                serverPermits.computeIfAbsent(target.serverKey(), key -> new Semaphore(Math.max(1, perServerParallelism)));
+            }
+
+            // close() waits for every submitted migration to finish
+            try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism))) {
+                for (MigrationTarget target : plan.remaining()) {
+                    Semaphore permits = serverPermits.get(target.serverKey());
+                    executor.execute(() -> {
+                        permits.acquireUninterruptibly();
+                        try {
+                            if (migrate(runId, target)) {
+                                succeeded.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+
+            int totalSucceeded = plan.resumed() + succeeded.get();
+            TenantMigrationRun.RunStatus status = failed.get() == 0
+                    ? TenantMigrationRun.RunStatus.COMPLETED
+                    : TenantMigrationRun.RunStatus.COMPLETED_WITH_FAILURES;
+            runRepository.finishRun(runId, status.name(), plan.total(), totalSucceeded, failed.get(),
+                    LocalDateTime.now());
+
+            long durationMs = System.currentTimeMillis() - plan.startMillis();
+            log.info("Tenant migration run {} finished in {} ms: {} succeeded, {} failed, {} skipped from previous attempt",
+                    runId, durationMs, succeeded.get(), failed.get(), plan.resumed());
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("runId", runId);
+            summary.put("status", status.name());
+            summary.put("totalSchemas", plan.total());
+            summary.put("succeeded", totalSucceeded);
+            summary.put("failed", failed.get());
+            summary.put("resumedSchemas", plan.resumed());
+            summary.put("upToDateSchemas", plan.discovered() - plan.total());
+            summary.put("latestVersion", migrationLedger.getLatestVersion());
+            summary.put("durationMs", durationMs);
+            return summary;
+
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean migrate(String runId, MigrationTarget target) {
+        String schemaName = target.schemaName();
+        long start = System.nanoTime();
+
+        TenantSchemaAvailability schemaAvailability = dataSourceConfig.getSchemaAvailability();
+        schemaAvailability.markMigrating(schemaName);
+
+        try {
+            statusRepository.markRunning(runId, schemaName, target.serverUrl(), LocalDateTime.now());
+            int executed = flywayMigrationService.runTenantMigrations(target.dataSource(), schemaName);
+            migrationLedger.recordMigrated(schemaName, target.serverUrl());
+            schemaAvailability.markReady(schemaName);
+            statusRepository.markFinished(runId, schemaName, TenantMigrationStatus.Status.SUCCEEDED.name(),
+                    executed, elapsedMillis(start), null, LocalDateTime.now());
+            return true;
+
+        } catch (Exception e) {
+            log.error("Failed to migrate tenant schema: {}", schemaName, e);
+            // Stays blocked: its schema is in an unknown state until a later run migrates it
+            schemaAvailability.markFailed(schemaName);
+            try {
+                statusRepository.markFinished(runId, schemaName, TenantMigrationStatus.Status.FAILED.name(),
+                        null, elapsedMillis(start), errorMessage(e), LocalDateTime.now());
+            } catch (Exception recordError) {
+                log.error("Could not record migration failure for schema: {}", schemaName, recordError);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Tenant schemas on the primary server plus every registered server
+     */
+    private List<MigrationTarget> discoverTargets() {
+        List<MigrationTarget> targets = new ArrayList<>();
+        DataSource primary = dataSourceConfig.getServerAdminDataSource(null);
+        addTargets(targets, primary, "primary", null);
+
+        for (DatabaseServer server : databaseServerRepository.findByIsActiveTrue()) {
+            DataSource serverDataSource = dataSourceConfig.getServerAdminDataSource(server.getJdbcUrl());
+            if (serverDataSource != primary) {
+                addTargets(targets, serverDataSource, server.getServerName(), server.getJdbcUrl());
+            }
+        }
+        return targets;
+    }
+
+    private void addTargets(List<MigrationTarget> targets, DataSource serverDataSource, String serverKey, String serverUrl) {
+        String sql = "SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME LIKE ? ORDER BY SCHEMA_NAME";
+
+        try (Connection connection = serverDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            statement.setString(1, tenantSchemaPrefix.replace("_", "\\_") + "%");
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    targets.add(new MigrationTarget(rs.getString(1), serverKey, serverUrl, serverDataSource));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not list tenant schemas on server {}", serverKey, e);
+        }
+    }
+
+    // Round-robin across servers so the worker threads are not all parked on one server's permits
+    private List<MigrationTarget> interleaveByServer(List<MigrationTarget> targets) {
+        Map<String, Iterator<MigrationTarget>> byServer = new LinkedHashMap<>();
+        Map<String, List<MigrationTarget>> grouped = new LinkedHashMap<>();
+        for (MigrationTarget target : targets) {
+            grouped.computeIfAbsent(target.serverKey(), key -> new ArrayList<>()).add(target);
+        }
+        grouped.forEach((server, list) -> byServer.put(server, list.iterator()));
+
+        List<MigrationTarget> ordered = new ArrayList<>(targets.size());
+        while (ordered.size() < targets.size()) {
+            for (Iterator<MigrationTarget> iterator : byServer.values()) {
+                if (iterator.hasNext()) {
+                    ordered.add(iterator.next());
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static String errorMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = e.getMessage() + (root != e ? " - caused by: " + root : "");
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private record MigrationPlan(String runId, int discovered, int total, List<MigrationTarget> remaining,
+                                 int resumed, long startMillis) {
+    }
+
+    private record MigrationTarget(String schemaName, String serverKey, String serverUrl, DataSource dataSource) {
+    }
+
+}
@@ -0,0 +1,630 @@
+package com.erp.common.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Dumps a tenant schema to a zip archive of per-table files and restores it, over plain JDBC so no
+ * mysqldump binary is needed. Layout: tables/&lt;name&gt;.sql (CREATE TABLE), data/&lt;name&gt;.jsonl.gz (one
+ * JSON array per row), views/&lt;name&gt;.sql and a manifest.json written last. Rows are streamed in both
+ * directions, so memory use does not depend on table size. Restores run as the server admin, so an
+ * archive is trusted no further than its names and definitions are checked: plain identifiers only,
+ * and each definition a single CREATE of the expected object inside the schema being restored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantSchemaArchiver {
+
+    private static final String MANIFEST = "manifest.json";
+    private static final int FORMAT_VERSION = 2;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int RESTORE_BATCH_SIZE = 500;
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]{1,64}");
+    private static final Pattern VIEW_PREFIX = Pattern.compile(
+            "CREATE (ALGORITHM=\\w+ )?(DEFINER=`[^`]*`@`[^`]*` )?(SQL SECURITY \\w+ )?VIEW ");
+    private static final Pattern FORBIDDEN_IN_TABLE = Pattern.compile("\\b(SELECT|DIRECTORY|CONNECTION)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final ObjectMapper objectMapper;
+
+    public record TableManifest(String name, List<String> columns, List<Boolean> binary, long rows) {
+    }
+
+    public record ArchiveManifest(int formatVersion, String schemaName, LocalDateTime createdAt,
+                                  List<TableManifest> tables, List<String> views) {
+    }
+
+    private record DumpedTable(TableManifest manifest, Path file, long size, long crc) {
+    }
+
+    /**
+     * Restore progress callback, called after each table
+     */
+    @FunctionalInterface
+    public interface RestoreProgress {
+        void tableRestored(String tableName, int restored, int total);
+    }
+
+    /**
+     * Write a consistent snapshot of the schema to the stream, one table at a time
+     */
+    public ArchiveManifest archive(DataSource serverDataSource, String schemaName, OutputStream out) {
+        return archive(serverDataSource, schemaName, out, 1);
+    }
+
+    /**
+     * Write a consistent snapshot of the schema to the stream; the stream is finished but not closed.
+     * Up to {@code parallelism} tables are dumped at once, each on its own connection into a gzipped
+     * temp file that is copied into the archive as soon as it is complete.
+     */
+    public ArchiveManifest archive(DataSource serverDataSource, String schemaName, OutputStream out, int parallelism) {
+        long start = System.currentTimeMillis();
+        List<Connection> workers = new ArrayList<>();
+        List<Path> dumpFiles = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = null;
+
+        try (Connection connection = serverDataSource.getConnection()) {
+            List<String> tables = new ArrayList<>();
+            List<String> views = new ArrayList<>();
+            listObjects(connection, schemaName, tables, views);
+            // Only write archives that restore() will accept
+            checkIdentifier(schemaName);
+            tables.forEach(TenantSchemaArchiver::checkIdentifier);
+            views.forEach(TenantSchemaArchiver::checkIdentifier);
+
+            // Borrow every worker connection before locking, so a short pool can never stall writers
+            int workerCount = Math.max(1, Math.min(parallelism, tables.size()));
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(serverDataSource.getConnection());
+            }
+            openSnapshots(connection, schemaName, tables, workers);
+
+            ZipOutputStream zip = new ZipOutputStream(out);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+            for (String table : tables) {
+                putText(zip, writer, "tables/" + table + ".sql", showCreate(connection, "TABLE", schemaName, table));
+            }
+
+            BlockingQueue<Connection> idleWorkers = new LinkedBlockingQueue<>(workers);
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(workerCount,
+                    task -> new Thread(task, "schema-dump-" + schemaName + "-" + threadNumber.incrementAndGet()));
+            CompletionService<DumpedTable> dumps = new ExecutorCompletionService<>(executor);
+            for (String table : tables) {
+                dumps.submit(() -> dumpTable(idleWorkers, dumpFiles, schemaName, table));
+            }
+
+            // Copy tables out in the order they finish, so the first bytes reach the caller early
+            Map<String, TableManifest> dumped = new HashMap<>();
+            for (int i = 0; i < tables.size(); i++) {
+                DumpedTable table = dumps.take().get();
+                putDump(zip, table);
+                deleteQuietly(table.file());
+                dumpFiles.remove(table.file());
+                dumped.put(table.manifest().name(), table.manifest());
+            }
+
+            for (String view : views) {
+                putText(zip, writer, "views/" + view + ".sql", showCreate(connection, "VIEW", schemaName, view));
+            }
+
+            List<TableManifest> tableManifests = tables.stream().map(dumped::get).toList();
+            ArchiveManifest manifest = new ArchiveManifest(FORMAT_VERSION, schemaName, LocalDateTime.now(),
+                    tableManifests, views);
+            putText(zip, writer, MANIFEST, objectMapper.writeValueAsString(manifest));
+            zip.finish();
+
+            log.info("Archived schema {} ({} tables, {} rows, {} workers) in {} ms", schemaName, tables.size(),
+                    tableManifests.stream().mapToLong(TableManifest::rows).sum(), workerCount,
+                    System.currentTimeMillis() - start);
+            return manifest;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to archive schema: " + schemaName, e);
+        } finally {
+            stopWorkers(executor, workers);
+            List.copyOf(dumpFiles).forEach(TenantSchemaArchiver::deleteQuietly);
+        }
+    }
+
+    public ArchiveManifest readManifest(Path archive) {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            return readManifest(zip);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read archive manifest: " + archive, e);
+        }
+    }
+
+    /**
+     * Create the schema (which must not exist) and load the archive into it with foreign key checks off
+     */
+    public ArchiveManifest restore(DataSource serverDataSource, String schemaName, Path archive,
+                                   RestoreProgress progress) {
+        long start = System.currentTimeMillis();
+
+        try (ZipFile zip = new ZipFile(archive.toFile());
+             Connection connection = serverDataSource.getConnection()) {
+
+            ArchiveManifest manifest = readManifest(zip);
+            checkNames(manifest);
+            checkIdentifier(schemaName);
+            boolean autoCommit = connection.getAutoCommit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE DATABASE " + quote(schemaName) + " " +
+                        "CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+                connection.setCatalog(schemaName);
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                statement.execute("SET UNIQUE_CHECKS = 0");
+                connection.setAutoCommit(false);
+
+                try {
+                    int restored = 0;
+                    for (TableManifest table : manifest.tables()) {
+                        String ddl = readText(zip, "tables/" + table.name() + ".sql");
+                        checkTableDefinition(ddl, table.name());
+                        statement.execute(ddl);
+                        restoreRows(connection, zip, table);
+                        progress.tableRestored(table.name(), ++restored, manifest.tables().size());
+                    }
+                    for (String view : manifest.views()) {
+                        String ddl = retargetSchema(readText(zip, "views/" + view + ".sql"),
+                                manifest.schemaName(), schemaName);
+                        statement.execute(checkViewDefinition(ddl, view, schemaName));
+                    }
+                    connection.commit();
+                } finally {
+                    // Session settings outlive the borrow, Hikari does not reset them
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                    statement.execute("SET UNIQUE_CHECKS = 1");
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+
+            log.info("Restored schema {} from {} ({} tables) in {} ms", schemaName, archive.getFileName(),
+                    manifest.tables().size(), System.currentTimeMillis() - start);
+            return manifest;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to restore schema " + schemaName + " from " + archive, e);
+        }
+    }
+
+    /**
+     * Start a REPEATABLE READ snapshot on every worker connection. With more than one worker the
+     * tables are read-locked meanwhile, so all snapshots see the same committed state.
+     */
+    private void openSnapshots(Connection connection, String schemaName, List<String> tables,
+                               List<Connection> workers) throws Exception {
+        boolean lock = workers.size() > 1;
+        try (Statement statement = connection.createStatement()) {
+            if (lock) {
+                statement.execute("LOCK TABLES " + tables.stream()
+                        .map(table -> quote(schemaName) + "." + quote(table) + " READ")
+                        .collect(Collectors.joining(", ")));
+            }
+            try {
+                // Hikari restores isolation and autocommit when the workers are returned
+                for (Connection worker : workers) {
+                    worker.setAutoCommit(false);
+                    worker.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                    try (Statement start = worker.createStatement()) {
+                        start.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT");
+                    }
+                }
+            } finally {
+                if (lock) {
+                    statement.execute("UNLOCK TABLES");
+                }
+            }
+        }
+    }
+
+    private DumpedTable dumpTable(BlockingQueue<Connection> idleWorkers, List<Path> dumpFiles,
+                                  String schemaName, String table) throws Exception {
+        Path file = Files.createTempFile("erp-dump-" + table + "-", ".jsonl.gz");
+        dumpFiles.add(file);
+        Connection connection = idleWorkers.take();
+        try {
+            // CRC of the compressed bytes, which a stored zip entry needs up front
+            CRC32 crc = new CRC32();
+            TableManifest manifest;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), crc)),
+                    StandardCharsets.UTF_8))) {
+                manifest = dumpRows(connection, writer, schemaName, table);
+            }
+            return new DumpedTable(manifest, file, Files.size(file), crc.getValue());
+        } finally {
+            idleWorkers.add(connection);
+        }
+    }
+
+    private TableManifest dumpRows(Connection connection, Writer writer, String schemaName, String table)
+            throws Exception {
+        try (Statement select = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one at a time with this fetch size instead of buffering the table
+            select.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = select.executeQuery("SELECT * FROM " + quote(schemaName) + "." + quote(table))) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                List<String> columns = new ArrayList<>(columnCount);
+                List<Boolean> binary = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    columns.add(checkIdentifier(metaData.getColumnName(i)));
+                    binary.add(isBinary(metaData, i));
+                }
+
+                long rows = 0;
+                Object[] values = new Object[columnCount];
+                while (rs.next()) {
+                    for (int i = 1; i <= columnCount; i++) {
+                        values[i - 1] = readValue(rs, i, binary.get(i - 1));
+                    }
+                    writer.write(objectMapper.writeValueAsString(values));
+                    writer.write('\n');
+                    rows++;
+                }
+                writer.flush();
+
+                return new TableManifest(table, columns, binary, rows);
+            }
+        }
+    }
+
+    /**
+     * The dump is gzipped already, so it goes in stored rather than deflated a second time
+     */
+    private static void putDump(ZipOutputStream zip, DumpedTable table) throws Exception {
+        ZipEntry entry = new ZipEntry("data/" + table.manifest().name() + ".jsonl.gz");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(table.size());
+        entry.setCompressedSize(table.size());
+        entry.setCrc(table.crc());
+        zip.putNextEntry(entry);
+        Files.copy(table.file(), zip);
+        zip.closeEntry();
+    }
+
+    private static void stopWorkers(ExecutorService executor, List<Connection> workers) {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Connection worker : workers) {
+            try (worker) {
+                worker.rollback();
+            } catch (Exception e) {
+                log.warn("Could not release dump connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void restoreRows(Connection connection, ZipFile zip, TableManifest table) throws Exception {
+        if (table.rows() == 0) {
+            return;
+        }
+
+        List<String> quoted = table.columns().stream().map(TenantSchemaArchiver::quote).toList();
+        String sql = "INSERT INTO " + quote(table.name()) + " (" + String.join(", ", quoted) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(quoted.size(), "?")) + ")";
+
+        // DECIMAL columns must come back exactly, not through double
+        ObjectReader rowReader = objectMapper.readerFor(List.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+        try (InputStream in = openRows(zip, table.name());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             PreparedStatement insert = connection.prepareStatement(sql)) {
+
+            int pending = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<?> values = rowReader.readValue(line);
+                for (int i = 0; i < values.size(); i++) {
+                    Object value = values.get(i);
+                    if (value != null && table.binary().get(i)) {
+                        insert.setBytes(i + 1, Base64.getDecoder().decode((String) value));
+                    } else {
+                        insert.setObject(i + 1, value);
+                    }
+                }
+                insert.addBatch();
+
+                if (++pending == RESTORE_BATCH_SIZE) {
+                    insert.executeBatch();
+                    connection.commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    private void listObjects(Connection connection, String schemaName, List<String> tables, List<String> views)
+            throws Exception {
+        String sql = "SELECT TABLE_NAME, TABLE_TYPE FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, schemaName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if ("VIEW".equals(rs.getString("TABLE_TYPE"))) {
+                        views.add(rs.getString("TABLE_NAME"));
+                    } else {
+                        tables.add(rs.getString("TABLE_NAME"));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String showCreate(Connection connection, String type, String schemaName, String name)
+            throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW CREATE " + type + " " + quote(schemaName) + "." + quote(name))) {
+            if (!rs.next()) {
+                throw new IllegalStateException("No definition for " + type + " " + schemaName + "." + name);
+            }
+            return rs.getString(2);
+        }
+    }
+
+    private static boolean isBinary(ResultSetMetaData metaData, int column) throws Exception {
+        return switch (metaData.getColumnType(column)) {
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> true;
+            case Types.BIT -> metaData.getPrecision(column) > 1;
+            default -> false;
+        };
+    }
+
+    private static Object readValue(ResultSet rs, int column, boolean binary) throws Exception {
+        if (binary) {
+            byte[] bytes = rs.getBytes(column);
+            return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+        }
+        Object value = rs.getObject(column);
+        // Dates and times in MySQL's own text form, which it parses back without timezone shifts
+        if (value instanceof Temporal || value instanceof java.util.Date) {
+            return rs.getString(column);
+        }
+        return value;
+    }
+
+    // Views are dumped with schema-qualified references
+    private static String retargetSchema(String ddl, String fromSchema, String toSchema) {
+        return fromSchema.equals(toSchema) ? ddl : ddl.replace(quote(fromSchema) + ".", quote(toSchema) + ".");
+    }
+
+    static String checkIdentifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalStateException("Unsupported identifier in archive: " + name);
+        }
+        return name;
+    }
+
+    private static String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    private static void checkNames(ArchiveManifest manifest) {
+        checkIdentifier(manifest.schemaName());
+        for (TableManifest table : manifest.tables()) {
+            checkIdentifier(table.name());
+            table.columns().forEach(TenantSchemaArchiver::checkIdentifier);
+            if (table.binary().size() != table.columns().size()) {
+                throw new IllegalStateException("Column flags do not match columns of table " + table.name());
+            }
+        }
+        manifest.views().forEach(TenantSchemaArchiver::checkIdentifier);
+    }
+
+    /**
+     * A table definition must be one CREATE TABLE of the named table, as SHOW CREATE TABLE writes it,
+     * with no qualified names and nothing read from elsewhere
+     */
+    static void checkTableDefinition(String ddl, String table) {
+        if (!ddl.startsWith("CREATE TABLE " + quote(table) + " (")) {
+            throw new IllegalStateException("Definition of table " + table + " is not a CREATE TABLE of it");
+        }
+        Definition definition = Definition.scan(ddl, table);
+        if (!definition.qualifiedNames().isEmpty()) {
+            throw new IllegalStateException("Definition of table " + table + " references "
+                    + String.join(".", definition.qualifiedNames().get(0)));
+        }
+        if (FORBIDDEN_IN_TABLE.matcher(definition.bare()).find()) {
+            throw new IllegalStateException("Definition of table " + table + " reads data, sets directories or connects elsewhere");
+        }
+    }
+
+    /**
+     * A view definition must be one CREATE VIEW of the named view whose columns all come from its own
+     * schema. It is returned to run with invoker rights, so the archive's DEFINER grants nothing.
+     */
+    static String checkViewDefinition(String ddl, String view, String schemaName) {
+        Matcher prefix = VIEW_PREFIX.matcher(ddl);
+        String header = quote(view) + " AS ";
+        if (!prefix.lookingAt() || !ddl.startsWith(header, prefix.end())) {
+            throw new IllegalStateException("Definition of view " + view + " is not a CREATE VIEW of it");
+        }
+        // SHOW CREATE VIEW writes columns as `schema`.`table`.`column`; two parts may be an alias
+        for (List<String> name : Definition.scan(ddl, view).qualifiedNames()) {
+            if (name.size() > 2 && !name.get(0).equals(schemaName)) {
+                throw new IllegalStateException("View " + view + " references schema " + name.get(0));
+            }
+        }
+        return "CREATE SQL SECURITY INVOKER VIEW " + ddl.substring(prefix.end());
+    }
+
+    /**
+     * A statement split into its text outside literals and identifiers, and the dotted names it uses;
+     * rejects comments and further statements
+     */
+    private record Definition(String bare, List<List<String>> qualifiedNames) {
+
+        static Definition scan(String ddl, String name) {
+            StringBuilder bare = new StringBuilder(ddl.length());
+            List<List<String>> qualifiedNames = new ArrayList<>();
+            List<String> current = new ArrayList<>();
+            int i = 0;
+            while (i < ddl.length()) {
+                char c = ddl.charAt(i);
+                if (c == '\'' || c == '"' || c == '`') {
+                    int end = skipQuoted(ddl, i, name);
+                    if (c == '`') {
+                        current.add(ddl.substring(i + 1, end - 1).replace("``", "`"));
+                        if (end < ddl.length() && ddl.charAt(end) == '.') {
+                            end++;
+                        } else {
+                            if (current.size() > 1) {
+                                qualifiedNames.add(current);
+                            }
+                            current = new ArrayList<>();
+                        }
+                    }
+                    bare.append(' ');
+                    i = end;
+                    continue;
+                }
+                if (!current.isEmpty()) {
+                    // `schema`.table, with the last part unquoted
+                    throw new IllegalStateException("Definition of " + name + " has an unquoted qualified name");
+                }
+                if (c == ';' || c == '#' || ddl.startsWith("/*", i) || ddl.startsWith("--", i)) {
+                    throw new IllegalStateException("Definition of " + name + " holds comments or more than one statement");
+                }
+                bare.append(c);
+                i++;
+            }
+            if (!current.isEmpty()) {
+                throw new IllegalStateException("Definition of " + name + " ends in a qualified name");
+            }
+            return new Definition(bare.toString(), qualifiedNames);
+        }
+
+        private static int skipQuoted(String ddl, int start, String name) {
+            char quote = ddl.charAt(start);
+            int i = start + 1;
+            while (i < ddl.length()) {
+                char c = ddl.charAt(i);
+                if (c == '\\' && quote != '`') {
+                    i += 2;
+                } else if (c == quote) {
+                    if (i + 1 < ddl.length() && ddl.charAt(i + 1) == quote) {
+                        i += 2;
+                    } else {
+                        return i + 1;
+                    }
+                } else {
+                    i++;
+                }
+            }
+            throw new IllegalStateException("Definition of " + name + " has an unterminated quote");
+        }
+    }
+
+    private static void putText(ZipOutputStream zip, Writer writer, String name, String text) throws Exception {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(text);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private ArchiveManifest readManifest(ZipFile zip) throws Exception {
+        try (InputStream in = zip.getInputStream(entry(zip, MANIFEST))) {
+            ArchiveManifest manifest = objectMapper.readValue(in, ArchiveManifest.class);
+            if (manifest.formatVersion() < 1 || manifest.formatVersion() > FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported archive format version: " + manifest.formatVersion());
+            }
+            return manifest;
+        }
+    }
+
+    /**
+     * Rows of a table: gzipped since format 2, plain in format 1 archives
+     */
+    private static InputStream openRows(ZipFile zip, String table) throws Exception {
+        ZipEntry gzipped = zip.getEntry("data/" + table + ".jsonl.gz");
+        if (gzipped != null) {
+            return new GZIPInputStream(zip.getInputStream(gzipped), GZIP_BUFFER_SIZE);
+        }
+        return zip.getInputStream(entry(zip, "data/" + table + ".jsonl"));
+    }
+
+    private static String readText(ZipFile zip, String name) throws Exception {
+        try (InputStream in = zip.getInputStream(entry(zip, name))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static ZipEntry entry(ZipFile zip, String name) {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IllegalStateException("Archive entry missing: " + name);
+        }
+        return entry;
+    }
+
+}
@@ -0,0 +1,5 @@
+-- Tenants with no recorded request count as active from now, not since they were created, so
+-- turning hibernation on does not put every older school to sleep on the first check
+UPDATE tenants
+SET last_active_at = NOW(), updated_at = updated_at
+WHERE last_active_at IS NULL;
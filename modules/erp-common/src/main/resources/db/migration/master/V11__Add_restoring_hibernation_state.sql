@@ -0,0 +1,3 @@
+-- A backup restore blocks the tenant on every instance while its tables are swapped
+ALTER TABLE tenants
+    MODIFY COLUMN hibernation_state ENUM('AWAKE', 'HIBERNATING', 'HIBERNATED', 'WAKING', 'RESTORING') NOT NULL DEFAULT 'AWAKE';
@@ -0,0 +1,3 @@
+-- A spare is claimed for dropping before its schema is dropped, so only one instance ever drops it
+ALTER TABLE spare_tenant_schemas
+    MODIFY COLUMN status ENUM('READY', 'CLAIMED', 'DROPPING') NOT NULL DEFAULT 'READY';
@@ -0,0 +1,5 @@
+-- The instance running a job stamps it periodically; jobs whose stamp goes stale lost their
+-- instance, and their unfinished tenants are failed so the job can finish
+ALTER TABLE tenant_onboarding_jobs
+    ADD COLUMN heartbeat_at DATETIME AFTER finished_at,
+    ADD INDEX idx_status_heartbeat (status, heartbeat_at);
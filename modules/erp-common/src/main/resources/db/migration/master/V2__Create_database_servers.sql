@@ -0,0 +1,17 @@
+-- Registry of MySQL servers that can host tenant schemas.
+-- Tenants with a NULL database_url live on the primary server from spring.datasource.url.
+CREATE TABLE IF NOT EXISTS database_servers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    server_name VARCHAR(50) NOT NULL UNIQUE,
+    jdbc_url VARCHAR(255) NOT NULL UNIQUE,
+    max_tenants INT,
+    accepting_tenants BOOLEAN DEFAULT TRUE,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+    is_active BOOLEAN DEFAULT TRUE,
+    INDEX idx_accepting (is_active, accepting_tenants)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE tenants ADD INDEX idx_database_url (database_url);
@@ -0,0 +1,28 @@
+-- One row per fleet-wide tenant migration run; a run left RUNNING after a crash is resumed on the next start.
+CREATE TABLE IF NOT EXISTS tenant_migration_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id VARCHAR(36) NOT NULL UNIQUE,
+    status ENUM('RUNNING', 'COMPLETED', 'COMPLETED_WITH_FAILURES') NOT NULL DEFAULT 'RUNNING',
+    total_schemas INT NOT NULL DEFAULT 0,
+    succeeded INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    started_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME,
+    INDEX idx_status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Outcome of each tenant schema within a run
+CREATE TABLE IF NOT EXISTS tenant_migration_status (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id VARCHAR(36) NOT NULL,
+    schema_name VARCHAR(50) NOT NULL,
+    server_url VARCHAR(255),
+    status ENUM('RUNNING', 'SUCCEEDED', 'FAILED') NOT NULL,
+    migrations_executed INT,
+    duration_ms BIGINT,
+    error_message TEXT,
+    started_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME,
+    UNIQUE KEY uk_run_schema (run_id, schema_name),
+    INDEX idx_schema_name (schema_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,9 @@
+-- Last tenant migration set applied to each tenant schema, so startup can skip schemas that are up to date
+CREATE TABLE IF NOT EXISTS tenant_schema_versions (
+    schema_name VARCHAR(50) PRIMARY KEY,
+    server_url VARCHAR(255),
+    applied_version VARCHAR(50) NOT NULL,
+    applied_checksum BIGINT NOT NULL,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_version (applied_version, applied_checksum)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
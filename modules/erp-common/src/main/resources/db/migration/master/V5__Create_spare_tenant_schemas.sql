@@ -0,0 +1,14 @@
+-- Pre-provisioned (migrated and seeded) schemas waiting to be bound to a new tenant
+CREATE TABLE IF NOT EXISTS spare_tenant_schemas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    schema_name VARCHAR(50) NOT NULL UNIQUE,
+    server_url VARCHAR(255),
+    migration_checksum BIGINT NOT NULL,
+    seed_year INT NOT NULL,
+    status ENUM('READY', 'CLAIMED') NOT NULL DEFAULT 'READY',
+    claim_token VARCHAR(36),
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at DATETIME,
+    INDEX idx_status_server (status, server_url),
+    INDEX idx_claim_token (claim_token)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,3 @@
+-- Spares seeded from an older seed dataset version are discarded like spares behind on migrations
+ALTER TABLE spare_tenant_schemas
+    ADD COLUMN seed_version INT NOT NULL DEFAULT 0 AFTER seed_year;
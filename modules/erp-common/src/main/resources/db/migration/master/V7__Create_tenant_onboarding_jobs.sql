@@ -0,0 +1,28 @@
+-- One row per bulk tenant onboarding request
+CREATE TABLE IF NOT EXISTS tenant_onboarding_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_id VARCHAR(36) NOT NULL UNIQUE,
+    status ENUM('RUNNING', 'COMPLETED', 'COMPLETED_WITH_FAILURES') NOT NULL DEFAULT 'RUNNING',
+    total_tenants INT NOT NULL DEFAULT 0,
+    succeeded INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    created_by BIGINT,
+    started_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME,
+    INDEX idx_started_at (started_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Progress of each tenant within a job; a failed tenant is rolled back on its own
+CREATE TABLE IF NOT EXISTS tenant_onboarding_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_id VARCHAR(36) NOT NULL,
+    tenant_code VARCHAR(20) NOT NULL,
+    tenant_name VARCHAR(100),
+    status ENUM('PENDING', 'PROVISIONING', 'SUCCEEDED', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    tenant_id BIGINT,
+    duration_ms BIGINT,
+    error_message TEXT,
+    started_at DATETIME,
+    finished_at DATETIME,
+    UNIQUE KEY uk_job_tenant (job_id, tenant_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
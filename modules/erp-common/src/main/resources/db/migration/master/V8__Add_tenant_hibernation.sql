@@ -0,0 +1,8 @@
+-- Tenants idle past app.hibernation.idle-days are hibernated: pool closed, skipped by fleet
+-- migrations and optionally archived to a local file with the schema dropped
+ALTER TABLE tenants
+    ADD COLUMN last_active_at DATETIME AFTER subscription_end_date,
+    ADD COLUMN hibernation_state ENUM('AWAKE', 'HIBERNATING', 'HIBERNATED', 'WAKING') NOT NULL DEFAULT 'AWAKE' AFTER last_active_at,
+    ADD COLUMN hibernated_at DATETIME AFTER hibernation_state,
+    ADD COLUMN archive_path VARCHAR(500) AFTER hibernated_at,
+    ADD INDEX idx_hibernation (hibernation_state, last_active_at);
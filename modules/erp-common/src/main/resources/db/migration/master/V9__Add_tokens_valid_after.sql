@@ -0,0 +1,9 @@
+-- Tokens issued before this instant are rejected. Set when a user's (or the whole tenant's) status,
+-- password or email changes; every instance polls for new values, see TokenRevocationService
+ALTER TABLE users
+    ADD COLUMN tokens_valid_after DATETIME,
+    ADD INDEX idx_users_tokens_valid_after (tokens_valid_after);
+
+ALTER TABLE tenants
+    ADD COLUMN tokens_valid_after DATETIME,
+    ADD INDEX idx_tenants_tokens_valid_after (tokens_valid_after);
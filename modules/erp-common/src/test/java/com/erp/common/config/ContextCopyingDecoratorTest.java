@@ -0,0 +1,84 @@
+package com.erp.common.config;
+
+import com.erp.common.context.ExecutionContext;
+import com.erp.common.context.SchemaContext;
+import com.erp.common.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextCopyingDecoratorTest {
+
+    private final AsyncConfiguration.ContextCopyingDecorator decorator = new AsyncConfiguration.ContextCopyingDecorator();
+
+    @AfterEach
+    void clear() {
+        ExecutionContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void pooledWorkerSeesCallerContextAndIsLeftClean() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            assertPropagated(pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void virtualThreadSeesCallerContext() throws Exception {
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertPropagated(virtualThreads);
+        }
+    }
+
+    @Test
+    void contextChangedAfterSubmitDoesNotReachTask() throws Exception {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+        AtomicReference<String> seen = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> seen.set(TenantContext.getCurrentTenant()));
+
+        TenantContext.setCurrentTenant(2L, "SCH002", null);
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join(2000);
+
+        assertThat(seen.get()).isEqualTo("SCH001");
+    }
+
+    private void assertPropagated(ExecutorService executor) throws Exception {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+        SchemaContext.useTenantSchema();
+        Authentication authentication = new UsernamePasswordAuthenticationToken("admin", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        ExecutionContext caller = ExecutionContext.current();
+
+        AtomicReference<ExecutionContext> seenContext = new AtomicReference<>();
+        AtomicReference<Authentication> seenAuthentication = new AtomicReference<>();
+        executor.submit(decorator.decorate(() -> {
+            seenContext.set(ExecutionContext.current());
+            seenAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+        })).get(2, TimeUnit.SECONDS);
+
+        assertThat(seenContext.get()).isEqualTo(caller);
+        assertThat(seenAuthentication.get()).isSameAs(authentication);
+
+        // The next task on the same worker starts without the caller's context
+        AtomicReference<ExecutionContext> afterwards = new AtomicReference<>();
+        executor.submit(() -> afterwards.set(ExecutionContext.current())).get(2, TimeUnit.SECONDS);
+        assertThat(afterwards.get()).isSameAs(ExecutionContext.EMPTY);
+    }
+
+}
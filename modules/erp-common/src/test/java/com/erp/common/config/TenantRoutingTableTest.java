@@ -0,0 +1,135 @@
+package com.erp.common.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TenantRoutingTableTest {
+
+    private final TenantRoutingTable table = new TenantRoutingTable();
+
+    @Test
+    void tenantKeyIsLowerCasedCode() {
+        assertThat(TenantRoutingTable.tenantKey("SCH001")).isEqualTo("tenant_sch001");
+    }
+
+    @Test
+    void conventionalSchemaResolvesByTenantKeyAndSchemaName() {
+        DataSource tenant = mock(DataSource.class);
+        table.put("SCH001", "tenant_sch001", tenant);
+
+        assertThat(table.get("tenant_sch001")).isSameAs(tenant);
+        assertThat(table.schemaOf("SCH001")).isEqualTo("tenant_sch001");
+    }
+
+    @Test
+    void unconventionalSchemaResolvesThroughCodeIndex() {
+        DataSource demo = mock(DataSource.class);
+        table.put("DEMO", "demo_schema", demo);
+
+        assertThat(table.resolveSchema("tenant_demo")).isEqualTo("demo_schema");
+        assertThat(table.get("tenant_demo")).isSameAs(demo);
+        assertThat(table.get("demo_schema")).isSameAs(demo);
+        assertThat(table.schemaOf("DEMO")).isEqualTo("demo_schema");
+    }
+
+    @Test
+    void unknownKeyResolvesToItselfAndHasNoDataSource() {
+        assertThat(table.resolveSchema("tenant_unknown")).isEqualTo("tenant_unknown");
+        assertThat(table.get("tenant_unknown")).isNull();
+        assertThat(table.get(null)).isNull();
+    }
+
+    @Test
+    void removeByTenantKeyDropsSchemaEntryAndIndex() {
+        DataSource demo = mock(DataSource.class);
+        table.put("DEMO", "demo_schema", demo);
+
+        assertThat(table.remove("tenant_demo")).isSameAs(demo);
+        assertThat(table.get("demo_schema")).isNull();
+        assertThat(table.resolveSchema("tenant_demo")).isEqualTo("tenant_demo");
+    }
+
+    @Test
+    void masterCannotBeRemoved() {
+        table.putMaster(mock(DataSource.class));
+
+        assertThatThrownBy(() -> table.remove(TenantRoutingTable.MASTER_KEY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void replaceTenantsSwapsEntriesAndIndexKeepingMaster() {
+        DataSource master = mock(DataSource.class);
+        DataSource old = mock(DataSource.class);
+        DataSource kept = mock(DataSource.class);
+        DataSource demo = mock(DataSource.class);
+        table.putMaster(master);
+        table.put("OLD", "tenant_old", old);
+        table.put("SCH001", "tenant_sch001", kept);
+
+        Map<String, DataSource> displaced = table.replaceTenants(
+                Map.of("tenant_sch001", kept, "demo_schema", demo),
+                Map.of("SCH001", "tenant_sch001", "DEMO", "demo_schema"),
+                table.version());
+
+        assertThat(displaced).containsOnlyKeys("tenant_old");
+        assertThat(table.getMaster()).isSameAs(master);
+        assertThat(table.get("tenant_sch001")).isSameAs(kept);
+        assertThat(table.get("tenant_demo")).isSameAs(demo);
+        assertThat(table.get("tenant_old")).isNull();
+        assertThat(table.size()).isEqualTo(3);
+    }
+
+    @Test
+    void replaceTenantsKeepsTenantsAddedWhileReloading() {
+        long reloadStarted = table.version();
+        DataSource created = mock(DataSource.class);
+        DataSource loaded = mock(DataSource.class);
+        table.put("NEW", "new_schema", created);
+
+        Map<String, DataSource> displaced = table.replaceTenants(
+                Map.of("tenant_sch001", loaded), Map.of("SCH001", "tenant_sch001"), reloadStarted);
+
+        assertThat(displaced).isEmpty();
+        assertThat(table.get("tenant_new")).isSameAs(created);
+        assertThat(table.get("tenant_sch001")).isSameAs(loaded);
+    }
+
+    @Test
+    void replaceTenantsKeepsRemovalsAndReplacementsMadeWhileReloading() {
+        DataSource removed = mock(DataSource.class);
+        DataSource stale = mock(DataSource.class);
+        DataSource fresh = mock(DataSource.class);
+        table.put("GONE", "tenant_gone", removed);
+        table.put("SCH001", "tenant_sch001", stale);
+        long reloadStarted = table.version();
+        table.remove("tenant_gone");
+        table.put("SCH001", "tenant_sch001", fresh);
+
+        Map<String, DataSource> displaced = table.replaceTenants(
+                Map.of("tenant_gone", removed, "tenant_sch001", stale),
+                Map.of("GONE", "tenant_gone", "SCH001", "tenant_sch001"), reloadStarted);
+
+        assertThat(displaced).isEmpty();
+        assertThat(table.get("tenant_gone")).isNull();
+        assertThat(table.get("tenant_sch001")).isSameAs(fresh);
+    }
+
+    @Test
+    void singleTenantChangesLeaveEarlierSnapshotsUntouched() {
+        DataSource demo = mock(DataSource.class);
+        Map<String, DataSource> before = table.snapshot();
+
+        table.put("DEMO", "demo_schema", demo);
+
+        assertThat(before).isEmpty();
+        assertThat(table.snapshot()).containsOnlyKeys("demo_schema");
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.erp.common.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutionContextTest {
+
+    @AfterEach
+    void clear() {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    void routingSchemaScopeRestoresOnlyTheSchema() throws Throwable {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+        SchemaContext.useTenantSchema();
+
+        ExecutionContext.callWithRoutingSchema("master", () -> {
+            assertThat(SchemaContext.getCurrentSchema()).isEqualTo("master");
+            // e.g. AuthenticationService switching tenants inside a @ForceMasterSchema method
+            TenantContext.clear();
+            TenantContext.setCurrentTenant(2L, "SCH002", null);
+            return null;
+        });
+
+        assertThat(SchemaContext.getCurrentSchema()).isEqualTo("tenant");
+        assertThat(TenantContext.getCurrentTenant()).isEqualTo("SCH002");
+        assertThat(TenantContext.getCurrentTenantId()).isEqualTo(2L);
+    }
+
+    @Test
+    void routingSchemaScopeRestoresNullSchemaOnException() {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+
+        assertThatThrownBy(() -> ExecutionContext.callWithRoutingSchema("master", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(SchemaContext.getCurrentSchema()).isNull();
+        assertThat(TenantContext.getCurrentTenant()).isEqualTo("SCH001");
+    }
+
+    @Test
+    void readOnlyScopeRestoresOnlyTheFlag() throws Throwable {
+        SchemaContext.useMasterSchema();
+
+        ExecutionContext.callWithReadOnly(true, () -> {
+            assertThat(SchemaContext.isReadOnly()).isTrue();
+            SchemaContext.useTenantSchema();
+            return null;
+        });
+
+        assertThat(SchemaContext.getReadOnly()).isNull();
+        assertThat(SchemaContext.getCurrentSchema()).isEqualTo("tenant");
+    }
+
+    @Test
+    void runInstallsAndRestoresWholeSnapshot() {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+        ExecutionContext outer = ExecutionContext.current();
+        ExecutionContext other = ExecutionContext.EMPTY.withTenant(2L, "SCH002", "tenant_sch002").withRoutingSchema("tenant");
+
+        other.run(() -> {
+            assertThat(ExecutionContext.current()).isEqualTo(other);
+            TenantContext.clear();
+        });
+
+        assertThat(ExecutionContext.current()).isEqualTo(outer);
+    }
+
+    @Test
+    void emptySnapshotLeavesNoThreadLocal() {
+        TenantContext.setCurrentTenant(1L, "SCH001", null);
+        TenantContext.clear();
+
+        assertThat(ExecutionContext.current()).isSameAs(ExecutionContext.EMPTY);
+    }
+
+}
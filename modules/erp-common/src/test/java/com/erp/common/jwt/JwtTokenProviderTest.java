@@ -0,0 +1,75 @@
+package com.erp.common.jwt;
+
+import com.erp.common.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256";
+
+    @Test
+    void verifyReturnsClaimsOfValidToken() {
+        JwtTokenProvider provider = provider(900_000, 30_000);
+        String token = provider.generateAccessToken(principal(7L, "alice"));
+
+        VerifiedToken verified = provider.verify(token).orElseThrow();
+
+        assertThat(verified.userId()).isEqualTo(7L);
+        assertThat(verified.username()).isEqualTo("alice");
+        assertThat(verified.tenantCode()).isEqualTo("DEMO");
+        assertThat(verified.tokenType()).isEqualTo("access");
+        // Second call is served from the cache with the same claims
+        assertThat(provider.verify(token)).contains(verified);
+    }
+
+    @Test
+    void verifyRejectsTamperedPayloadWithCachedSignature() {
+        JwtTokenProvider provider = provider(900_000, 30_000);
+        String[] genuine = provider.generateAccessToken(principal(7L, "alice")).split("\\.");
+        String[] other = provider.generateAccessToken(principal(1L, "admin")).split("\\.");
+        assertThat(provider.verify(String.join(".", genuine))).isPresent();
+
+        // Another user's claims under the signature that is now in the cache
+        String tampered = genuine[0] + "." + other[1] + "." + genuine[2];
+
+        assertThat(provider.verify(tampered)).isEmpty();
+        assertThat(provider.verify(String.join(".", genuine))).map(VerifiedToken::userId).contains(7L);
+    }
+
+    @Test
+    void verifyRejectsTokenThatExpiredWhileCached() throws InterruptedException {
+        JwtTokenProvider provider = provider(2_000, 60_000);
+        String token = provider.generateAccessToken(principal(7L, "alice"));
+        Instant expiresAt = provider.verify(token).orElseThrow().expiresAt();
+
+        Thread.sleep(Duration.between(Instant.now(), expiresAt).toMillis() + 50);
+
+        assertThat(provider.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyChecksEveryTokenWhenCacheIsDisabled() {
+        JwtTokenProvider provider = provider(900_000, 0);
+        String[] genuine = provider.generateAccessToken(principal(7L, "alice")).split("\\.");
+        String[] other = provider.generateAccessToken(principal(1L, "admin")).split("\\.");
+
+        assertThat(provider.verify(String.join(".", genuine))).isPresent();
+        assertThat(provider.verify(genuine[0] + "." + other[1] + "." + genuine[2])).isEmpty();
+        assertThat(provider.verify("not-a-token")).isEmpty();
+    }
+
+    private static JwtTokenProvider provider(long accessTokenValidityMs, long verifiedCacheTtlMs) {
+        return new JwtTokenProvider(SECRET, accessTokenValidityMs, 86_400_000, verifiedCacheTtlMs, 100);
+    }
+
+    private static UserPrincipal principal(Long id, String username) {
+        return new UserPrincipal(id, username, username + "@example.com", null, User.UserType.TENANT_MANAGER,
+                3L, "DEMO", true, true);
+    }
+
+}
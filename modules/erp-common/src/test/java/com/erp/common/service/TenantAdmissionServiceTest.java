@@ -0,0 +1,87 @@
+package com.erp.common.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantAdmissionServiceTest {
+
+    private final TenantAdmissionService service = new TenantAdmissionService();
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(service, "globalLimit", 3);
+        ReflectionTestUtils.setField(service, "defaultTenantLimit", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 5);
+        ReflectionTestUtils.setField(service, "queueTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(service, "tenantWeights", "");
+        ReflectionTestUtils.setField(service, "tenantLimits", "");
+    }
+
+    @Test
+    void admitsUpToTenantLimitThenTimesOut() throws Exception {
+        ReflectionTestUtils.setField(service, "queueTimeoutMs", 50L);
+
+        assertThat(service.tryAcquire("A")).isTrue();
+        assertThat(service.tryAcquire("A")).isTrue();
+        assertThat(service.tryAcquire("A")).isFalse();
+        // Another tenant still has its own share
+        assertThat(service.tryAcquire("B")).isTrue();
+    }
+
+    @Test
+    void releasedSlotGoesToQueuedRequest() throws Exception {
+        assertThat(service.tryAcquire("A")).isTrue();
+        assertThat(service.tryAcquire("A")).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> acquire("A"));
+        awaitWaiting(1);
+        service.release("A");
+
+        assertThat(queued.get(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void freedGlobalSlotGoesToTenantWithLowestShare() throws Exception {
+        // A holds 2 and B holds 1 of the 3 global slots
+        assertThat(service.tryAcquire("A")).isTrue();
+        assertThat(service.tryAcquire("A")).isTrue();
+        assertThat(service.tryAcquire("B")).isTrue();
+
+        CompletableFuture<Boolean> waitingC = CompletableFuture.supplyAsync(() -> acquire("C"));
+        awaitWaiting(1);
+        CompletableFuture<Boolean> waitingB = CompletableFuture.supplyAsync(() -> acquire("B"));
+        awaitWaiting(2);
+
+        service.release("A");
+
+        // C has nothing in flight, so it goes ahead of B
+        assertThat(waitingC.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(waitingB).isNotDone();
+
+        service.release("A");
+        assertThat(waitingB.get(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private boolean acquire(String tenantCode) {
+        try {
+            return service.tryAcquire(tenantCode);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void awaitWaiting(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while ((int) service.getMetrics().get("waiting") < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(service.getMetrics().get("waiting")).isEqualTo(count);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.erp.common.service;
+
+import com.erp.common.entity.Tenant;
+import com.erp.common.repository.TenantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the directory against a real persistence context, where tenants loaded earlier in a
+ * transaction outlive the native UPDATEs made to them
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tenant_directory;MODE=MySQL;DATABASE_TO_LOWER=TRUE;INIT=CREATE SCHEMA IF NOT EXISTS erp_master",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_schema=erp_master"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TenantDirectoryRefreshTest {
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void refreshAfterCommitSeesNativeUpdatesToLoadedTenants() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long id = transaction.execute(status -> tenantRepository.save(tenant("DEMO", "demo_schema")).getId());
+
+        // The change marker query is MySQL specific; the tenants come from the real repository
+        TenantRepository repository = mock(TenantRepository.class, delegatesTo(tenantRepository));
+        doReturn("1/marker").when(repository).getChangeMarker();
+        TenantDirectory directory = new TenantDirectory(repository, transactionManager);
+        assertThat(directory.findActiveByCode("DEMO")).isPresent();
+
+        // As TenantManagementService.deleteTenant: load, soft delete natively, refresh after commit
+        transaction.executeWithoutResult(status -> {
+            repository.findById(id).orElseThrow();
+            repository.softDeleteTenant(id, false, "INACTIVE", LocalDateTime.now(), 1L);
+            directory.refreshAfterCommit();
+        });
+
+        assertThat(directory.findActiveByCode("DEMO")).isEmpty();
+        assertThat(directory.findById(id)).map(Tenant::getIsActive).contains(false);
+    }
+
+    private static Tenant tenant(String code, String schemaName) {
+        Tenant tenant = new Tenant();
+        tenant.setTenantName(code + " School");
+        tenant.setTenantCode(code);
+        tenant.setSchemaName(schemaName);
+        tenant.setCreatedAt(LocalDateTime.now());
+        tenant.setUpdatedAt(LocalDateTime.now());
+        return tenant;
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = Tenant.class)
+    @EnableJpaRepositories(basePackageClasses = TenantRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = TenantRepository.class))
+    static class JpaConfig {
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.erp.common.service;
+
+import com.erp.common.entity.Tenant;
+import com.erp.common.repository.TenantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantDirectoryTest {
+
+    private TenantDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        TenantRepository repository = mock(TenantRepository.class);
+        when(repository.getChangeMarker()).thenReturn("2|2026-01-01T00:00");
+        when(repository.findAllTenants()).thenReturn(List.of(
+                tenant(1L, "DEMO", "demo_schema", true),
+                tenant(2L, "OLD", "old_schema", false)));
+        directory = new TenantDirectory(repository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void codeAndSchemaLookupsIgnoreCase() {
+        assertThat(directory.findActiveByCode("demo")).map(Tenant::getId).contains(1L);
+        assertThat(directory.findActiveByCode("Demo")).map(Tenant::getId).contains(1L);
+        assertThat(directory.findActiveBySchemaName("DEMO_SCHEMA")).map(Tenant::getId).contains(1L);
+        assertThat(directory.findActiveBySchemaName("demo_schema")).map(Tenant::getId).contains(1L);
+    }
+
+    @Test
+    void inactiveTenantsAreOnlyFoundById() {
+        assertThat(directory.findActiveByCode("OLD")).isEmpty();
+        assertThat(directory.findActiveBySchemaName("old_schema")).isEmpty();
+        assertThat(directory.findById(2L)).map(Tenant::getTenantCode).contains("OLD");
+    }
+
+    @Test
+    void nullLookupsFindNothing() {
+        assertThat(directory.findActiveByCode(null)).isEmpty();
+        assertThat(directory.findActiveBySchemaName(null)).isEmpty();
+    }
+
+    private static Tenant tenant(Long id, String code, String schemaName, boolean active) {
+        Tenant tenant = new Tenant();
+        tenant.setId(id);
+        tenant.setTenantCode(code);
+        tenant.setSchemaName(schemaName);
+        tenant.setIsActive(active);
+        return tenant;
+    }
+
+}
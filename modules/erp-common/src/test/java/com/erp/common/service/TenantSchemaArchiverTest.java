@@ -0,0 +1,67 @@
+package com.erp.common.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantSchemaArchiverTest {
+
+    private static final String STUDENTS = "CREATE TABLE `students` (\n"
+            + "  `id` bigint NOT NULL AUTO_INCREMENT,\n"
+            + "  `name` varchar(100) DEFAULT 'it''s; -- fine',\n"
+            + "  `class_id` bigint DEFAULT NULL,\n"
+            + "  PRIMARY KEY (`id`),\n"
+            + "  CONSTRAINT `fk_class` FOREIGN KEY (`class_id`) REFERENCES `classes` (`id`)\n"
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+
+    @Test
+    void identifiersAreLimitedToPlainNames() {
+        assertThat(TenantSchemaArchiver.checkIdentifier("school_42")).isEqualTo("school_42");
+
+        for (String name : new String[]{"a`b", "../etc", "a b", "", "x".repeat(65)}) {
+            assertThatThrownBy(() -> TenantSchemaArchiver.checkIdentifier(name))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void tableDefinitionMustCreateOnlyTheNamedTable() {
+        TenantSchemaArchiver.checkTableDefinition(STUDENTS, "students");
+
+        for (String ddl : new String[]{
+                STUDENTS + "; DROP DATABASE `erp_master`",
+                STUDENTS + " /* hidden */",
+                "CREATE TABLE `teachers` (`id` bigint)",
+                "DROP DATABASE `erp_master`",
+                "CREATE TABLE `students` (`id` bigint) AS SELECT * FROM `erp_master`.`users`",
+                "CREATE TABLE `students` (`id` bigint, FOREIGN KEY (`id`) REFERENCES `erp_master`.`users` (`id`))",
+                "CREATE TABLE `students` (`id` bigint) ENGINE=FEDERATED CONNECTION='mysql://host/db/t'",
+                "CREATE TABLE `students` (`id` bigint) DATA DIRECTORY='/tmp'"}) {
+            assertThatThrownBy(() -> TenantSchemaArchiver.checkTableDefinition(ddl, "students"))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void viewDefinitionMustReadOnlyItsOwnSchemaAndRunsWithInvokerRights() {
+        String view = "CREATE ALGORITHM=UNDEFINED DEFINER=`root`@`%` SQL SECURITY DEFINER VIEW `active_students` AS "
+                + "select `s`.`id` AS `id`,`school_1`.`students`.`name` AS `name` "
+                + "from `school_1`.`students` `s` where `s`.`active` = 1";
+
+        assertThat(TenantSchemaArchiver.checkViewDefinition(view, "active_students", "school_1"))
+                .startsWith("CREATE SQL SECURITY INVOKER VIEW `active_students` AS select")
+                .doesNotContain("DEFINER=");
+
+        assertThatThrownBy(() -> TenantSchemaArchiver.checkViewDefinition(
+                view.replace("`school_1`.`students`.`name`", "`erp_master`.`users`.`password`"),
+                "active_students", "school_1"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> TenantSchemaArchiver.checkViewDefinition(view, "other_view", "school_1"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> TenantSchemaArchiver.checkViewDefinition(
+                view + "; DROP DATABASE `erp_master`", "active_students", "school_1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.erp.security.config;
 
+import com.erp.common.filter.TenantAdmissionFilter;
 import com.erp.security.jwt.JwtAuthenticationEntryPoint;
 import com.erp.security.jwt.JwtAuthenticationFilter;
 import com.erp.security.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,10 +35,22 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final TenantAdmissionFilter tenantAdmissionFilter;
+
+    // Raising memory or iterations rehashes each user's password on their next successful login
+    @Value("${app.security.argon2.memory-kb:16384}")
+    private int argon2MemoryKb;
+
+    @Value("${app.security.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${app.security.argon2.parallelism:1}")
+    private int argon2Parallelism;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+        // Salt and hash lengths of Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        return new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKb, argon2Iterations);
     }
 
     @Bean
@@ -105,6 +119,7 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(tenantAdmissionFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
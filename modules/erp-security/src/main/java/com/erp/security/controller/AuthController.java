@@ -3,10 +3,14 @@ package com.erp.security.controller;
 import com.erp.common.dto.ApiResponse;
 import com.erp.common.dto.auth.LoginRequest;
 import com.erp.common.dto.auth.LoginResponse;
+import com.erp.security.exception.LoginLaneBusyException;
 import com.erp.security.service.AuthenticationService;
+import com.erp.security.service.RateLimitingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,14 +21,21 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final RateLimitingService rateLimitingService;
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                           HttpServletRequest request) {
         log.info("Login attempt for username: {}", loginRequest.getUsername());
+        rateLimitingService.checkLogin(request.getRemoteAddr(), loginRequest.getTenantCode(), loginRequest.getUsername());
 
         try {
             LoginResponse loginResponse = authenticationService.authenticate(loginRequest);
             return ResponseEntity.ok(ApiResponse.success("Login successful", loginResponse));
+        } catch (LoginLaneBusyException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                    .body(ApiResponse.error(e.getMessage(), "LOGIN_BUSY"));
         } catch (Exception e) {
             log.error("Login failed for username: {}", loginRequest.getUsername(), e);
             return ResponseEntity.badRequest()
@@ -1,15 +1,23 @@
 package com.erp.security.controller;
 
 import com.erp.common.config.MultiTenantDataSourceConfig;
+import com.erp.common.config.SharedTenantConnectionPool;
+import com.erp.common.config.TenantConnectionBudget;
+import com.erp.common.config.TenantSchemaAvailability;
 import com.erp.common.context.SchemaContext;
 import com.erp.common.context.TenantContext;
 import com.erp.common.dto.ApiResponse;
 import com.erp.common.entity.Tenant;
 import com.erp.common.repository.TenantRepository;
+import com.erp.common.service.TenantAdmissionService;
+import com.erp.security.service.LoginLaneService;
+import com.erp.security.service.RateLimitingService;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -29,6 +37,9 @@ public class HealthCheckController {
     private final JdbcTemplate jdbcTemplate;
     private final TenantRepository tenantRepository;
     private final MultiTenantDataSourceConfig dataSourceConfig;
+    private final TenantAdmissionService admissionService;
+    private final LoginLaneService loginLaneService;
+    private final RateLimitingService rateLimitingService;
 
     @GetMapping
     public ApiResponse<Map<String, Object>> basicHealth() {
@@ -108,28 +119,83 @@ public class HealthCheckController {
     @GetMapping("/connection-pools")
     public ApiResponse<Map<String, Object>> checkConnectionPools() {
         Map<String, Object> poolStats = new HashMap<>();
-        Map<Object, Object> dataSources = dataSourceConfig.getDataSources();
+        Map<String, HikariDataSource> pools = dataSourceConfig.getLivePools();
 
-        for (Map.Entry<Object, Object> entry : dataSources.entrySet()) {
-            if (entry.getValue() instanceof HikariDataSource) {
-                HikariDataSource ds = (HikariDataSource) entry.getValue();
-                HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        for (Map.Entry<String, HikariDataSource> entry : pools.entrySet()) {
+            HikariDataSource ds = entry.getValue();
+            HikariPoolMXBean pool = ds.getHikariPoolMXBean();
 
-                Map<String, Object> stats = new HashMap<>();
-                stats.put("active", pool.getActiveConnections());
-                stats.put("idle", pool.getIdleConnections());
-                stats.put("total", pool.getTotalConnections());
-                stats.put("waiting", pool.getThreadsAwaitingConnection());
-                stats.put("maxPoolSize", ds.getMaximumPoolSize());
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("waiting", pool.getThreadsAwaitingConnection());
+            stats.put("maxPoolSize", ds.getMaximumPoolSize());
 
-                String status = pool.getThreadsAwaitingConnection() > 0 ? "WARNING" : "OK";
-                stats.put("status", status);
+            String status = pool.getThreadsAwaitingConnection() > 0 ? "WARNING" : "OK";
+            stats.put("status", status);
 
-                poolStats.put(entry.getKey().toString(), stats);
-            }
+            poolStats.put(entry.getKey(), stats);
+        }
+
+        SharedTenantConnectionPool sharedPool = dataSourceConfig.getSharedPool();
+        if (sharedPool != null) {
+            HikariPoolMXBean pool = sharedPool.getPool().getHikariPoolMXBean();
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("waiting", pool.getThreadsAwaitingConnection());
+            stats.put("maxPoolSize", sharedPool.getPool().getMaximumPoolSize());
+            stats.put("status", pool.getThreadsAwaitingConnection() > 0 ? "WARNING" : "OK");
+            stats.put("tenants", sharedPool.getUsageSnapshot());
+
+            poolStats.put("shared", stats);
+        }
+
+        TenantConnectionBudget budget = dataSourceConfig.getConnectionBudget();
+        if (budget != null) {
+            poolStats.put("tenantBudget", Map.of(
+                    "allocated", budget.getAllocated(),
+                    "available", budget.getAvailable(),
+                    "max", budget.getMaxConnections()
+            ));
         }
 
         return ApiResponse.success("Connection pool statistics", poolStats);
     }
 
+    /**
+     * Readiness probe: ready once the master schema is migrated and the tenant migration plan is in place.
+     * Tenants still migrating are reported in the body but do not hold back readiness - their
+     * requests get 503 + Retry-After on their own.
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> readiness() {
+        TenantSchemaAvailability availability = dataSourceConfig.getSchemaAvailability();
+        Map<String, Object> progress = availability.getProgress();
+
+        if (!availability.isStartupComplete()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.success("Database initialization in progress", progress));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Ready", progress));
+    }
+
+    @GetMapping("/admission")
+    public ApiResponse<Map<String, Object>> getAdmissionStats() {
+        return ApiResponse.success("Tenant admission statistics", admissionService.getMetrics());
+    }
+
+    @GetMapping("/login-lane")
+    public ApiResponse<Map<String, Object>> getLoginLaneStats() {
+        return ApiResponse.success("Login lane statistics", loginLaneService.getMetrics());
+    }
+
+    @GetMapping("/rate-limits")
+    public ApiResponse<Map<String, Object>> getRateLimitStats() {
+        return ApiResponse.success("Rate limit statistics", rateLimitingService.getMetrics());
+    }
+
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.erp.common.dto.auth.ForgotPasswordRequest;
 import com.erp.common.dto.auth.ResetPasswordRequest;
 import com.erp.common.dto.auth.VerifyResetCodeRequest;
 import com.erp.security.service.PasswordResetService;
+import com.erp.security.service.RateLimitingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,11 +20,14 @@ import org.springframework.web.bind.annotation.*;
 public class PasswordResetController {
 
     private final PasswordResetService passwordResetService;
+    private final RateLimitingService rateLimitingService;
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse<String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<ApiResponse<String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request,
+            HttpServletRequest httpRequest) {
 
         log.info("Password reset requested for email: {}", request.getEmail());
+        rateLimitingService.checkForgotPassword(httpRequest.getRemoteAddr(), request.getEmail());
         try {
             passwordResetService.requestPasswordReset(request);
             return ResponseEntity.ok(ApiResponse.success(
@@ -35,9 +40,11 @@ public class PasswordResetController {
     }
 
     @PostMapping("/verify-reset-code")
-    public ResponseEntity<ApiResponse<String>> verifyResetCode(@Valid @RequestBody VerifyResetCodeRequest request) {
+    public ResponseEntity<ApiResponse<String>> verifyResetCode(@Valid @RequestBody VerifyResetCodeRequest request,
+            HttpServletRequest httpRequest) {
 
         log.info("Reset code verification requested for email: {}", request.getEmail());
+        rateLimitingService.checkVerifyResetCode(httpRequest.getRemoteAddr(), request.getEmail());
         try {
             passwordResetService.verifyResetCode(request);
             return ResponseEntity.ok(ApiResponse.success(
@@ -50,9 +57,11 @@ public class PasswordResetController {
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<ApiResponse<String>> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
+    public ResponseEntity<ApiResponse<String>> resetPassword(@Valid @RequestBody ResetPasswordRequest request,
+            HttpServletRequest httpRequest) {
 
         log.info("Password reset attempted for email: {}", request.getEmail());
+        rateLimitingService.checkResetPassword(httpRequest.getRemoteAddr(), request.getEmail());
         try {
             passwordResetService.resetPassword(request);
             return ResponseEntity.ok(ApiResponse.success(
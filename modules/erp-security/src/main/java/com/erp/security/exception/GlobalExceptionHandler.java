@@ -1,6 +1,7 @@
 package com.erp.security.exception;
 
 import com.erp.common.dto.ApiResponse;
+import com.erp.common.exception.TenantSchemaUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +40,28 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("Access denied. Insufficient permissions.", "ACCESS_DENIED"));
     }
 
+    @ExceptionHandler(TenantSchemaUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleTenantSchemaUnavailable(TenantSchemaUnavailableException ex) {
+        log.debug("Tenant schema unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error("Tenant data is being upgraded. Please retry shortly.", "TENANT_MIGRATING"));
+    }
+
+    @ExceptionHandler(LoginLaneBusyException.class)
+    public ResponseEntity<ApiResponse<Object>> handleLoginLaneBusy(LoginLaneBusyException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage(), "LOGIN_BUSY"));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage(), "RATE_LIMITED"));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -0,0 +1,18 @@
+package com.erp.security.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the login lane has no room for another password check; mapped to 429 with a Retry-After header
+ */
+@Getter
+public class LoginLaneBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginLaneBusyException(long retryAfterSeconds) {
+        super("Too many logins in progress. Please retry shortly.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
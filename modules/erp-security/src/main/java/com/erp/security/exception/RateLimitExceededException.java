@@ -0,0 +1,20 @@
+package com.erp.security.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a caller has used up a rate limit; mapped to 429 with a Retry-After header
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final String limitName;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, String limitName, long retryAfterSeconds) {
+        super(message);
+        this.limitName = limitName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.erp.security.jwt;
 
 import com.erp.common.jwt.JwtTokenProvider;
-import com.erp.security.service.CustomUserDetailsService;
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.common.jwt.VerifiedToken;
+import com.erp.security.service.TokenRevocationService;
 import com.erp.common.context.TenantContext;
-import com.erp.common.context.SchemaContext;
+import com.erp.common.context.ExecutionContext;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,13 +14,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -26,7 +28,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -42,37 +44,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract and validate JWT
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // Extract user information from token
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                Long tenantId = tokenProvider.getTenantIdFromToken(jwt);
-                String tenantCode = tokenProvider.getTenantCodeFromToken(jwt);
+            // Signature checked once per token, and not again while it sits in the verified-token cache
+            Optional<VerifiedToken> verified = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : Optional.empty();
+            if (verified.isPresent()) {
+                // The token carries everything the principal needs, so no master database lookup here
+                UserPrincipal principal = verified.get().toUserPrincipal();
 
-                log.debug("JWT validated - User: {}, TenantID: {}, TenantCode: {}",
-                        username, tenantId, tenantCode);
-
-                // Set tenant context if user belongs to a tenant
-                if (tenantCode != null && tenantId != null) {
-                    TenantContext.setCurrentTenant(tenantId, tenantCode, null);
-                    log.debug("Set TenantContext - ID: {}, Code: {}", tenantId, tenantCode);
+                if (tokenRevocationService.isRevoked(principal, verified.get().issuedAt())) {
+                    log.debug("Rejected revoked token of user: {}", principal.getUsername());
                 } else {
-                    log.debug("Super admin user (no tenant context)");
-                }
+                    log.debug("JWT validated - User: {}, TenantID: {}, TenantCode: {}",
+                            principal.getUsername(), principal.getTenantId(), principal.getTenantCode());
 
-                // DO NOT set SchemaContext here - let interceptor handle it based on endpoint
+                    // Set tenant context if user belongs to a tenant
+                    if (principal.getTenantCode() != null && principal.getTenantId() != null) {
+                        TenantContext.setCurrentTenant(principal.getTenantId(), principal.getTenantCode(), null);
+                        log.debug("Set TenantContext - ID: {}, Code: {}", principal.getTenantId(), principal.getTenantCode());
+                    } else {
+                        log.debug("Super admin user (no tenant context)");
+                    }
 
-                // Load user details and set security context
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // DO NOT set SchemaContext here - let interceptor handle it based on endpoint
 
-                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    principal, null, principal.getAuthorities());
                     authentication.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request));
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Authentication set for user: {}", username);
+                    log.debug("Authentication set for user: {}", principal.getUsername());
                 }
             }
         } catch (Exception ex) {
@@ -91,8 +92,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private void clearAllContexts() {
-        TenantContext.clear();
-        SchemaContext.clear();
+        // Drops tenant and schema state in one step, so nothing leaks to the next request on this worker
+        ExecutionContext.clear();
         SecurityContextHolder.clearContext();
     }
 
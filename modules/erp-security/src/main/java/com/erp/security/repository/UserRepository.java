@@ -220,4 +220,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
                                     @Param("lockedUntil") LocalDateTime lockedUntil, @Param("failedAttempts") Integer failedAttempts,
                                     @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedBy") Long updatedBy);
 
-}
\ No newline at end of file
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE erp_master.users
+            SET tokens_valid_after = :validAfter, updated_at = updated_at
+            WHERE id = :userId
+            """, nativeQuery = true)
+    int updateTokensValidAfter(@Param("userId") Long userId, @Param("validAfter") LocalDateTime validAfter);
+
+    /**
+     * (id, tokens_valid_after) of users whose tokens were revoked at or after the given time
+     */
+    @Query(value = "SELECT id, tokens_valid_after FROM erp_master.users WHERE tokens_valid_after >= :since",
+            nativeQuery = true)
+    List<Object[]> findTokenRevocationsSince(@Param("since") LocalDateTime since);
+
+}
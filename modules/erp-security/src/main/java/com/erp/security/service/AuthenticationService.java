@@ -8,13 +8,13 @@ import com.erp.common.dto.auth.LoginResponse;
 import com.erp.common.entity.Tenant;
 import com.erp.common.entity.User;
 import com.erp.security.exception.AuthenticationException;
+import com.erp.security.exception.LoginLaneBusyException;
 import com.erp.common.jwt.JwtTokenProvider;
 import com.erp.common.jwt.UserPrincipal;
-import com.erp.common.repository.TenantRepository;
-import com.erp.security.repository.UserRepository;
+import com.erp.common.jwt.VerifiedToken;
+import com.erp.common.service.TenantDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,16 +26,17 @@ import java.time.LocalDateTime;
 @ForceMasterSchema
 public class AuthenticationService {
 
-    private final UserRepository userRepository;
-    private final TenantRepository tenantRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final TenantDirectory tenantDirectory;
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
-
-    private static final int MAX_LOGIN_ATTEMPTS = 5;
-    private static final int LOCKOUT_DURATION_MINUTES = 30;
-
-    @Transactional
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginLaneService loginLaneService;
+    private final UserCredentialService userCredentialService;
+
+    /**
+     * Not transactional: the user is loaded and the login recorded in short transactions of their
+     * own, so no connection is held while the password is checked on the login lane
+     */
     public LoginResponse authenticate(LoginRequest loginRequest) {
         // CRITICAL: Clear ALL contexts before login to ensure clean state
         TenantContext.clear();
@@ -54,39 +55,26 @@ public class AuthenticationService {
                     TenantContext.getCurrentTenant(), SchemaContext.getCurrentSchema());
 
             // Load user from master database
-            UserPrincipal userPrincipal = (UserPrincipal) userDetailsService
-                    .loadUserByUsernameAndTenant(loginRequest.getUsername(), loginRequest.getTenantCode());
-
-            User user = userRepository.findById(userPrincipal.getId())
-                    .orElseThrow(() -> new AuthenticationException("User not found"));
+            UserCredentialService.LoginCandidate candidate = userCredentialService
+                    .loadLoginCandidate(loginRequest.getUsername(), loginRequest.getTenantCode());
+            UserPrincipal userPrincipal = candidate.principal();
+            User user = candidate.user();
 
             // Check if account is locked
             if (isAccountLocked(user)) {
                 throw new AuthenticationException("Account is temporarily locked due to multiple failed login attempts");
             }
 
-            // Validate password
-            if (!passwordEncoder.matches(loginRequest.getPassword(), userPrincipal.getPassword())) {
-                handleFailedLogin(user);
+            // Validate password on the login lane
+            if (!loginLaneService.matches(loginRequest.getPassword(), userPrincipal.getPassword())) {
+                userCredentialService.recordFailedLogin(user);
                 throw new AuthenticationException("Invalid credentials");
             }
 
-            // Reset failed attempts and update last login on successful authentication
-            int updated = userRepository.updateLoginInfo(
-                    user.getId(),
-                    LocalDateTime.now(),
-                    0, // reset failed attempts
-                    null, // clear account lock
-                    LocalDateTime.now(),
-                    user.getId()
-            );
-
-            if (updated == 0) {
-                log.warn("Failed to update login info for user: {}", user.getId());
-                throw new AuthenticationException("Failed to update user login information");
-            }
+            String upgradedHash = rehashIfOutdated(user, loginRequest.getPassword(), userPrincipal.getPassword());
 
-            log.info("Successfully updated login info for user: {}", user.getId());
+            // Reset failed attempts and update last login on successful authentication
+            userCredentialService.recordSuccessfulLogin(user.getId(), upgradedHash);
 
             // Generate tokens
             String accessToken = tokenProvider.generateAccessToken(userPrincipal);
@@ -98,6 +86,9 @@ public class AuthenticationService {
             // Build response
             return buildLoginResponse(accessToken, refreshToken, userPrincipal);
 
+        } catch (LoginLaneBusyException e) {
+            // Not a failed login: the caller retries after the Retry-After delay
+            throw e;
         } catch (Exception e) {
             log.error("Authentication failed for user: {}", loginRequest.getUsername(), e);
             throw new AuthenticationException("Authentication failed: " + e.getMessage());
@@ -117,16 +108,19 @@ public class AuthenticationService {
         SchemaContext.useMasterSchema();
 
         try {
-            if (!tokenProvider.validateToken(refreshToken)) {
-                throw new AuthenticationException("Invalid refresh token");
-            }
+            VerifiedToken verified = tokenProvider.verify(refreshToken)
+                    .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
 
-            if (!"refresh".equals(tokenProvider.getTokenTypeFromToken(refreshToken))) {
+            if (!"refresh".equals(verified.tokenType())) {
                 throw new AuthenticationException("Invalid token type");
             }
 
-            String username = tokenProvider.getUsernameFromToken(refreshToken);
-            UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+            UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(verified.username());
+
+            // A password reset must also retire refresh tokens handed out before it
+            if (tokenRevocationService.isRevoked(userPrincipal, verified.issuedAt())) {
+                throw new AuthenticationException("Refresh token has been revoked");
+            }
 
             // Generate new access token
             String newAccessToken = tokenProvider.generateAccessToken(userPrincipal);
@@ -151,32 +145,17 @@ public class AuthenticationService {
                 user.getAccountLockedUntil().isAfter(LocalDateTime.now());
     }
 
-    private void handleFailedLogin(User user) {
-        // Ensure we're using master schema for user updates
-        String currentSchema = SchemaContext.getCurrentSchema();
-        if (!"master".equals(currentSchema)) {
-            SchemaContext.useMasterSchema();
-        }
-
-        int attempts = user.getFailedLoginAttempts() + 1;
-        LocalDateTime lockedUntil = null;
-
-        if (attempts >= MAX_LOGIN_ATTEMPTS) {
-            lockedUntil = LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES);
-            log.warn("Account locked for user: {} due to {} failed login attempts",
-                    user.getUsername(), attempts);
-        }
-
-        // Use native query to update failed login attempts
-        int updated = userRepository.updateFailedLoginAttempts(user.getId(),
-                attempts,
-                lockedUntil,
-                LocalDateTime.now(),
-                0L
-        );
-
-        if (updated == 0) {
-            log.error("Failed to update failed login attempts for user: {}", user.getId());
+    /**
+     * Stronger hash of the password once the Argon2 parameters have been raised; a busy lane only
+     * postpones this to a later login
+     * @return the new hash, or null to keep the stored one
+     */
+    private String rehashIfOutdated(User user, String rawPassword, String encodedPassword) {
+        try {
+            return loginLaneService.rehashIfOutdated(rawPassword, encodedPassword);
+        } catch (LoginLaneBusyException e) {
+            log.debug("Login lane busy, keeping the current password hash of user: {}", user.getId());
+            return null;
         }
     }
 
@@ -211,7 +190,7 @@ public class AuthenticationService {
             SchemaContext.useMasterSchema();
         }
 
-        Tenant tenant = tenantRepository.findById(userPrincipal.getTenantId()).orElse(null);
+        Tenant tenant = tenantDirectory.findById(userPrincipal.getTenantId()).orElse(null);
         if (tenant == null) {
             return null;
         }
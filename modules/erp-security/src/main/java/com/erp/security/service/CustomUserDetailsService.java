@@ -4,7 +4,7 @@ import com.erp.common.annotation.ForceMasterSchema;
 import com.erp.common.entity.Tenant;
 import com.erp.common.entity.User;
 import com.erp.common.jwt.UserPrincipal;
-import com.erp.common.repository.TenantRepository;
+import com.erp.common.service.TenantDirectory;
 import com.erp.security.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final TenantRepository tenantRepository;
+    private final TenantDirectory tenantDirectory;
 
     @Override
     // @Transactional(readOnly = true)  // REMOVED
@@ -36,7 +36,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         String tenantCode = null;
         if (user.getTenantId() != null) {
-            Tenant tenant = tenantRepository.findById(user.getTenantId())
+            Tenant tenant = tenantDirectory.findById(user.getTenantId())
                     .orElse(null);
             if (tenant != null) {
                 tenantCode = tenant.getTenantCode();
@@ -67,7 +67,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             log.debug("Super admin user loaded: {}", username);
         } else {
             // Tenant user login
-            Tenant tenant = tenantRepository.findByTenantCodeAndIsActiveTrue(tenantCode)
+            Tenant tenant = tenantDirectory.findActiveByCode(tenantCode)
                     .orElseThrow(() -> {
                         log.error("Tenant not found: {}", tenantCode);
                         return new UsernameNotFoundException("Tenant not found: " + tenantCode);
@@ -33,6 +33,7 @@ public class EmailChangeService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final HttpServletRequest request;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${app.email.verification-token-expiry-hours:24}")
     private int verificationTokenExpiryHours;
@@ -132,6 +133,8 @@ public class EmailChangeService {
         if (userUpdated == 0) {
             throw new RuntimeException("Failed to update user email");
         }
+        // Tokens carry the email
+        tokenRevocationService.revokeUser(user.getId());
 
         int tokenUpdated = tokenRepository.updateTokenVerified(
                 verificationToken.getId(),
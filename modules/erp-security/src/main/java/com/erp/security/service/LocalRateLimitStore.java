@@ -0,0 +1,104 @@
+package com.erp.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets held in this instance. A bucket is updated with compare-and-set, so concurrent
+ * requests on the same key never block each other. A bucket untouched for its whole period has
+ * refilled completely and is evicted, as it is no different from a new one.
+ */
+@Component
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    public LocalRateLimitStore(@Value("${app.rate-limit.max-keys:100000}") long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(bucket.limit.periodMillis());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, bucket, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, bucket, currentTime);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimit limit, long nowMillis) {
+        return buckets.get(key, k -> new Bucket(limit, nowMillis)).tryConsume(nowMillis);
+    }
+
+    @Override
+    public long peek(String key, RateLimit limit, long nowMillis) {
+        // A missing bucket is full; peeking does not create one
+        Bucket bucket = buckets.getIfPresent(key);
+        return bucket == null ? 0 : bucket.waitMillis(bucket.state.get(), nowMillis);
+    }
+
+    @Override
+    public void reset(String key) {
+        buckets.invalidate(key);
+    }
+
+    @Override
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static class Bucket {
+        private final RateLimit limit;
+        private final double tokensPerMilli;
+        private final AtomicReference<State> state;
+
+        private Bucket(RateLimit limit, long nowMillis) {
+            this.limit = limit;
+            this.tokensPerMilli = (double) limit.capacity() / limit.periodMillis();
+            this.state = new AtomicReference<>(new State(limit.capacity(), nowMillis));
+        }
+
+        private long tryConsume(long nowMillis) {
+            while (true) {
+                State current = state.get();
+                double tokens = tokensAt(current, nowMillis);
+                if (tokens < 1) {
+                    return waitMillis(current, nowMillis);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(nowMillis, current.updatedAt())))) {
+                    return 0;
+                }
+            }
+        }
+
+        private long waitMillis(State current, long nowMillis) {
+            double tokens = tokensAt(current, nowMillis);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerMilli);
+        }
+
+        private double tokensAt(State current, long nowMillis) {
+            long elapsed = Math.max(0, nowMillis - current.updatedAt());
+            return Math.min(limit.capacity(), current.tokens() + elapsed * tokensPerMilli);
+        }
+    }
+
+}
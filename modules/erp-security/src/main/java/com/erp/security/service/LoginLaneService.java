@@ -0,0 +1,160 @@
+package com.erp.security.service;
+
+import com.erp.security.exception.LoginLaneBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the Argon2 work of logins on a fixed pool sized to the CPUs, so a burst of logins queues
+ * here instead of taking every request thread and starving the rest of the application. When the
+ * queue is full, or a check waits longer than the timeout, the login is turned away at once with
+ * {@link LoginLaneBusyException}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginLaneService {
+
+    private final PasswordEncoder passwordEncoder;
+
+    // Argon2 is CPU bound, more threads than cores only adds contention; 0 = number of CPUs
+    @Value("${app.login-lane.threads:0}")
+    private int threads;
+
+    @Value("${app.login-lane.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Longest a login waits for its hash, including time in the queue
+    @Value("${app.login-lane.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${app.login-lane.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+
+    @PostConstruct
+    void startExecutor() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> new Thread(task, "login-lane-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Login lane started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * New hash of a password that just matched, if its hash was made with weaker parameters than
+     * the encoder's current ones
+     * @return the new hash, or null if the stored one is up to date
+     */
+    public String rehashIfOutdated(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return null;
+        }
+        String upgraded = run(() -> passwordEncoder.encode(rawPassword));
+        rehashed.increment();
+        return upgraded;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long completedCount = completed.sum();
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("threads", executor.getCorePoolSize());
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("waiting", executor.getQueue().size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("completed", completedCount);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("rehashed", rehashed.sum());
+        metrics.put("avgQueueMillis", completedCount == 0 ? 0 : queueNanos.sum() / completedCount / 1_000_000);
+        metrics.put("maxQueueMillis", maxQueueNanos.get() / 1_000_000);
+        metrics.put("avgHashMillis", completedCount == 0 ? 0 : hashNanos.sum() / completedCount / 1_000_000);
+        metrics.put("maxHashMillis", maxHashNanos.get() / 1_000_000);
+        return metrics;
+    }
+
+    private <T> T run(Callable<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long finished = System.nanoTime();
+                    record(started - submitted, finished - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Login lane full ({} waiting), rejecting login", executor.getQueue().size());
+            throw new LoginLaneBusyException(retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the check if it is still queued; one already hashing runs to completion
+            future.cancel(true);
+            timedOut.increment();
+            log.warn("Password check waited more than {} ms in the login lane", timeoutMs);
+            throw new LoginLaneBusyException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for password check", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password check failed", e.getCause());
+        }
+    }
+
+    private void record(long queuedNanos, long hashedNanos) {
+        completed.increment();
+        queueNanos.add(queuedNanos);
+        hashNanos.add(hashedNanos);
+        maxQueueNanos.accumulate(queuedNanos);
+        maxHashNanos.accumulate(hashedNanos);
+    }
+
+}
@@ -32,6 +32,7 @@ public class PasswordResetService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final HttpServletRequest request;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${app.email.reset-code-expiry-minutes:30}")
     private int resetCodeExpiryMinutes;
@@ -138,6 +139,7 @@ public class PasswordResetService {
         if (updated == 0) {
             throw new RuntimeException("Failed to update password");
         }
+        tokenRevocationService.revokeUser(user.getId());
 
         LocalDateTime now = LocalDateTime.now();
         int tokenUpdated = resetTokenRepository.updateResetTokenUsed(
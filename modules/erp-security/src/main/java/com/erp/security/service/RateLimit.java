@@ -0,0 +1,24 @@
+package com.erp.security.service;
+
+/**
+ * A token bucket: up to {@code capacity} requests at once, refilled evenly over {@code periodMillis}
+ */
+public record RateLimit(String name, int capacity, long periodMillis) {
+
+    /**
+     * @param spec "count/seconds", e.g. "30/60" for 30 requests a minute
+     */
+    static RateLimit parse(String name, String spec) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit " + name + " must be count/seconds, got: " + spec);
+        }
+        int capacity = Integer.parseInt(parts[0].trim());
+        long seconds = Long.parseLong(parts[1].trim());
+        if (capacity < 1 || seconds < 1) {
+            throw new IllegalArgumentException("Rate limit " + name + " must allow at least 1 request per second or longer");
+        }
+        return new RateLimit(name, capacity, seconds * 1000);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.erp.security.service;
+
+/**
+ * Where token buckets live. {@link LocalRateLimitStore} keeps them in this instance; replicas share
+ * limits by registering a {@code @Primary} store backed by a shared cache that applies
+ * {@link #tryConsume} atomically on its side (e.g. a Redis script). Keys are already namespaced
+ * by limit, so they can be used as-is.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Take one token from the key's bucket, creating it full if it does not exist
+     * @return 0 if a token was taken, otherwise milliseconds until the next one is available
+     */
+    long tryConsume(String key, RateLimit limit, long nowMillis);
+
+    /**
+     * Like {@link #tryConsume} but leaves the bucket as it is, so a request can check every bucket
+     * it falls under before taking from any; need not be atomic with a later tryConsume
+     * @return 0 if a token is available, otherwise milliseconds until the next one is
+     */
+    long peek(String key, RateLimit limit, long nowMillis);
+
+    /**
+     * Forget the key's bucket, so it starts full again
+     */
+    void reset(String key);
+
+    /**
+     * Buckets currently held, for metrics; -1 if the store cannot tell
+     */
+    long size();
+
+}
@@ -1,53 +1,204 @@
 package com.erp.security.service;
 
-import lombok.Getter;
+import com.erp.common.entity.Tenant;
+import com.erp.common.service.TenantDirectory;
+import com.erp.security.exception.RateLimitExceededException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Token bucket limits on the authentication endpoints, keyed by client IP, user (or email) and
+ * tenant. A request is turned away with {@link RateLimitExceededException} if any bucket it falls
+ * under is empty, and then takes nothing from the others; otherwise it takes a token from each.
+ * Subjects match case-insensitively. These sit in front of the database-backed limits on reset and
+ * email change requests, which still apply.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class RateLimitingService {
 
-    // In-memory storage for rate limiting (in production, use Redis)
-    private final ConcurrentMap<String, UserAttempts> passwordChangeAttempts = new ConcurrentHashMap<>();
+    private final RateLimitStore store;
+    private final TenantDirectory tenantDirectory;
 
-    private static final int MAX_PASSWORD_CHANGE_ATTEMPTS = 5; // per hour
-    private static final int RATE_LIMIT_WINDOW_HOURS = 1;
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
 
-    public void checkPasswordChangeRateLimit(Long userId) {
-        String key = "password_change_" + userId;
-        UserAttempts attempts = passwordChangeAttempts.computeIfAbsent(key, k -> new UserAttempts());
+    // Off unless client IPs are forwarded by a trusted proxy; otherwise all clients share the proxy's address
+    @Value("${app.rate-limit.per-ip-enabled:false}")
+    private boolean perIpEnabled;
+
+    // All limits are count/seconds
+    @Value("${app.rate-limit.login.per-ip:30/60}")
+    private String loginPerIp;
+
+    @Value("${app.rate-limit.login.per-user:10/60}")
+    private String loginPerUser;
+
+    @Value("${app.rate-limit.login.per-tenant:1200/60}")
+    private String loginPerTenant;
+
+    @Value("${app.rate-limit.forgot-password.per-ip:10/3600}")
+    private String forgotPasswordPerIp;
+
+    @Value("${app.rate-limit.forgot-password.per-email:5/3600}")
+    private String forgotPasswordPerEmail;
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime windowStart = now.minusHours(RATE_LIMIT_WINDOW_HOURS);
+    @Value("${app.rate-limit.verify-reset-code.per-ip:30/600}")
+    private String verifyResetCodePerIp;
 
-        // Clean old attempts
-        attempts.getAttemptTimes().removeIf(time -> time.isBefore(windowStart));
+    @Value("${app.rate-limit.verify-reset-code.per-email:10/600}")
+    private String verifyResetCodePerEmail;
 
-        // Check if rate limit exceeded
-        if (attempts.getAttemptTimes().size() >= MAX_PASSWORD_CHANGE_ATTEMPTS) {
-            log.warn("Password change rate limit exceeded for user: {}", userId);
-            throw new RuntimeException("Too many password change attempts. Please try again in an hour.");
+    @Value("${app.rate-limit.reset-password.per-ip:30/600}")
+    private String resetPasswordPerIp;
+
+    @Value("${app.rate-limit.reset-password.per-email:10/600}")
+    private String resetPasswordPerEmail;
+
+    @Value("${app.rate-limit.password-change.per-user:5/3600}")
+    private String passwordChangePerUser;
+
+    private final Map<String, RateLimit> limits = new LinkedHashMap<>();
+    private final Map<String, Counters> counters = new HashMap<>();
+
+    private static class Counters {
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private record Bucket(String limitName, String subject) {
+    }
+
+    @PostConstruct
+    void loadLimits() {
+        register("login.per-ip", loginPerIp);
+        register("login.per-user", loginPerUser);
+        register("login.per-tenant", loginPerTenant);
+        register("forgot-password.per-ip", forgotPasswordPerIp);
+        register("forgot-password.per-email", forgotPasswordPerEmail);
+        register("verify-reset-code.per-ip", verifyResetCodePerIp);
+        register("verify-reset-code.per-email", verifyResetCodePerEmail);
+        register("reset-password.per-ip", resetPasswordPerIp);
+        register("reset-password.per-email", resetPasswordPerEmail);
+        register("password-change.per-user", passwordChangePerUser);
+    }
+
+    public void checkLogin(String clientIp, String tenantCode, String username) {
+        Bucket perIp = new Bucket("login.per-ip", clientIp);
+        Bucket perUser = new Bucket("login.per-user", normalize(tenantCode) + "/" + normalize(username));
+        // Only existing tenants have a bucket, so made-up codes neither count against one nor pile up in the store
+        Optional<Tenant> tenant = tenantCode == null ? Optional.empty() : tenantDirectory.findActiveByCode(tenantCode);
+        if (tenant.isPresent()) {
+            check("Too many login attempts.", perIp, perUser, new Bucket("login.per-tenant", tenant.get().getTenantCode()));
+        } else {
+            check("Too many login attempts.", perIp, perUser);
         }
+    }
+
+    public void checkForgotPassword(String clientIp, String email) {
+        check("Too many password reset requests.",
+                new Bucket("forgot-password.per-ip", clientIp), new Bucket("forgot-password.per-email", email));
+    }
+
+    public void checkVerifyResetCode(String clientIp, String email) {
+        check("Too many reset code attempts.",
+                new Bucket("verify-reset-code.per-ip", clientIp), new Bucket("verify-reset-code.per-email", email));
+    }
 
-        // Record this attempt
-        attempts.getAttemptTimes().add(now);
+    public void checkResetPassword(String clientIp, String email) {
+        check("Too many password reset attempts.",
+                new Bucket("reset-password.per-ip", clientIp), new Bucket("reset-password.per-email", email));
+    }
+
+    public void checkPasswordChangeRateLimit(Long userId) {
+        check("Too many password change attempts.", new Bucket("password-change.per-user", String.valueOf(userId)));
     }
 
     public void clearPasswordChangeAttempts(Long userId) {
-        String key = "password_change_" + userId;
-        passwordChangeAttempts.remove(key);
+        store.reset(key("password-change.per-user", String.valueOf(userId)));
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> perLimit = new LinkedHashMap<>();
+        limits.forEach((name, limit) -> {
+            Counters limitCounters = counters.get(name);
+            Map<String, Object> map = new HashMap<>();
+            map.put("capacity", limit.capacity());
+            map.put("periodSeconds", limit.periodMillis() / 1000);
+            map.put("allowed", limitCounters.allowed.sum());
+            map.put("rejected", limitCounters.rejected.sum());
+            perLimit.put(name, map);
+        });
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("perIpEnabled", perIpEnabled);
+        metrics.put("store", store.getClass().getSimpleName());
+        metrics.put("keys", store.size());
+        metrics.put("limits", perLimit);
+        return metrics;
+    }
+
+    private void register(String name, String spec) {
+        limits.put(name, RateLimit.parse(name, spec));
+        counters.put(name, new Counters());
+    }
+
+    private void check(String message, Bucket... buckets) {
+        if (!enabled) {
+            return;
+        }
+
+        if (!perIpEnabled) {
+            buckets = Arrays.stream(buckets).filter(bucket -> !bucket.limitName().endsWith(".per-ip")).toArray(Bucket[]::new);
+        }
+
+        long now = System.currentTimeMillis();
+        // Every bucket is checked before any is taken from, so a rejected request costs the others nothing
+        for (Bucket bucket : buckets) {
+            long waitMillis = store.peek(key(bucket.limitName(), bucket.subject()), limits.get(bucket.limitName()), now);
+            if (waitMillis > 0) {
+                reject(message, bucket, waitMillis);
+            }
+        }
+        for (Bucket bucket : buckets) {
+            long waitMillis = store.tryConsume(key(bucket.limitName(), bucket.subject()), limits.get(bucket.limitName()), now);
+            if (waitMillis > 0) {
+                // Another request took the last token since the check
+                reject(message, bucket, waitMillis);
+            }
+        }
+        for (Bucket bucket : buckets) {
+            counters.get(bucket.limitName()).allowed.increment();
+        }
     }
 
-    @Getter
-    private static class UserAttempts {
-        private final java.util.List<LocalDateTime> attemptTimes = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private void reject(String message, Bucket bucket, long waitMillis) {
+        counters.get(bucket.limitName()).rejected.increment();
+        long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+        log.warn("Rate limit {} exceeded for {}, retry in {} s", bucket.limitName(), bucket.subject(), retryAfterSeconds);
+        throw new RateLimitExceededException(message + " Please try again in " + retryAfterSeconds + " seconds.",
+                bucket.limitName(), retryAfterSeconds);
+    }
+
+    private static String key(String limitName, String subject) {
+        return limitName + ":" + normalize(subject);
+    }
 
+    private static String normalize(String subject) {
+        return subject == null ? "" : subject.trim().toLowerCase(Locale.ROOT);
     }
 
 }
@@ -0,0 +1,119 @@
+package com.erp.security.service;
+
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.common.repository.TenantRepository;
+import com.erp.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Tokens issued before a user's (or their tenant's) status, password or email changed. Requests are
+ * authenticated from token claims alone, so these are the only changes that reach a live token.
+ * Revocations are stored in tokens_valid_after of users/tenants and polled by every instance into
+ * in-memory maps, so the per-request check never queries the database; other instances apply a
+ * revocation within one poll interval. Entries expire with the longest-lived token they could apply to.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    // Re-read revocations written by transactions that committed after the previous poll had run
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final TenantRepository tenantRepository;
+    private final Cache<Long, Instant> userRevocations;
+    private final Cache<Long, Instant> tenantRevocations;
+
+    private volatile LocalDateTime polledUpTo;
+
+    public TokenRevocationService(UserRepository userRepository, TenantRepository tenantRepository,
+            @Value("${app.jwt.refresh-token-validity:86400000}") long refreshTokenValidityMs) {
+        this.userRepository = userRepository;
+        this.tenantRepository = tenantRepository;
+        Duration retention = Duration.ofMillis(refreshTokenValidityMs);
+        this.userRevocations = Caffeine.newBuilder().expireAfterWrite(retention).build();
+        this.tenantRevocations = Caffeine.newBuilder().expireAfterWrite(retention).build();
+        // The first poll loads every revocation that can still apply to a live token
+        this.polledUpTo = LocalDateTime.now().minus(retention);
+    }
+
+    /**
+     * Reject the user's tokens issued up to now; they have to log in again
+     */
+    public void revokeUser(Long userId) {
+        Instant now = now();
+        userRepository.updateTokensValidAfter(userId, toLocal(now));
+        userRevocations.put(userId, now);
+        log.info("Revoked tokens of user {}", userId);
+    }
+
+    public void revokeTenant(Long tenantId) {
+        Instant now = now();
+        tenantRepository.updateTokensValidAfter(tenantId, toLocal(now));
+        tenantRevocations.put(tenantId, now);
+        log.info("Revoked tokens of all users of tenant {}", tenantId);
+    }
+
+    public boolean isRevoked(UserPrincipal principal, Instant issuedAt) {
+        return issuedBefore(userRevocations.getIfPresent(principal.getId()), issuedAt)
+                || (principal.getTenantId() != null
+                && issuedBefore(tenantRevocations.getIfPresent(principal.getTenantId()), issuedAt));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-poll-interval-ms:5000}", initialDelay = 0)
+    public void pollRevocations() {
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        LocalDateTime since = polledUpTo.minus(POLL_OVERLAP);
+        try {
+            int users = merge(userRevocations, userRepository.findTokenRevocationsSince(since));
+            int tenants = merge(tenantRevocations, tenantRepository.findTokenRevocationsSince(since));
+            polledUpTo = pollStartedAt;
+            log.debug("Polled token revocations since {}: {} users, {} tenants", since, users, tenants);
+        } catch (Exception e) {
+            // Master schema may not be migrated yet on startup; retried on the next poll
+            log.warn("Token revocation poll failed: {}", e.getMessage());
+        }
+    }
+
+    private static int merge(Cache<Long, Instant> revocations, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            Instant revokedAt = toInstant(row[1]);
+            revocations.asMap().merge(id, revokedAt, (current, polled) -> polled.isAfter(current) ? polled : current);
+        }
+        return rows.size();
+    }
+
+    // Token issue times have second precision; a token issued in the second of the revocation stays valid
+    private static boolean issuedBefore(Instant revokedAt, Instant issuedAt) {
+        return revokedAt != null && issuedAt.isBefore(revokedAt);
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    // DATETIME columns hold local time, like the rest of erp_master
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(Object value) {
+        LocalDateTime local = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+        return local.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.erp.security.service;
+
+import com.erp.common.annotation.ForceMasterSchema;
+import com.erp.common.entity.User;
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.security.exception.AuthenticationException;
+import com.erp.security.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The database side of password checks, each step in its own short master transaction. Argon2 takes
+ * far longer than these statements, so callers hash between the calls with no pooled connection held.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ForceMasterSchema
+public class UserCredentialService {
+
+    private static final int MAX_LOGIN_ATTEMPTS = 5;
+    private static final int LOCKOUT_DURATION_MINUTES = 30;
+
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    public record LoginCandidate(UserPrincipal principal, User user) {
+    }
+
+    @Transactional(readOnly = true)
+    public LoginCandidate loadLoginCandidate(String username, String tenantCode) {
+        UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsernameAndTenant(username, tenantCode);
+        User user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new AuthenticationException("User not found"));
+        return new LoginCandidate(principal, user);
+    }
+
+    /**
+     * Reset the failed attempts, stamp the login and store the upgraded password hash, if any
+     */
+    @Transactional
+    public void recordSuccessfulLogin(Long userId, String upgradedPasswordHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (upgradedPasswordHash != null) {
+            userRepository.updateUserPassword(userId, upgradedPasswordHash, null, 0, now, userId);
+            log.info("Upgraded password hash parameters for user: {}", userId);
+        }
+
+        int updated = userRepository.updateLoginInfo(
+                userId,
+                now,
+                0, // reset failed attempts
+                null, // clear account lock
+                now,
+                userId
+        );
+
+        if (updated == 0) {
+            log.warn("Failed to update login info for user: {}", userId);
+            throw new AuthenticationException("Failed to update user login information");
+        }
+
+        log.info("Successfully updated login info for user: {}", userId);
+    }
+
+    @Transactional
+    public void recordFailedLogin(User user) {
+        int attempts = user.getFailedLoginAttempts() + 1;
+        LocalDateTime lockedUntil = null;
+
+        if (attempts >= MAX_LOGIN_ATTEMPTS) {
+            lockedUntil = LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES);
+            log.warn("Account locked for user: {} due to {} failed login attempts",
+                    user.getUsername(), attempts);
+        }
+
+        // Use native query to update failed login attempts
+        int updated = userRepository.updateFailedLoginAttempts(user.getId(),
+                attempts,
+                lockedUntil,
+                LocalDateTime.now(),
+                0L
+        );
+
+        if (updated == 0) {
+            log.error("Failed to update failed login attempts for user: {}", user.getId());
+        }
+    }
+
+    /**
+     * Store a new password hash and retire the tokens issued under the old password
+     */
+    @Transactional
+    public void changePasswordHash(Long userId, String passwordHash, Long changedBy) {
+        int updated = userRepository.updateUserPassword(userId, passwordHash, null, 0, LocalDateTime.now(), changedBy);
+
+        if (updated == 0) {
+            throw new RuntimeException("Failed to update password");
+        }
+        tokenRevocationService.revokeUser(userId);
+    }
+
+}
@@ -5,7 +5,7 @@ import com.erp.common.dto.user.*;
 import com.erp.common.entity.Tenant;
 import com.erp.common.entity.User;
 import com.erp.common.jwt.UserPrincipal;
-import com.erp.common.repository.TenantRepository;
+import com.erp.common.service.TenantDirectory;
 import com.erp.security.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -28,8 +29,9 @@ import java.util.Optional;
 public class UserManagementService {
 
     private final UserRepository userRepository;
-    private final TenantRepository tenantRepository;
+    private final TenantDirectory tenantDirectory;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional
     public UserResponse createSuperAdmin(CreateSuperAdminRequest request, UserPrincipal currentUser) {
@@ -83,7 +85,7 @@ public class UserManagementService {
         Tenant tenant = null;
 
         if (targetTenantId != null) {
-            tenant = tenantRepository.findById(targetTenantId)
+            tenant = tenantDirectory.findById(targetTenantId)
                     .orElseThrow(() -> new IllegalArgumentException("Tenant not found"));
 
             if (!tenant.getIsActive()) {
@@ -156,6 +158,7 @@ public class UserManagementService {
         if (updated == 0) {
             throw new RuntimeException("Failed to update user status");
         }
+        tokenRevocationService.revokeUser(userId);
 
         User updatedUser = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Failed to fetch updated user"));
@@ -168,7 +171,7 @@ public class UserManagementService {
 
         Tenant tenant = null;
         if (updatedUser.getTenantId() != null) {
-            tenant = tenantRepository.findById(updatedUser.getTenantId()).orElse(null);
+            tenant = tenantDirectory.findById(updatedUser.getTenantId()).orElse(null);
         }
 
         return convertToUserResponse(updatedUser, tenant);
@@ -200,6 +203,10 @@ public class UserManagementService {
         if (updated == 0) {
             throw new RuntimeException("Failed to update user");
         }
+        // Tokens carry the email
+        if (!Objects.equals(email, user.getEmail())) {
+            tokenRevocationService.revokeUser(userId);
+        }
 
         User updatedUser = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Failed to fetch updated user"));
@@ -208,7 +215,7 @@ public class UserManagementService {
 
         Tenant tenant = null;
         if (updatedUser.getTenantId() != null) {
-            tenant = tenantRepository.findById(updatedUser.getTenantId()).orElse(null);
+            tenant = tenantDirectory.findById(updatedUser.getTenantId()).orElse(null);
         }
 
         return convertToUserResponse(updatedUser, tenant);
@@ -238,6 +245,7 @@ public class UserManagementService {
         if (updated == 0) {
             throw new RuntimeException("Failed to delete user");
         }
+        tokenRevocationService.revokeUser(userId);
 
         log.info("User deleted: {} by {}", user.getUsername(), currentUser.getUsername());
     }
@@ -265,7 +273,7 @@ public class UserManagementService {
         return users.map(user -> {
             Tenant tenant = null;
             if (user.getTenantId() != null) {
-                tenant = tenantRepository.findById(user.getTenantId()).orElse(null);
+                tenant = tenantDirectory.findById(user.getTenantId()).orElse(null);
             }
             return convertToUserResponse(user, tenant);
         });
@@ -279,7 +287,7 @@ public class UserManagementService {
 
         Tenant tenant = null;
         if (user.getTenantId() != null) {
-            tenant = tenantRepository.findById(user.getTenantId()).orElse(null);
+            tenant = tenantDirectory.findById(user.getTenantId()).orElse(null);
         }
 
         return convertToUserResponse(user, tenant);
@@ -326,7 +334,7 @@ public class UserManagementService {
             }
 
             if (request.getTenantCode() != null) {
-                Tenant tenant = tenantRepository.findByTenantCodeAndIsActiveTrue(request.getTenantCode())
+                Tenant tenant = tenantDirectory.findActiveByCode(request.getTenantCode())
                         .orElseThrow(() -> new IllegalArgumentException("Tenant not found with code: " + request.getTenantCode()));
                 return tenant.getId();
             }
@@ -8,7 +8,7 @@ import com.erp.common.entity.Tenant;
 import com.erp.common.entity.User;
 import com.erp.security.exception.AuthenticationException;
 import com.erp.common.jwt.UserPrincipal;
-import com.erp.common.repository.TenantRepository;
+import com.erp.common.service.TenantDirectory;
 import com.erp.security.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -26,11 +26,12 @@ import java.time.LocalDateTime;
 public class UserProfileService {
 
     private final UserRepository userRepository;
-    private final TenantRepository tenantRepository;
+    private final TenantDirectory tenantDirectory;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final RateLimitingService rateLimitingService;
     private final HttpServletRequest request;
+    private final UserCredentialService userCredentialService;
 
     @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(UserPrincipal currentUser) {
@@ -39,7 +40,7 @@ public class UserProfileService {
 
         Tenant tenant = null;
         if (user.getTenantId() != null) {
-            tenant = tenantRepository.findById(user.getTenantId()).orElse(null);
+            tenant = tenantDirectory.findById(user.getTenantId()).orElse(null);
         }
 
         log.debug("Profile viewed by user: {}", user.getUsername());
@@ -82,13 +83,16 @@ public class UserProfileService {
 
         Tenant tenant = null;
         if (updatedUser.getTenantId() != null) {
-            tenant = tenantRepository.findById(updatedUser.getTenantId()).orElse(null);
+            tenant = tenantDirectory.findById(updatedUser.getTenantId()).orElse(null);
         }
 
         return buildUserProfileResponse(updatedUser, tenant);
     }
 
-    @Transactional
+    /**
+     * Not transactional: both Argon2 steps run with no connection held, the new hash is stored in a
+     * short transaction of its own
+     */
     public void changePassword(ChangePasswordRequest changePasswordRequest, UserPrincipal currentUser) {
         rateLimitingService.checkPasswordChangeRateLimit(currentUser.getId());
 
@@ -109,18 +113,8 @@ public class UserProfileService {
             throw new AuthenticationException("Current password is incorrect");
         }
 
-        int updated = userRepository.updateUserPassword(
-                user.getId(),
-                passwordEncoder.encode(changePasswordRequest.getNewPassword()),
-                null,
-                0,
-                LocalDateTime.now(),
-                currentUser.getId()
-        );
-
-        if (updated == 0) {
-            throw new RuntimeException("Failed to update password");
-        }
+        String newPasswordHash = passwordEncoder.encode(changePasswordRequest.getNewPassword());
+        userCredentialService.changePasswordHash(user.getId(), newPasswordHash, currentUser.getId());
 
         rateLimitingService.clearPasswordChangeAttempts(currentUser.getId());
 
@@ -0,0 +1,95 @@
+package com.erp.security.service;
+
+import com.erp.common.entity.Tenant;
+import com.erp.common.service.TenantDirectory;
+import com.erp.security.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitingServiceTest {
+
+    private LocalRateLimitStore store;
+    private RateLimitingService service;
+
+    @BeforeEach
+    void setUp() {
+        Tenant demo = new Tenant();
+        demo.setTenantCode("DEMO");
+        TenantDirectory tenantDirectory = mock(TenantDirectory.class);
+        when(tenantDirectory.findActiveByCode(anyString())).thenReturn(Optional.empty());
+        when(tenantDirectory.findActiveByCode("DEMO")).thenReturn(Optional.of(demo));
+        when(tenantDirectory.findActiveByCode("demo")).thenReturn(Optional.of(demo));
+
+        store = new LocalRateLimitStore(1000);
+        service = new RateLimitingService(store, tenantDirectory);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "perIpEnabled", true);
+        ReflectionTestUtils.setField(service, "loginPerIp", "100/60");
+        ReflectionTestUtils.setField(service, "loginPerUser", "2/60");
+        ReflectionTestUtils.setField(service, "loginPerTenant", "3/60");
+        for (String field : new String[]{"forgotPasswordPerIp", "forgotPasswordPerEmail", "verifyResetCodePerIp",
+                "verifyResetCodePerEmail", "resetPasswordPerIp", "resetPasswordPerEmail", "passwordChangePerUser"}) {
+            ReflectionTestUtils.setField(service, field, "5/60");
+        }
+        service.loadLimits();
+    }
+
+    @Test
+    void usernameAndTenantCodeMatchIgnoringCaseAndSpaces() {
+        service.checkLogin("10.0.0.1", "DEMO", "alice");
+        service.checkLogin("10.0.0.2", "demo", " Alice ");
+
+        assertThatThrownBy(() -> service.checkLogin("10.0.0.3", "Demo", "ALICE"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasFieldOrPropertyWithValue("limitName", "login.per-user");
+    }
+
+    @Test
+    void rejectedRequestTakesNothingFromTheOtherBuckets() {
+        service.checkLogin("10.0.0.1", "DEMO", "alice");
+        service.checkLogin("10.0.0.1", "DEMO", "alice");
+
+        // Per-user bucket is empty; the per-ip and per-tenant buckets must stay as they are
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> service.checkLogin("10.0.0.1", "DEMO", "alice"))
+                    .isInstanceOf(RateLimitExceededException.class);
+        }
+
+        service.checkLogin("10.0.0.1", "DEMO", "bob");
+        assertThatThrownBy(() -> service.checkLogin("10.0.0.1", "DEMO", "carol"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasFieldOrPropertyWithValue("limitName", "login.per-tenant");
+    }
+
+    @Test
+    void unknownTenantCodesGetNoTenantBucket() {
+        for (int i = 0; i < 10; i++) {
+            service.checkLogin("10.0.0.1", "NOPE", "user" + i);
+        }
+
+        // One per-ip bucket and one per user, none for the tenant
+        assertThat(store.size()).isEqualTo(11);
+    }
+
+    @Test
+    void perIpBucketsAreSkippedUntilClientIpsAreTrusted() {
+        ReflectionTestUtils.setField(service, "perIpEnabled", false);
+
+        // Every client behind the same node address, as with an untrusted proxy
+        for (int i = 0; i < 10; i++) {
+            service.checkForgotPassword("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThat(store.size()).isEqualTo(10);
+    }
+
+}
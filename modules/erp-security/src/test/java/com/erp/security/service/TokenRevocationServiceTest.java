@@ -0,0 +1,67 @@
+package com.erp.security.service;
+
+import com.erp.common.entity.User;
+import com.erp.common.jwt.UserPrincipal;
+import com.erp.common.repository.TenantRepository;
+import com.erp.security.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TenantRepository tenantRepository = mock(TenantRepository.class);
+    private final TokenRevocationService service = new TokenRevocationService(userRepository, tenantRepository, 86_400_000);
+
+    private final UserPrincipal user = new UserPrincipal(7L, "teacher", "t@example.com", null,
+            User.UserType.TENANT_USER, 3L, "SCH001", true, true);
+
+    @Test
+    void revokeUserIsStoredAndAppliesToOlderTokens() {
+        Instant issuedBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(60);
+
+        service.revokeUser(7L);
+
+        verify(userRepository).updateTokensValidAfter(eq(7L), any(LocalDateTime.class));
+        assertThat(service.isRevoked(user, issuedBefore)).isTrue();
+        assertThat(service.isRevoked(user, Instant.now().plusSeconds(1))).isFalse();
+    }
+
+    @Test
+    void revocationsWrittenByAnotherInstanceArePickedUpByPoll() {
+        Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Timestamp stored = Timestamp.valueOf(LocalDateTime.ofInstant(revokedAt, ZoneId.systemDefault()));
+        when(userRepository.findTokenRevocationsSince(any())).thenReturn(List.of());
+        when(tenantRepository.findTokenRevocationsSince(any())).thenReturn(List.<Object[]>of(new Object[]{3L, stored}));
+
+        assertThat(service.isRevoked(user, revokedAt.minusSeconds(1))).isFalse();
+        service.pollRevocations();
+
+        assertThat(service.isRevoked(user, revokedAt.minusSeconds(1))).isTrue();
+        assertThat(service.isRevoked(user, revokedAt)).isFalse();
+    }
+
+    @Test
+    void failedPollKeepsExistingRevocations() {
+        service.revokeUser(7L);
+        when(userRepository.findTokenRevocationsSince(any())).thenThrow(new RuntimeException("no column yet"));
+
+        service.pollRevocations();
+
+        assertThat(service.isRevoked(user, Instant.now().minusSeconds(60))).isTrue();
+    }
+
+}